@@ -0,0 +1,56 @@
+// Load test check-in/check-out untuk membandingkan platform thread vs virtual thread
+// Jalankan: k6 run -e BASE_URL=http://localhost:8081/api -e MODE=platform load-test/checkin-checkout.js
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081/api';
+const MODE = __ENV.MODE || 'unknown';
+
+const checkInDuration = new Trend('checkin_duration', true);
+const checkOutDuration = new Trend('checkout_duration', true);
+
+export const options = {
+    scenarios: {
+        gate_traffic: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: 50 },
+                { duration: '1m', target: 200 },
+                { duration: '2m', target: 400 },
+                { duration: '30s', target: 0 },
+            ],
+        },
+    },
+    tags: { mode: MODE },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+// Plat unik per VU (huruf) dan iterasi (angka), sesuai pola ^[A-Z]{1,2}\d{1,4}[A-Z]{1,3}$
+function plateFor(vu, iter) {
+    const letters = String.fromCharCode(65 + (vu % 26))
+        + String.fromCharCode(65 + (Math.floor(vu / 26) % 26))
+        + String.fromCharCode(65 + (Math.floor(vu / 676) % 26));
+    return `B${(iter % 9999) + 1}${letters}`;
+}
+
+function jsonPart(payload) {
+    return http.file(JSON.stringify(payload), 'data.json', 'application/json');
+}
+
+export default function () {
+    const plate = plateFor(__VU, __ITER);
+
+    const checkIn = http.post(`${BASE_URL}/parking/check-in`, {
+        data: jsonPart({ plateNumber: plate, vehicleType: 'CAR', gate: 'GATE_A', operatorName: 'LOADTEST' }),
+    });
+    checkInDuration.add(checkIn.timings.duration);
+    check(checkIn, { 'check-in 2xx': (r) => r.status >= 200 && r.status < 300 });
+
+    const checkOut = http.post(`${BASE_URL}/parking/check-out`, {
+        data: jsonPart({ plateNumber: plate, paymentMethod: 'CASH', gate: 'GATE_B', operatorName: 'LOADTEST' }),
+    });
+    checkOutDuration.add(checkOut.timings.duration);
+    check(checkOut, { 'check-out 2xx': (r) => r.status >= 200 && r.status < 300 });
+}
@@ -0,0 +1,168 @@
+package com.parkee.parkingpos.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.ReactiveRedisClusterConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * RedisConnectionFactory yang melewatkan semua akses Redis melalui RedisCircuitBreaker
+ * Dipakai oleh RedisTemplate, StringRedisTemplate dan RedisCacheManager sekaligus
+ */
+public class CircuitBreakingRedisConnectionFactory implements RedisConnectionFactory, ReactiveRedisConnectionFactory,
+        DisposableBean {
+
+    private static final Set<String> LIFECYCLE_METHODS = Set.of("close", "isClosed", "getNativeConnection",
+            "isQueueing", "isPipelined", "openPipeline", "getSentinelConnection", "toString", "hashCode", "equals");
+
+    private final RedisConnectionFactory delegate;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    public CircuitBreakingRedisConnectionFactory(RedisConnectionFactory delegate, RedisCircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public RedisConnection getConnection() {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new RedisConnectionFailureException("Redis circuit breaker OPEN, akses Redis dilewati");
+        }
+
+        RedisConnection connection;
+        try {
+            connection = delegate.getConnection();
+        } catch (RuntimeException e) {
+            record(e);
+            throw e;
+        }
+        return guard(connection);
+    }
+
+    @Override
+    public RedisClusterConnection getClusterConnection() {
+        return delegate.getClusterConnection();
+    }
+
+    @Override
+    public boolean getConvertPipelineAndTxResults() {
+        return delegate.getConvertPipelineAndTxResults();
+    }
+
+    @Override
+    public RedisSentinelConnection getSentinelConnection() {
+        return delegate.getSentinelConnection();
+    }
+
+    @Override
+    public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+        return delegate.translateExceptionIfPossible(ex);
+    }
+
+    @Override
+    public ReactiveRedisConnection getReactiveConnection() {
+        return reactiveDelegate().getReactiveConnection();
+    }
+
+    @Override
+    public ReactiveRedisClusterConnection getReactiveClusterConnection() {
+        return reactiveDelegate().getReactiveClusterConnection();
+    }
+
+    public RedisConnectionFactory getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Bean yang terdaftar adalah wrapper ini, sehingga shutdown factory asli diteruskan dari sini
+     */
+    @Override
+    public void destroy() throws Exception {
+        if (delegate instanceof DisposableBean disposable) {
+            disposable.destroy();
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private RedisConnection guard(RedisConnection connection) {
+        return (RedisConnection) guard(connection, RedisConnection.class, new AtomicBoolean());
+    }
+
+    /**
+     * Proxy yang mencatat hasil setiap command ke circuit breaker
+     * Accessor seperti stringCommands()/keyCommands() hanya mengembalikan objek command (RedisCacheWriter dan
+     * RedisTemplate.hasKey/delete/expire memanggil lewat objek tersebut), jadi hasilnya dibungkus dengan proxy
+     * yang sama dan tidak dihitung sebagai keberhasilan
+     */
+    private Object guard(Object target, Class<?> type, AtomicBoolean recorded) {
+        return Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (LIFECYCLE_METHODS.contains(name)) {
+                        if ("close".equals(name) && recorded.compareAndSet(false, true)) {
+                            circuitBreaker.releaseTrial();
+                        }
+                        return invoke(target, method, args);
+                    }
+                    if (isCommandAccessor(method)) {
+                        Object commands = invoke(target, method, args);
+                        return commands != null ? guard(commands, method.getReturnType(), recorded) : null;
+                    }
+
+                    try {
+                        Object result = invoke(target, method, args);
+                        recorded.set(true);
+                        circuitBreaker.onSuccess();
+                        return result;
+                    } catch (RuntimeException e) {
+                        recorded.set(true);
+                        record(e);
+                        throw e;
+                    }
+                });
+    }
+
+    private static boolean isCommandAccessor(Method method) {
+        Class<?> type = method.getReturnType();
+        return method.getParameterCount() == 0 && type.isInterface() && type.getSimpleName().endsWith("Commands");
+    }
+
+    private void record(RuntimeException error) {
+        if (RedisCircuitBreaker.isRedisUnavailable(error)) {
+            circuitBreaker.onFailure(error);
+        } else {
+            // Redis merespons (mis. WRONGTYPE), berarti koneksi sehat
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private ReactiveRedisConnectionFactory reactiveDelegate() {
+        if (delegate instanceof ReactiveRedisConnectionFactory reactive) {
+            return reactive;
+        }
+        throw new UnsupportedOperationException("Redis connection factory tidak mendukung reactive connection");
+    }
+}
@@ -1,11 +1,16 @@
 package com.parkee.parkingpos.config;
 
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Properties untuk konfigurasi sistem parkir
@@ -21,6 +26,7 @@ public class ParkingProperties {
     private int maxParkingHours;
     private BusinessHours businessHours;
     private FileConfig file;
+    private Map<ParkingTicket.VehicleType, Tariff> tariffs = new EnumMap<>(ParkingTicket.VehicleType.class);
 
     @Data
     public static class BusinessHours {
@@ -34,4 +40,25 @@ public class ParkingProperties {
         private long maxSize;
         private String[] allowedTypes;
     }
-}
\ No newline at end of file
+
+    /**
+     * Tarif per jenis kendaraan; field kosong memakai nilai global parking.*
+     */
+    @Data
+    public static class Tariff {
+        private Integer gracePeriodMinutes;
+        private Integer maxParkingHours;
+        private BigDecimal dailyCap; // Maksimal biaya per 24 jam sejak check-in
+        private List<Band> bands = new ArrayList<>();
+    }
+
+    /**
+     * Band jam: berlaku dari start sampai start band berikutnya
+     * hourlyRates progresif per jam ke-n dalam satu hari parkir, rate terakhir berlaku untuk jam selanjutnya
+     */
+    @Data
+    public static class Band {
+        private LocalTime start;
+        private List<BigDecimal> hourlyRates = new ArrayList<>();
+    }
+}
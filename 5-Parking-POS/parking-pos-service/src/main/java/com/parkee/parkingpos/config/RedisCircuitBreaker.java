@@ -0,0 +1,128 @@
+package com.parkee.parkingpos.config;
+
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.RedisConnectionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Circuit breaker untuk semua akses Redis
+ * CLOSED: normal; OPEN: semua akses langsung gagal tanpa menyentuh network;
+ * HALF_OPEN: satu percobaan dibiarkan lewat untuk menentukan apakah Redis sudah pulih
+ */
+@Slf4j
+public class RedisCircuitBreaker {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+
+    private final AtomicLong rejectedCalls = new AtomicLong();
+    private final AtomicLong failedCalls = new AtomicLong();
+
+    public RedisCircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Cek apakah akses Redis boleh dilakukan
+     * Saat OPEN dan durasi open sudah lewat, breaker pindah ke HALF_OPEN dan satu caller menjadi percobaan
+     */
+    public boolean tryAcquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+
+        if (current == State.OPEN && System.nanoTime() - openedAt.get() >= openDurationNanos) {
+            state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        if (state.get() == State.HALF_OPEN && trialInFlight.compareAndSet(false, true)) {
+            return true;
+        }
+
+        rejectedCalls.incrementAndGet();
+        return false;
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.get() != State.CLOSED) {
+            trialInFlight.set(false);
+            if (state.getAndSet(State.CLOSED) != State.CLOSED) {
+                log.info("Redis circuit breaker CLOSED, Redis sudah pulih");
+            }
+        }
+    }
+
+    public void onFailure(Throwable error) {
+        failedCalls.incrementAndGet();
+        State current = state.get();
+
+        if (current == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openedAt.set(System.nanoTime());
+            trialInFlight.set(false);
+            if (state.getAndSet(State.OPEN) != State.OPEN) {
+                log.error("Redis circuit breaker OPEN: {}", error.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Lepas slot percobaan HALF_OPEN jika caller tidak menjalankan perintah apa pun
+     */
+    public void releaseTrial() {
+        trialInFlight.set(false);
+    }
+
+    /**
+     * Hanya error koneksi/timeout yang dihitung sebagai kegagalan Redis
+     */
+    public static boolean isRedisUnavailable(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RedisConnectionFailureException
+                    || cause instanceof QueryTimeoutException
+                    || cause instanceof RedisCommandTimeoutException
+                    || cause instanceof RedisConnectionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public boolean isClosed() {
+        return state.get() == State.CLOSED;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public long getRejectedCalls() {
+        return rejectedCalls.get();
+    }
+
+    public long getFailedCalls() {
+        return failedCalls.get();
+    }
+}
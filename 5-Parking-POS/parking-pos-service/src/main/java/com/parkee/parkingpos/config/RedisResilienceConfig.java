@@ -0,0 +1,117 @@
+package com.parkee.parkingpos.config;
+
+import com.parkee.parkingpos.service.RedisReplayBuffer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.cache.Cache;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.time.Duration;
+
+/**
+ * Konfigurasi degraded mode Redis
+ * Semua koneksi Redis melewati circuit breaker; cache yang gagal diperlakukan sebagai miss
+ * dan eviction yang gagal di-buffer untuk di-replay setelah Redis pulih
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class RedisResilienceConfig implements CachingConfigurer {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "Redis tidak tersedia, berjalan tanpa cache");
+
+    private final ObjectProvider<RedisReplayBuffer> replayBuffer;
+
+    @Bean
+    public static RedisCircuitBreaker redisCircuitBreaker(Environment environment) {
+        return new RedisCircuitBreaker(
+                environment.getProperty("parking.redis-breaker.failure-threshold", Integer.class, 5),
+                environment.getProperty("parking.redis-breaker.open-duration", Duration.class, Duration.ofSeconds(5)));
+    }
+
+    @Bean
+    public static BeanPostProcessor redisCircuitBreakerPostProcessor(ObjectProvider<RedisCircuitBreaker> circuitBreaker) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof RedisConnectionFactory factory
+                        && !(bean instanceof CircuitBreakingRedisConnectionFactory)) {
+                    log.info("Redis connection factory '{}' dibungkus circuit breaker", beanName);
+                    return new CircuitBreakingRedisConnectionFactory(factory, circuitBreaker.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public HealthIndicator redisCircuitHealthIndicator(RedisCircuitBreaker circuitBreaker) {
+        return () -> {
+            Health.Builder builder = circuitBreaker.isClosed() ? Health.up() : Health.status(DEGRADED);
+            return builder
+                    .withDetail("state", circuitBreaker.getState())
+                    .withDetail("consecutiveFailures", circuitBreaker.getConsecutiveFailures())
+                    .withDetail("pendingReplay", replayBuffer.getObject().pendingCount())
+                    .build();
+        };
+    }
+
+    @Bean
+    public MeterBinder redisCircuitBreakerMetrics(RedisCircuitBreaker circuitBreaker) {
+        return registry -> {
+            Gauge.builder("redis.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                    .description("State circuit breaker Redis (0=CLOSED, 1=HALF_OPEN, 2=OPEN)")
+                    .register(registry);
+            FunctionCounter.builder("redis.circuit.rejected", circuitBreaker, RedisCircuitBreaker::getRejectedCalls)
+                    .description("Akses Redis yang langsung ditolak karena breaker OPEN")
+                    .register(registry);
+            FunctionCounter.builder("redis.circuit.failures", circuitBreaker, RedisCircuitBreaker::getFailedCalls)
+                    .description("Akses Redis yang gagal karena koneksi/timeout")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Error cache tidak boleh menggagalkan request: get dianggap miss (baca langsung dari database),
+     * put diabaikan, evict/clear di-buffer agar cache tidak stale setelah Redis pulih
+     */
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new CacheErrorHandler() {
+            @Override
+            public void handleCacheGetError(RuntimeException exception, Cache cache, Object key) {
+                log.warn("Cache {} get gagal, baca dari database: {}", cache.getName(), exception.getMessage());
+            }
+
+            @Override
+            public void handleCachePutError(RuntimeException exception, Cache cache, Object key, Object value) {
+                log.warn("Cache {} put gagal: {}", cache.getName(), exception.getMessage());
+            }
+
+            @Override
+            public void handleCacheEvictError(RuntimeException exception, Cache cache, Object key) {
+                log.warn("Cache {} evict gagal, di-buffer: {}", cache.getName(), exception.getMessage());
+                replayBuffer.getObject().recordEviction(cache.getName(), key);
+            }
+
+            @Override
+            public void handleCacheClearError(RuntimeException exception, Cache cache) {
+                log.warn("Cache {} clear gagal, di-buffer: {}", cache.getName(), exception.getMessage());
+                replayBuffer.getObject().recordClear(cache.getName());
+            }
+        };
+    }
+}
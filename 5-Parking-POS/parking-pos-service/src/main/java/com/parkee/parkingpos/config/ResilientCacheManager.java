@@ -0,0 +1,105 @@
+package com.parkee.parkingpos.config;
+
+import com.parkee.parkingpos.service.RedisReplayBuffer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CacheManager decorator yang menahan error evict/clear saat Redis tidak tersedia
+ * Eviction dari TransactionAwareCacheDecorator berjalan setelah commit sehingga tidak melewati
+ * CacheErrorHandler; di sini eviction yang gagal di-buffer untuk di-replay
+ */
+@Slf4j
+public class ResilientCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final ObjectProvider<RedisReplayBuffer> replayBuffer;
+    private final ConcurrentHashMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public ResilientCacheManager(CacheManager delegate, ObjectProvider<RedisReplayBuffer> replayBuffer) {
+        this.delegate = delegate;
+        this.replayBuffer = replayBuffer;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = delegate.getCache(name);
+        return cache == null ? null : caches.computeIfAbsent(name, n -> new ResilientCache(cache));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    private class ResilientCache implements Cache {
+
+        private final Cache target;
+
+        ResilientCache(Cache target) {
+            this.target = target;
+        }
+
+        @Override
+        public String getName() {
+            return target.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return target.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return target.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return target.get(key, type);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return target.get(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            target.put(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            try {
+                target.evict(key);
+            } catch (RuntimeException e) {
+                if (!RedisCircuitBreaker.isRedisUnavailable(e)) {
+                    throw e;
+                }
+                log.warn("Evict cache {} gagal, di-buffer: {}", getName(), e.getMessage());
+                replayBuffer.getObject().recordEviction(getName(), key);
+            }
+        }
+
+        @Override
+        public void clear() {
+            try {
+                target.clear();
+            } catch (RuntimeException e) {
+                if (!RedisCircuitBreaker.isRedisUnavailable(e)) {
+                    throw e;
+                }
+                log.warn("Clear cache {} gagal, di-buffer: {}", getName(), e.getMessage());
+                replayBuffer.getObject().recordClear(getName());
+            }
+        }
+    }
+}
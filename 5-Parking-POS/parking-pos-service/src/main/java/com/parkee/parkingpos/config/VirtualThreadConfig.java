@@ -0,0 +1,64 @@
+package com.parkee.parkingpos.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Konfigurasi mode virtual thread
+ * Tomcat, @Async dan @Scheduled otomatis memakai virtual thread lewat spring.threads.virtual.enabled;
+ * di sini hanya ditambahkan pembatas concurrency di depan pool Hikari
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceConcurrencyLimiter(Environment environment) {
+        int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        int maxConcurrent = environment.getProperty("parking.datasource-limiter.max-concurrent", Integer.class, poolSize);
+        long connectionTimeout = environment.getProperty("spring.datasource.hikari.connection-timeout", Long.class, 30000L);
+        long configuredTimeout = environment.getProperty("parking.datasource-limiter.acquire-timeout-ms", Long.class,
+                connectionTimeout);
+        // Antre di limiter lebih lama dari connection-timeout Hikari menghapus fail-fast saat database down
+        if (configuredTimeout > connectionTimeout) {
+            log.warn("parking.datasource-limiter.acquire-timeout-ms ({} ms) melebihi connection-timeout Hikari, "
+                    + "dipakai {} ms", configuredTimeout, connectionTimeout);
+        }
+        long acquireTimeout = Math.min(configuredTimeout, connectionTimeout);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitingDataSource)) {
+                    log.info("Virtual thread aktif: akses DataSource '{}' dibatasi {} connection bersamaan",
+                            beanName, maxConcurrent);
+                    return new ConcurrencyLimitingDataSource(dataSource, maxConcurrent, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder dataSourceLimiterMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConcurrencyLimitingDataSource limiter) {
+                Gauge.builder("parking.datasource.limiter.active", limiter, ConcurrencyLimitingDataSource::getActive)
+                        .description("Connection database yang sedang dipinjam")
+                        .register(registry);
+                Gauge.builder("parking.datasource.limiter.waiting", limiter, ConcurrencyLimitingDataSource::getWaiting)
+                        .description("Thread yang menunggu connection database")
+                        .register(registry);
+            }
+        };
+    }
+}
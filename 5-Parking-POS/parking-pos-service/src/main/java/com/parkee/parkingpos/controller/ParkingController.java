@@ -1,5 +1,6 @@
 package com.parkee.parkingpos.controller;
 
+import com.parkee.parkingpos.domain.projection.MemberSuggestion;
 import com.parkee.parkingpos.dto.*;
 import com.parkee.parkingpos.service.*;
 import io.swagger.v3.oas.annotations.Operation;
@@ -14,13 +15,16 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -40,8 +44,14 @@ public class ParkingController {
     private final ParkingService parkingService;
     private final MemberService memberService;
     private final VoucherService voucherService;
+    private final VoucherCampaignService voucherCampaignService;
     private final InvoiceReceiptService invoiceReceiptService;
     private final DashboardService dashboardService;
+    private final DashboardStreamService dashboardStreamService;
+    private final PhotoIngestionService photoIngestionService;
+    private final GateEventSyncService gateEventSyncService;
+    private final GateJournalService gateJournalService;
+    private final FeeProjectionService feeProjectionService;
 
     // ======================== PARKING ENDPOINTS ========================
 
@@ -116,7 +126,8 @@ public class ParkingController {
             @Valid @RequestPart("data") CheckInRequestDto request,
             @RequestPart(value = "photo", required = false) MultipartFile photo) {
 
-        ParkingTicketResponseDto ticket = parkingService.checkIn(request, photo);
+        ParkingTicketResponseDto ticket = gateJournalService.checkIn(
+                request, photoIngestionService.stage(photo, "checkin"));
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(com.parkee.parkingpos.dto.ApiResponse.success("Check-in berhasil", ticket));
     }
@@ -376,10 +387,64 @@ public class ParkingController {
             @Valid @RequestPart("data") CheckOutRequestDto request,
             @RequestPart(value = "photo", required = false) MultipartFile photo) {
 
-        InvoiceReceiptDto invoice = parkingService.checkOut(request, photo);
+        InvoiceReceiptDto invoice = gateJournalService.checkOut(
+                request, photoIngestionService.stage(photo, "checkout"));
         return ResponseEntity.ok(com.parkee.parkingpos.dto.ApiResponse.success("Check-out berhasil", invoice));
     }
 
+    /**
+     * Sinkronisasi event gate yang tertunda
+     * Dipakai gate yang sempat offline untuk mengirim ulang check-in/check-out secara berurutan
+     */
+    @PostMapping("/sync/gate-events")
+    @Operation(
+            summary = "Sinkronisasi event gate",
+            description = "Menerapkan batch event check-in/check-out yang di-buffer gate saat offline, sesuai urutan waktu kejadian."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Sinkronisasi selesai",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = com.parkee.parkingpos.dto.ApiResponse.class),
+                            examples = @ExampleObject(
+                                    value = """
+                                            {
+                                              "success": true,
+                                              "message": "Sinkronisasi event gate selesai",
+                                              "data": {
+                                                "received": 1200,
+                                                "applied": 1199,
+                                                "rejected": 1,
+                                                "duplicates": 0,
+                                                "skipped": 0,
+                                                "rejections": [
+                                                  {
+                                                    "index": 17,
+                                                    "eventId": "GATE_A-000123",
+                                                    "reason": "Tidak ada kendaraan aktif dengan plat nomor: B1234CD"
+                                                  }
+                                                ]
+                                              }
+                                            }
+                                            """
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Data event tidak valid",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<com.parkee.parkingpos.dto.ApiResponse<GateEventSyncResultDto>> syncGateEvents(
+            @Valid @RequestBody GateEventBatchRequestDto request) {
+
+        GateEventSyncResultDto result = gateEventSyncService.sync(request.getEvents());
+        return ResponseEntity.ok(com.parkee.parkingpos.dto.ApiResponse.success("Sinkronisasi event gate selesai", result));
+    }
+
     // ======================== MEMBER ENDPOINTS ========================
 
     /**
@@ -495,6 +560,48 @@ public class ParkingController {
         return ResponseEntity.ok(com.parkee.parkingpos.dto.ApiResponse.success("Data member berhasil diambil", members));
     }
 
+    /**
+     * Typeahead member
+     */
+    @GetMapping("/members/suggest")
+    @Operation(
+            summary = "Typeahead member",
+            description = "Saran member aktif berdasarkan nama atau nomor plat (minimal 3 karakter). " +
+                    "Kecocokan prefix ditampilkan lebih dulu."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Saran member berhasil diambil",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    value = """
+                                            {
+                                              "success": true,
+                                              "message": "Saran member berhasil diambil",
+                                              "data": [
+                                                {
+                                                  "id": 1,
+                                                  "memberCode": "MBR001",
+                                                  "name": "John Doe",
+                                                  "vehiclePlateNumber": "B1234CD"
+                                                }
+                                              ]
+                                            }
+                                            """
+                            )
+                    )
+            )
+    })
+    public ResponseEntity<com.parkee.parkingpos.dto.ApiResponse<List<MemberSuggestion>>> suggestMembers(
+            @Parameter(description = "Potongan nama atau plat nomor") @RequestParam String q,
+            @Parameter(description = "Jumlah saran maksimal (1-20)") @RequestParam(defaultValue = "10") int limit) {
+
+        List<MemberSuggestion> suggestions = memberService.suggest(q, limit);
+        return ResponseEntity.ok(com.parkee.parkingpos.dto.ApiResponse.success("Saran member berhasil diambil", suggestions));
+    }
+
     /**
      * Get member by ID
      */
@@ -836,6 +943,83 @@ public class ParkingController {
         return ResponseEntity.ok(com.parkee.parkingpos.dto.ApiResponse.success("Voucher berhasil diterminasi", voucher));
     }
 
+    /**
+     * Kampanye voucher massal
+     */
+    @PostMapping("/vouchers/campaigns")
+    @Operation(
+            summary = "Buat kampanye voucher",
+            description = "Membangkitkan banyak kode voucher unik dari pola (# = karakter acak) di background. " +
+                    "Progress dipantau lewat endpoint status kampanye."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Kampanye dimulai",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = com.parkee.parkingpos.dto.ApiResponse.class),
+                            examples = @ExampleObject(
+                                    value = """
+                                            {
+                                              "success": true,
+                                              "message": "Kampanye voucher dimulai",
+                                              "data": {
+                                                "campaignId": "5f0c6f7e-3c1a-4c4b-9a57-2f1d0a3e7b11",
+                                                "status": "RUNNING",
+                                                "codePattern": "RAMADAN######",
+                                                "requested": 100000,
+                                                "inserted": 0,
+                                                "collisions": 0,
+                                                "progressPercent": 0.0,
+                                                "startedAt": "2025-01-16T10:00:00"
+                                              }
+                                            }
+                                            """
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Data kampanye tidak valid atau pola kode terlalu sempit",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<com.parkee.parkingpos.dto.ApiResponse<VoucherCampaignStatusDto>> createVoucherCampaign(
+            @Valid @RequestBody VoucherCampaignRequestDto request) {
+
+        VoucherCampaignStatusDto campaign = voucherCampaignService.start(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(com.parkee.parkingpos.dto.ApiResponse.success("Kampanye voucher dimulai", campaign));
+    }
+
+    /**
+     * Status kampanye voucher massal
+     */
+    @GetMapping("/vouchers/campaigns/{campaignId}")
+    @Operation(
+            summary = "Status kampanye voucher",
+            description = "Progress pembangkitan kode voucher untuk satu kampanye"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Status kampanye berhasil diambil",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Kampanye tidak ditemukan",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<com.parkee.parkingpos.dto.ApiResponse<VoucherCampaignStatusDto>> getVoucherCampaign(
+            @PathVariable String campaignId) {
+
+        VoucherCampaignStatusDto campaign = voucherCampaignService.getStatus(campaignId);
+        return ResponseEntity.ok(com.parkee.parkingpos.dto.ApiResponse.success("Status kampanye berhasil diambil", campaign));
+    }
+
     // ======================== DASHBOARD & ADMIN ENDPOINTS ========================
 
     /**
@@ -896,6 +1080,131 @@ public class ParkingController {
         return ResponseEntity.ok(com.parkee.parkingpos.dto.ApiResponse.success("Statistik berhasil diambil", stats));
     }
 
+    /**
+     * Counter real-time hari ini
+     */
+    @GetMapping("/dashboard/live")
+    @Operation(
+            summary = "Counter real-time",
+            description = "Kendaraan masuk/keluar, occupancy dan pendapatan hari ini per gate dan jenis kendaraan. " +
+                    "Dibaca dari counter Redis tanpa query database"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Counter berhasil diambil",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    value = """
+                                            {
+                                              "success": true,
+                                              "message": "Counter berhasil diambil",
+                                              "data": {
+                                                "date": "2025-01-16",
+                                                "vehiclesIn": 1250,
+                                                "vehiclesOut": 1100,
+                                                "occupancy": 150,
+                                                "revenue": 15750000.00,
+                                                "topUps": 42,
+                                                "topUpAmount": 2100000.00,
+                                                "occupancyByVehicleType": {
+                                                  "CAR": 110,
+                                                  "MOTORCYCLE": 40
+                                                }
+                                              }
+                                            }
+                                            """
+                            )
+                    )
+            )
+    })
+    public ResponseEntity<com.parkee.parkingpos.dto.ApiResponse<LiveCountersDto>> getLiveCounters() {
+        LiveCountersDto counters = dashboardService.getLiveCounters();
+        return ResponseEntity.ok(com.parkee.parkingpos.dto.ApiResponse.success("Counter berhasil diambil", counters));
+    }
+
+    /**
+     * Stream counter real-time (Server-Sent Events)
+     */
+    @GetMapping(value = "/dashboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream counter real-time",
+            description = "Event 'snapshot' berisi counter lengkap hari ini, disusul event 'delta' setiap ada " +
+                    "check-in, check-out atau top up yang commit. Perubahan digabung per interval stream " +
+                    "(default 500 ms); snapshot dikirim ulang saat pergantian hari"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Stream dibuka",
+                    content = @Content(
+                            mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                            examples = @ExampleObject(
+                                    value = """
+                                            event:delta
+                                            id:1024
+                                            data:{"sequence":1024,"date":"2025-01-16","vehiclesIn":3,"vehiclesOut":2,"revenue":15000.00,"topUps":0,"topUpAmount":0.00,"occupancy":151,"occupancyByVehicleType":{"CAR":111,"MOTORCYCLE":40}}
+                                            """
+                            )
+                    )
+            )
+    })
+    public SseEmitter streamDashboard() {
+        return dashboardStreamService.subscribe();
+    }
+
+    /**
+     * Proyeksi pendapatan dari semua kendaraan yang sedang parkir
+     */
+    @GetMapping("/dashboard/projection")
+    @Operation(
+            summary = "Proyeksi pendapatan parkir aktif",
+            description = "Menghitung biaya saat ini untuk semua tiket ACTIVE (diskon member termasuk, voucher belum), " +
+                    "dikelompokkan per jenis kendaraan dan gate check-in. Data tiket dibaca dari database sehingga mencakup " +
+                    "check-in dari semua instance aplikasi"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Proyeksi berhasil dihitung",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = com.parkee.parkingpos.dto.ApiResponse.class),
+                            examples = @ExampleObject(
+                                    value = """
+                                            {
+                                              "success": true,
+                                              "message": "Proyeksi berhasil dihitung",
+                                              "data": {
+                                                "calculatedAt": "2025-01-16T14:30:00",
+                                                "activeTickets": 3,
+                                                "totalBaseFee": 21000.00,
+                                                "totalMemberDiscount": 900.00,
+                                                "projectedRevenue": 20100.00,
+                                                "byVehicleType": {
+                                                  "CAR": { "tickets": 2, "projectedRevenue": 17100.00 },
+                                                  "MOTORCYCLE": { "tickets": 1, "projectedRevenue": 3000.00 }
+                                                },
+                                                "byGate": {
+                                                  "GATE_A": { "tickets": 3, "projectedRevenue": 20100.00 }
+                                                },
+                                                "computeMillis": 1
+                                              }
+                                            }
+                                            """
+                            )
+                    )
+            )
+    })
+    public ResponseEntity<com.parkee.parkingpos.dto.ApiResponse<FeeProjectionDto>> getFeeProjection(
+            @Parameter(description = "Waktu acuan check-out, default sekarang", example = "2025-01-16T14:30:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+
+        FeeProjectionDto projection = feeProjectionService.project(at != null ? at : LocalDateTime.now());
+        return ResponseEntity.ok(com.parkee.parkingpos.dto.ApiResponse.success("Proyeksi berhasil dihitung", projection));
+    }
+
     @GetMapping("/admin/vehicles")
     @Operation(
             summary = "List kendaraan",
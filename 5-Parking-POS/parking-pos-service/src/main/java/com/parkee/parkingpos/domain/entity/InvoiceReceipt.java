@@ -1,9 +1,9 @@
 package com.parkee.parkingpos.domain.entity;
 
+import com.parkee.parkingpos.domain.value.Money;
 import jakarta.persistence.*;
 import lombok.*;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -23,7 +23,8 @@ import java.time.LocalDateTime;
 public class InvoiceReceipt {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_receipts_id_seq")
+    @SequenceGenerator(name = "invoice_receipts_id_seq", sequenceName = "invoice_receipts_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "invoice_number", unique = true, nullable = false, length = 50)
@@ -49,14 +50,14 @@ public class InvoiceReceipt {
     private Long durationMinutes;
 
     @Column(name = "base_amount", nullable = false, precision = 10, scale = 2)
-    private BigDecimal baseAmount;
+    private Money baseAmount;
 
     @Column(name = "discount_amount", precision = 10, scale = 2)
     @Builder.Default
-    private BigDecimal discountAmount = BigDecimal.ZERO;
+    private Money discountAmount = Money.ZERO;
 
     @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
-    private BigDecimal totalAmount;
+    private Money totalAmount;
 
     @Column(name = "payment_method", nullable = false, length = 30)
     private String paymentMethod;
@@ -1,10 +1,10 @@
 package com.parkee.parkingpos.domain.entity;
 
+import com.parkee.parkingpos.domain.value.Money;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -47,7 +47,7 @@ public class Member {
 
     @Column(nullable = false, precision = 10, scale = 2)
     @Builder.Default
-    private BigDecimal balance = BigDecimal.ZERO;
+    private Money balance = Money.ZERO;
 
     @Column(nullable = false)
     @Builder.Default
@@ -64,9 +64,22 @@ public class Member {
     @Column(name = "last_activity")
     private LocalDateTime lastActivity;
 
+    // Ringkasan parkir, dinaikkan atomik saat check-out (MemberRepository.recordParking)
+    @Column(name = "total_parkings", nullable = false)
+    @Builder.Default
+    private Integer totalParkings = 0;
+
+    @Column(name = "total_spent", nullable = false, precision = 12, scale = 2)
+    @Builder.Default
+    private Money totalSpent = Money.ZERO;
+
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PreUpdate
     public void preUpdate() {
         this.updatedAt = LocalDateTime.now();
@@ -1,10 +1,10 @@
 package com.parkee.parkingpos.domain.entity;
 
+import com.parkee.parkingpos.domain.value.Money;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -25,7 +25,8 @@ import java.time.LocalDateTime;
 public class ParkingTicket {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "parking_tickets_id_seq")
+    @SequenceGenerator(name = "parking_tickets_id_seq", sequenceName = "parking_tickets_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "plate_number", nullable = false, length = 20)
@@ -67,7 +68,7 @@ public class ParkingTicket {
     private String memberName;
 
     @Column(name = "parking_fee", precision = 10, scale = 2)
-    private BigDecimal parkingFee;
+    private Money parkingFee;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
@@ -0,0 +1,20 @@
+package com.parkee.parkingpos.domain.event;
+
+import com.parkee.parkingpos.domain.value.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event domain setelah saldo member di-top up
+ * Dipublikasikan di dalam transaksi, ditangani setelah commit
+ *
+ * @param memberId    member yang di-top up
+ * @param amount      nominal top up
+ * @param toppedUpAt  waktu top up
+ */
+public record MemberToppedUpEvent(
+        Long memberId,
+        Money amount,
+        LocalDateTime toppedUpAt
+) {
+}
@@ -0,0 +1,21 @@
+package com.parkee.parkingpos.domain.event;
+
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
+import com.parkee.parkingpos.domain.projection.ActiveTicketProjection;
+
+/**
+ * Event domain setelah kendaraan check-in
+ * Dipublikasikan di dalam transaksi, ditangani setelah commit
+ *
+ * @param ticket           proyeksi tiket yang baru dibuat
+ * @param reservationToken token reservasi plate di Redis, null jika reservasi dilewati
+ */
+public record VehicleCheckedInEvent(
+        ActiveTicketProjection ticket,
+        Object reservationToken
+) {
+
+    public static VehicleCheckedInEvent of(ParkingTicket ticket, Object reservationToken) {
+        return new VehicleCheckedInEvent(ActiveTicketProjection.of(ticket), reservationToken);
+    }
+}
@@ -0,0 +1,34 @@
+package com.parkee.parkingpos.domain.event;
+
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
+import com.parkee.parkingpos.domain.entity.PaymentMethod;
+import com.parkee.parkingpos.domain.value.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event domain setelah kendaraan check-out dan pembayaran berhasil
+ * Dipublikasikan di dalam transaksi, ditangani setelah commit
+ */
+public record VehicleCheckedOutEvent(
+        Long ticketId,
+        String plateNumber,
+        ParkingTicket.VehicleType vehicleType,
+        String checkOutGate,
+        LocalDateTime checkOutTime,
+        Money parkingFee,
+        PaymentMethod paymentMethod
+) {
+
+    public static VehicleCheckedOutEvent of(ParkingTicket ticket, PaymentMethod paymentMethod) {
+        return new VehicleCheckedOutEvent(
+                ticket.getId(),
+                ticket.getPlateNumber(),
+                ticket.getVehicleType(),
+                ticket.getCheckOutGate(),
+                ticket.getCheckOutTime(),
+                ticket.getParkingFee(),
+                paymentMethod
+        );
+    }
+}
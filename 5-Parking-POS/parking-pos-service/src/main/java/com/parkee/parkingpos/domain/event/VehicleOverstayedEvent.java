@@ -0,0 +1,18 @@
+package com.parkee.parkingpos.domain.event;
+
+import com.parkee.parkingpos.domain.projection.ActiveTicketProjection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event domain saat tiket ACTIVE melewati batas maksimal durasi parkir jenis kendaraannya
+ * Dipublikasikan oleh OverstayMonitor setelah status tiket dikonfirmasi ke database
+ *
+ * @param ticket   proyeksi tiket yang overstay
+ * @param deadline batas waktu parkir (check-in + max parking hours)
+ */
+public record VehicleOverstayedEvent(
+        ActiveTicketProjection ticket,
+        LocalDateTime deadline
+) {
+}
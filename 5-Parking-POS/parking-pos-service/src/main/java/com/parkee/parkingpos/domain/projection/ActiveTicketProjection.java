@@ -0,0 +1,30 @@
+package com.parkee.parkingpos.domain.projection;
+
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyeksi ringan dari tiket parkir ACTIVE
+ * Hanya berisi kolom yang dibutuhkan untuk tracking kendaraan di area parkir
+ */
+public record ActiveTicketProjection(
+        Long ticketId,
+        String plateNumber,
+        ParkingTicket.VehicleType vehicleType,
+        LocalDateTime checkInTime,
+        String checkInGate,
+        boolean member
+) {
+
+    public static ActiveTicketProjection of(ParkingTicket ticket) {
+        return new ActiveTicketProjection(
+                ticket.getId(),
+                ticket.getPlateNumber(),
+                ticket.getVehicleType(),
+                ticket.getCheckInTime(),
+                ticket.getCheckInGate(),
+                ticket.getMember() != null
+        );
+    }
+}
@@ -0,0 +1,13 @@
+package com.parkee.parkingpos.domain.projection;
+
+/**
+ * Proyeksi ringan member untuk typeahead pencarian
+ * Hanya kolom yang ditampilkan di dropdown, tanpa hydrate entity
+ */
+public record MemberSuggestion(
+        Long id,
+        String memberCode,
+        String name,
+        String vehiclePlateNumber
+) {
+}
@@ -16,5 +16,7 @@ public interface InvoiceReceiptRepository extends JpaRepository<InvoiceReceipt,
 
     Page<InvoiceReceipt> findByInvoiceDateBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
 
+    long countByInvoiceDateBetween(LocalDateTime start, LocalDateTime end);
+
     Page<InvoiceReceipt> findByPlateNumberContaining(String plateNumber, Pageable pageable);
 }
\ No newline at end of file
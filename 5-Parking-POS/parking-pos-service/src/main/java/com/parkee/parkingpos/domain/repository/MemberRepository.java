@@ -1,13 +1,19 @@
 package com.parkee.parkingpos.domain.repository;
 
 import com.parkee.parkingpos.domain.entity.Member;
+import com.parkee.parkingpos.domain.projection.MemberSuggestion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -17,16 +23,70 @@ public interface MemberRepository extends JpaRepository<Member, Long> {
 
     Optional<Member> findByVehiclePlateNumberAndActiveTrue(String plateNumber);
 
+    List<Member> findByVehiclePlateNumberInAndActiveTrue(Collection<String> plateNumbers);
+
     Optional<Member> findByMemberCode(String memberCode);
 
     boolean existsByVehiclePlateNumber(String plateNumber);
 
     boolean existsByEmail(String email);
 
+    /**
+     * Pencarian substring; LOWER(...) LIKE dilayani index GIN trigram (V7)
+     */
     @Query("SELECT m FROM Member m WHERE m.active = true AND " +
             "(LOWER(m.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
             "LOWER(m.vehiclePlateNumber) LIKE LOWER(CONCAT('%', :search, '%')))")
     Page<Member> searchActiveMembers(@Param("search") String search, Pageable pageable);
 
     Page<Member> findByActiveTrue(Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Member aktif dengan parkir terbanyak, dari kolom ringkasan total_parkings
+     */
+    List<Member> findByActiveTrueOrderByTotalParkingsDesc(Pageable pageable);
+
+    /**
+     * Typeahead member aktif: kecocokan prefix lebih dulu, lalu similarity trigram plat nomor kemudian nama
+     * pattern dan prefix sudah lowercase dan bebas wildcard LIKE
+     */
+    @Query("SELECT new com.parkee.parkingpos.domain.projection.MemberSuggestion(" +
+            "m.id, m.memberCode, m.name, m.vehiclePlateNumber) " +
+            "FROM Member m WHERE m.active = true AND " +
+            "(LOWER(m.name) LIKE :pattern OR LOWER(m.vehiclePlateNumber) LIKE :pattern) " +
+            "ORDER BY CASE WHEN LOWER(m.vehiclePlateNumber) LIKE :prefix OR LOWER(m.name) LIKE :prefix " +
+            "THEN 0 ELSE 1 END, " +
+            "FUNCTION('similarity', LOWER(m.vehiclePlateNumber), :term) DESC, " +
+            "FUNCTION('similarity', LOWER(m.name), :term) DESC, m.name")
+    List<MemberSuggestion> suggestActiveMembers(@Param("pattern") String pattern, @Param("prefix") String prefix,
+                                                @Param("term") String term, Pageable pageable);
+
+    /**
+     * Potong saldo secara atomik; 0 baris berarti saldo tidak mencukupi
+     * Version ikut dinaikkan agar penulisan berbasis entity yang stale gagal (optimistic lock)
+     * Native query karena balance dipetakan ke Money lewat converter; amount dikirim sebagai DECIMAL
+     */
+    @Modifying
+    @Query(value = "UPDATE members SET balance = balance - :amount, last_activity = :now, " +
+            "updated_at = :now, version = version + 1 " +
+            "WHERE id = :id AND balance >= :amount", nativeQuery = true)
+    int debitBalance(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+    /**
+     * Tambah saldo secara atomik untuk member aktif; 0 baris berarti member tidak ada atau tidak aktif
+     */
+    @Modifying
+    @Query(value = "UPDATE members SET balance = balance + :amount, last_activity = :now, " +
+            "updated_at = :now, version = version + 1 " +
+            "WHERE id = :id AND active = true", nativeQuery = true)
+    int creditBalance(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+    /**
+     * Catat satu parkir selesai pada ringkasan member; dipanggil sekali per check-out
+     */
+    @Modifying
+    @Query(value = "UPDATE members SET total_parkings = total_parkings + 1, " +
+            "total_spent = total_spent + :fee, last_activity = :now, updated_at = :now, version = version + 1 " +
+            "WHERE id = :id", nativeQuery = true)
+    int recordParking(@Param("id") Long id, @Param("fee") BigDecimal fee, @Param("now") LocalDateTime now);
+}
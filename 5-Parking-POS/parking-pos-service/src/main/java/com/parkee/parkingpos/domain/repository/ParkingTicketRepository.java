@@ -1,16 +1,20 @@
 package com.parkee.parkingpos.domain.repository;
 
 import com.parkee.parkingpos.domain.entity.ParkingTicket;
+import com.parkee.parkingpos.domain.projection.ActiveTicketProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -21,6 +25,36 @@ public interface ParkingTicketRepository extends JpaRepository<ParkingTicket, Lo
 
     Optional<ParkingTicket> findByPlateNumberAndStatus(String plateNumber, ParkingTicket.Status status);
 
+    boolean existsByIdAndStatus(Long id, ParkingTicket.Status status);
+
+    List<ParkingTicket> findByPlateNumberInAndStatus(Collection<String> plateNumbers, ParkingTicket.Status status);
+
+    /**
+     * Proyeksi semua tiket ACTIVE tanpa hydrate entity
+     * Dipakai untuk warm-up index kendaraan aktif saat startup dan proyeksi pendapatan parkir aktif
+     */
+    @Query("SELECT new com.parkee.parkingpos.domain.projection.ActiveTicketProjection(" +
+            "pt.id, pt.plateNumber, pt.vehicleType, pt.checkInTime, pt.checkInGate, " +
+            "CASE WHEN pt.member IS NOT NULL THEN true ELSE false END) " +
+            "FROM ParkingTicket pt WHERE pt.status = 'ACTIVE'")
+    List<ActiveTicketProjection> findActiveProjections();
+
+    /**
+     * Pasang referensi foto setelah photo ingestion pipeline menyimpan file final
+     * Referensi yang sudah terisi tidak ditimpa
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ParkingTicket pt SET pt.checkInPhotoPath = :path " +
+            "WHERE pt.id = :id AND pt.checkInPhotoPath IS NULL")
+    int attachCheckInPhotoPath(@Param("id") Long id, @Param("path") String path);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ParkingTicket pt SET pt.checkOutPhotoPath = :path " +
+            "WHERE pt.id = :id AND pt.checkOutPhotoPath IS NULL")
+    int attachCheckOutPhotoPath(@Param("id") Long id, @Param("path") String path);
+
     Page<ParkingTicket> findByPlateNumberContaining(String plateNumber, Pageable pageable);
 
     Page<ParkingTicket> findByStatus(ParkingTicket.Status status, Pageable pageable);
@@ -34,6 +68,23 @@ public interface ParkingTicketRepository extends JpaRepository<ParkingTicket, Lo
     @Query("SELECT COUNT(pt) FROM ParkingTicket pt WHERE pt.status = :status")
     long countByStatus(@Param("status") ParkingTicket.Status status);
 
+    long countByCheckInTimeBetween(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Jumlah tiket per jenis kendaraan, dihitung di database: [vehicleType, count]
+     */
+    @Query("SELECT pt.vehicleType, COUNT(pt) FROM ParkingTicket pt " +
+            "WHERE pt.checkInTime BETWEEN :start AND :end GROUP BY pt.vehicleType")
+    List<Object[]> countByVehicleType(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    /**
+     * Rata-rata durasi parkir tiket COMPLETED dalam jam; null jika tidak ada tiket
+     */
+    @Query(value = "SELECT CAST(AVG(EXTRACT(EPOCH FROM (check_out_time - check_in_time))) / 3600 AS DOUBLE PRECISION) " +
+            "FROM parking_tickets WHERE status = 'COMPLETED' AND check_out_time IS NOT NULL " +
+            "AND check_in_time BETWEEN :start AND :end", nativeQuery = true)
+    Double averageParkingHours(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
     /**
      * Menghitung jumlah parkir untuk setiap plat nomor dalam daftar
      * Menggunakan custom query untuk efisiensi
@@ -16,14 +16,17 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     List<Payment> findByPaymentTimeBetween(LocalDateTime start, LocalDateTime end);
 
-    @Query("SELECT p.paymentMethod, COUNT(p), SUM(p.amount) FROM Payment p " +
-            "WHERE p.paymentTime BETWEEN :start AND :end AND p.status = 'SUCCESS' " +
-            "GROUP BY p.paymentMethod")
+    /**
+     * Agregat amount memakai native query agar hasil SUM tetap DECIMAL (amount dipetakan ke Money)
+     */
+    @Query(value = "SELECT payment_method, COUNT(*), SUM(amount) FROM payments " +
+            "WHERE payment_time BETWEEN :start AND :end AND status = 'SUCCESS' " +
+            "GROUP BY payment_method", nativeQuery = true)
     List<Object[]> getPaymentMethodStatistics(@Param("start") LocalDateTime start,
                                               @Param("end") LocalDateTime end);
 
-    @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.status = 'SUCCESS' " +
-            "AND p.paymentTime BETWEEN :start AND :end")
+    @Query(value = "SELECT SUM(amount) FROM payments WHERE status = 'SUCCESS' " +
+            "AND payment_time BETWEEN :start AND :end", nativeQuery = true)
     BigDecimal getTotalRevenue(@Param("start") LocalDateTime start,
                                @Param("end") LocalDateTime end);
-}
\ No newline at end of file
+}
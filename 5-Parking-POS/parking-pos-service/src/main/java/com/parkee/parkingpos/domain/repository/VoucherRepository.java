@@ -4,10 +4,14 @@ import com.parkee.parkingpos.domain.entity.Voucher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -21,7 +25,17 @@ public interface VoucherRepository extends JpaRepository<Voucher, Long> {
 
     Page<Voucher> findByActiveTrue(Pageable pageable);
 
+    List<Voucher> findByActiveTrueAndValidUntilAfter(LocalDateTime now);
+
     @Query("SELECT v FROM Voucher v WHERE v.active = true AND " +
             "v.validFrom <= :now AND v.validUntil >= :now")
     Page<Voucher> findActiveAndValid(LocalDateTime now, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Nonaktifkan voucher yang masa berlakunya sudah berakhir
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Voucher v SET v.active = false WHERE v.active = true AND v.validUntil <= :now")
+    int deactivateExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,108 @@
+package com.parkee.parkingpos.domain.value;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Nilai uang rupiah fixed-point, disimpan sebagai long dalam minor unit (sen, 1/100 rupiah)
+ * Skala sama dengan kolom DECIMAL(10,2) di database dan BigDecimal di JSON,
+ * sehingga aritmatika di jalur pembayaran tidak perlu membuat BigDecimal baru
+ */
+@Schema(type = "number", example = "3000.00", description = "Nominal rupiah dengan 2 digit desimal")
+public record Money(long minor) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private static final long MINOR_PER_UNIT = 100;
+
+    public static Money ofMinor(long minor) {
+        return minor == 0 ? ZERO : new Money(minor);
+    }
+
+    /**
+     * Nominal rupiah utuh
+     */
+    public static Money of(long rupiah) {
+        return ofMinor(Math.multiplyExact(rupiah, MINOR_PER_UNIT));
+    }
+
+    /**
+     * Konversi dari BigDecimal (database, request, konfigurasi); digit di bawah sen dibulatkan HALF_UP
+     */
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return null;
+        }
+        return ofMinor(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minor, other.minor));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minor, other.minor));
+    }
+
+    public Money times(long multiplier) {
+        return ofMinor(Math.multiplyExact(minor, multiplier));
+    }
+
+    /**
+     * Kalikan dengan pecahan numerator/denominator, dibulatkan HALF_UP ke sen terdekat
+     * Contoh: diskon 10% = ratio(10, 100), diskon 12.5% = ratio(1250, 10000)
+     */
+    public Money ratio(long numerator, long denominator) {
+        long product = Math.multiplyExact(minor, numerator);
+        long quotient = product / denominator;
+        long remainder = product % denominator;
+        if (Math.abs(remainder) * 2 >= Math.abs(denominator)) {
+            quotient += Long.signum(product) * Long.signum(denominator);
+        }
+        return ofMinor(quotient);
+    }
+
+    public Money min(Money other) {
+        return minor <= other.minor ? this : other;
+    }
+
+    public Money max(Money other) {
+        return minor >= other.minor ? this : other;
+    }
+
+    public boolean isZero() {
+        return minor == 0;
+    }
+
+    public boolean isNegative() {
+        return minor < 0;
+    }
+
+    public boolean isGreaterThanOrEqual(Money other) {
+        return minor >= other.minor;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minor, other.minor);
+    }
+
+    /**
+     * Representasi BigDecimal untuk JSON dan JDBC; hanya dipakai di batas sistem
+     */
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
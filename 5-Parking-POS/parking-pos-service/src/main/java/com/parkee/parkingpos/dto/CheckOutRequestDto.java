@@ -36,6 +36,12 @@ public class CheckOutRequestDto {
     )
     private String voucherCode;
 
+    @Schema(
+            description = "Quote ID dari endpoint kalkulasi biaya. Jika masih valid, biaya yang di-quote langsung dipakai",
+            example = "3f2c1a9e-8d4b-4e0f-9a77-2b5c6d7e8f90"
+    )
+    private String quoteId;
+
     @NotBlank(message = "Gate tidak boleh kosong")
     @Schema(
             description = "Exit gate identifier",
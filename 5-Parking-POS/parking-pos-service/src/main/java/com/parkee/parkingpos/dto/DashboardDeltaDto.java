@@ -0,0 +1,74 @@
+package com.parkee.parkingpos.dto;
+
+import com.parkee.parkingpos.domain.value.Money;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * DTO perubahan counter dashboard sejak event stream sebelumnya
+ * Counter harian berupa selisih; occupancy berupa nilai absolut
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Live dashboard counter changes since the previous stream event")
+public class DashboardDeltaDto {
+
+    @Schema(
+            description = "Nomor urut event; delta dengan nomor di bawah snapshot terakhir diabaikan client",
+            example = "1024"
+    )
+    private long sequence;
+
+    @Schema(
+            description = "Tanggal counter",
+            example = "2025-01-16"
+    )
+    private LocalDate date;
+
+    @Schema(
+            description = "Tambahan kendaraan masuk",
+            example = "3"
+    )
+    private long vehiclesIn;
+
+    @Schema(
+            description = "Tambahan kendaraan keluar",
+            example = "2"
+    )
+    private long vehiclesOut;
+
+    @Schema(
+            description = "Tambahan pendapatan",
+            example = "15000.00"
+    )
+    private Money revenue;
+
+    @Schema(
+            description = "Tambahan jumlah top up",
+            example = "1"
+    )
+    private long topUps;
+
+    @Schema(
+            description = "Tambahan nominal top up",
+            example = "50000.00"
+    )
+    private Money topUpAmount;
+
+    @Schema(
+            description = "Kendaraan yang sedang parkir (nilai absolut)",
+            example = "151"
+    )
+    private Long occupancy;
+
+    @Schema(description = "Kendaraan yang sedang parkir per jenis kendaraan (nilai absolut)")
+    private Map<String, Long> occupancyByVehicleType;
+}
@@ -1,13 +1,13 @@
 package com.parkee.parkingpos.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.parkee.parkingpos.domain.value.Money;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
@@ -37,13 +37,13 @@ public class DashboardStatisticsDto {
             description = "Total revenue for today",
             example = "450000.00"
     )
-    private BigDecimal totalRevenueToday;
+    private Money totalRevenueToday;
 
     @Schema(
             description = "Total revenue for selected period",
             example = "12500000.00"
     )
-    private BigDecimal totalRevenuePeriod;
+    private Money totalRevenuePeriod;
 
     @Schema(
             description = "Average parking duration in hours",
@@ -59,7 +59,7 @@ public class DashboardStatisticsDto {
     @Schema(
             description = "Distribution of revenue by payment method"
     )
-    private Map<String, BigDecimal> paymentMethodDistribution;
+    private Map<String, Money> paymentMethodDistribution;
 
     @Schema(
             description = "Daily statistics list"
@@ -93,7 +93,7 @@ public class DashboardStatisticsDto {
                 description = "Total revenue for the day",
                 example = "360000.00"
         )
-        private BigDecimal totalRevenue;
+        private Money totalRevenue;
     }
 
     @Data
@@ -130,6 +130,6 @@ public class DashboardStatisticsDto {
                 description = "Total amount spent",
                 example = "750000.00"
         )
-        private BigDecimal totalSpent;
+        private Money totalSpent;
     }
 }
\ No newline at end of file
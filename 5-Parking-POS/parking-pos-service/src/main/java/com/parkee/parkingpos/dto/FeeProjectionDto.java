@@ -0,0 +1,83 @@
+package com.parkee.parkingpos.dto;
+
+import com.parkee.parkingpos.domain.value.Money;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO untuk proyeksi pendapatan dari seluruh kendaraan yang sedang parkir
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Live fee projection over all active tickets")
+public class FeeProjectionDto {
+
+    @Schema(
+            description = "Waktu acuan perhitungan biaya",
+            example = "2025-01-16T14:30:00"
+    )
+    private LocalDateTime calculatedAt;
+
+    @Schema(
+            description = "Jumlah tiket ACTIVE yang dihitung",
+            example = "18250"
+    )
+    private Long activeTickets;
+
+    @Schema(
+            description = "Total biaya dasar sebelum diskon",
+            example = "54750000.00"
+    )
+    private Money totalBaseFee;
+
+    @Schema(
+            description = "Total diskon member (voucher belum diketahui sebelum check-out)",
+            example = "1250000.00"
+    )
+    private Money totalMemberDiscount;
+
+    @Schema(
+            description = "Proyeksi pendapatan jika semua kendaraan check-out sekarang",
+            example = "53500000.00"
+    )
+    private Money projectedRevenue;
+
+    @Schema(description = "Proyeksi per jenis kendaraan")
+    private Map<String, Breakdown> byVehicleType;
+
+    @Schema(description = "Proyeksi per gate check-in")
+    private Map<String, Breakdown> byGate;
+
+    @Schema(
+            description = "Durasi perhitungan dalam milidetik",
+            example = "4"
+    )
+    private Long computeMillis;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Breakdown {
+
+        @Schema(
+                description = "Jumlah tiket ACTIVE",
+                example = "1200"
+        )
+        private Long tickets;
+
+        @Schema(
+                description = "Proyeksi pendapatan setelah diskon member",
+                example = "3600000.00"
+        )
+        private Money projectedRevenue;
+    }
+}
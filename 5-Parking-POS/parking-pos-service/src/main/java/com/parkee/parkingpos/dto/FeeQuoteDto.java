@@ -0,0 +1,48 @@
+package com.parkee.parkingpos.dto;
+
+import com.parkee.parkingpos.domain.value.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Quote biaya parkir yang disimpan sementara di cache
+ * Dipakai check-out untuk commit biaya tanpa kalkulasi ulang
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeeQuoteDto {
+
+    private String quoteId;
+
+    private Long ticketId;
+
+    private String plateNumber;
+
+    private String requestedVoucherCode;
+
+    private String appliedVoucher;
+
+    private LocalDateTime checkInTime;
+
+    private LocalDateTime quotedAt;
+
+    private LocalDateTime expiresAt;
+
+    private Long hoursParked;
+
+    private Money baseFee;
+
+    private Money discount;
+
+    private Money totalFee;
+
+    private boolean gracePeriod;
+
+    private boolean member;
+}
@@ -0,0 +1,26 @@
+package com.parkee.parkingpos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO untuk sinkronisasi batch event gate
+ * Urutan event harus sesuai urutan kejadian di gate
+ */
+@Data
+@Schema(description = "Ordered batch of buffered gate events")
+public class GateEventBatchRequestDto {
+
+    @NotEmpty(message = "Event tidak boleh kosong")
+    @Size(max = 50000, message = "Maksimal 50.000 event per request")
+    @Schema(
+            description = "Gate events, ordered by occurrence",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private List<@Valid GateEventDto> events;
+}
@@ -0,0 +1,94 @@
+package com.parkee.parkingpos.dto;
+
+import com.parkee.parkingpos.domain.entity.ParkingTicket.VehicleType;
+import com.parkee.parkingpos.domain.entity.PaymentMethod;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO untuk satu event gate (check-in/check-out) yang di-buffer gate saat offline
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Buffered gate event")
+public class GateEventDto {
+
+    @Schema(
+            description = "Event ID dari gate, dipakai untuk referensi pada hasil sinkronisasi",
+            example = "GATE_A-000123"
+    )
+    private String eventId;
+
+    @NotNull(message = "Tipe event harus diisi")
+    @Schema(
+            description = "Event type",
+            example = "CHECK_IN",
+            requiredMode = Schema.RequiredMode.REQUIRED,
+            allowableValues = {"CHECK_IN", "CHECK_OUT"}
+    )
+    private EventType type;
+
+    @NotBlank(message = "Plat nomor tidak boleh kosong")
+    @Schema(
+            description = "Vehicle plate number",
+            example = "B1234CD",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private String plateNumber;
+
+    @Schema(
+            description = "Type of vehicle (wajib untuk CHECK_IN)",
+            example = "CAR",
+            allowableValues = {"CAR", "MOTORCYCLE", "TRUCK", "BUS"}
+    )
+    private VehicleType vehicleType;
+
+    @NotBlank(message = "Gate tidak boleh kosong")
+    @Schema(
+            description = "Gate identifier",
+            example = "GATE_A",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private String gate;
+
+    @NotBlank(message = "Nama operator tidak boleh kosong")
+    @Schema(
+            description = "Operator name",
+            example = "John Doe",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private String operatorName;
+
+    @NotNull(message = "Waktu event harus diisi")
+    @Schema(
+            description = "Waktu event terjadi di gate",
+            example = "2025-01-16T10:30:00",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private LocalDateTime eventTime;
+
+    @Schema(
+            description = "Payment method (wajib untuk CHECK_OUT)",
+            example = "CASH"
+    )
+    private PaymentMethod paymentMethod;
+
+    @Schema(
+            description = "Voucher code for discount",
+            example = "DISC20"
+    )
+    private String voucherCode;
+
+    public enum EventType {
+        CHECK_IN, CHECK_OUT
+    }
+}
@@ -0,0 +1,82 @@
+package com.parkee.parkingpos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO untuk hasil sinkronisasi batch event gate
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Gate event synchronization result")
+public class GateEventSyncResultDto {
+
+    @Schema(
+            description = "Total events received",
+            example = "1200"
+    )
+    private int received;
+
+    @Schema(
+            description = "Events applied to the database",
+            example = "1198"
+    )
+    private int applied;
+
+    @Schema(
+            description = "Events rejected",
+            example = "2"
+    )
+    private int rejected;
+
+    @Schema(
+            description = "Events already applied by an earlier sync (same eventId), not applied again",
+            example = "0"
+    )
+    private int duplicates;
+
+    @Schema(
+            description = "Events not processed because an earlier chunk failed",
+            example = "0"
+    )
+    private int skipped;
+
+    @Schema(
+            description = "Detail of rejected events"
+    )
+    @Builder.Default
+    private List<RejectedEvent> rejections = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Rejected gate event")
+    public static class RejectedEvent {
+        @Schema(
+                description = "Index event di dalam batch",
+                example = "17"
+        )
+        private int index;
+
+        @Schema(
+                description = "Event ID dari gate",
+                example = "GATE_A-000123"
+        )
+        private String eventId;
+
+        @Schema(
+                description = "Alasan event ditolak",
+                example = "Tidak ada kendaraan aktif dengan plat nomor: B1234CD"
+        )
+        private String reason;
+    }
+}
@@ -1,10 +1,10 @@
 package com.parkee.parkingpos.dto;
 
+import com.parkee.parkingpos.domain.value.Money;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -55,19 +55,19 @@ public class InvoiceReceiptDto {
             description = "Base parking fee before discount",
             example = "15000.00"
     )
-    private BigDecimal baseAmount;
+    private Money baseAmount;
 
     @Schema(
             description = "Discount amount",
             example = "3000.00"
     )
-    private BigDecimal discountAmount;
+    private Money discountAmount;
 
     @Schema(
             description = "Total amount to pay",
             example = "12000.00"
     )
-    private BigDecimal totalAmount;
+    private Money totalAmount;
 
     @Schema(
             description = "Payment method used",
@@ -110,4 +110,10 @@ public class InvoiceReceiptDto {
             example = "GATE_B"
     )
     private String checkOutGate;
+
+    @Schema(
+            description = "True jika dicatat di journal lokal selama database tidak tersedia",
+            example = "false"
+    )
+    private Boolean offline;
 }
\ No newline at end of file
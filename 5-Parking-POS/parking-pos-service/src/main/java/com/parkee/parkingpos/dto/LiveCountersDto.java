@@ -0,0 +1,89 @@
+package com.parkee.parkingpos.dto;
+
+import com.parkee.parkingpos.domain.value.Money;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * DTO untuk counter real-time hari ini (dibaca dari Redis tanpa query database)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Real-time counters for today")
+public class LiveCountersDto {
+
+    @Schema(
+            description = "Tanggal counter",
+            example = "2025-01-16"
+    )
+    private LocalDate date;
+
+    @Schema(
+            description = "Kendaraan masuk hari ini",
+            example = "1250"
+    )
+    private Long vehiclesIn;
+
+    @Schema(
+            description = "Kendaraan keluar hari ini",
+            example = "1100"
+    )
+    private Long vehiclesOut;
+
+    @Schema(
+            description = "Kendaraan yang sedang parkir",
+            example = "150"
+    )
+    private Long occupancy;
+
+    @Schema(
+            description = "Pendapatan hari ini",
+            example = "15750000.00"
+    )
+    private Money revenue;
+
+    @Schema(
+            description = "Jumlah top up saldo member hari ini",
+            example = "42"
+    )
+    private Long topUps;
+
+    @Schema(
+            description = "Total nominal top up hari ini",
+            example = "2100000.00"
+    )
+    private Money topUpAmount;
+
+    @Schema(description = "Kendaraan yang sedang parkir per jenis kendaraan")
+    private Map<String, Long> occupancyByVehicleType;
+
+    @Schema(description = "Counter hari ini per gate (masuk di gate check-in, keluar dan pendapatan di gate check-out)")
+    private Map<String, Breakdown> byGate;
+
+    @Schema(description = "Counter hari ini per jenis kendaraan")
+    private Map<String, Breakdown> byVehicleType;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Breakdown {
+
+        @Schema(example = "640")
+        private long vehiclesIn;
+
+        @Schema(example = "590")
+        private long vehiclesOut;
+
+        @Schema(example = "7875000.00")
+        private Money revenue;
+    }
+}
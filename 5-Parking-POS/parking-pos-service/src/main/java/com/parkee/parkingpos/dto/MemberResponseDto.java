@@ -1,10 +1,10 @@
 package com.parkee.parkingpos.dto;
 
+import com.parkee.parkingpos.domain.value.Money;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -55,7 +55,7 @@ public class MemberResponseDto {
             description = "Member balance",
             example = "150000.00"
     )
-    private BigDecimal balance;
+    private Money balance;
 
     @Schema(
             description = "Member active status",
@@ -80,4 +80,10 @@ public class MemberResponseDto {
             example = "25"
     )
     private Integer totalParkings;
-}
\ No newline at end of file
+
+    @Schema(
+            description = "Total amount spent on completed parking sessions",
+            example = "270000.00"
+    )
+    private Money totalSpent;
+}
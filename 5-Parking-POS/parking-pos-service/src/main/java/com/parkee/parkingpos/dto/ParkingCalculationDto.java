@@ -1,10 +1,11 @@
 package com.parkee.parkingpos.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.parkee.parkingpos.domain.value.Money;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -55,19 +56,19 @@ public class ParkingCalculationDto {
             description = "Base parking fee",
             example = "15000.00"
     )
-    private BigDecimal baseFee;
+    private Money baseFee;
 
     @Schema(
             description = "Discount amount",
             example = "3000.00"
     )
-    private BigDecimal discount;
+    private Money discount;
 
     @Schema(
             description = "Total fee after discount",
             example = "12000.00"
     )
-    private BigDecimal totalFee;
+    private Money totalFee;
 
     @Schema(
             description = "Whether parking is within grace period",
@@ -86,4 +87,20 @@ public class ParkingCalculationDto {
             example = "DISC20"
     )
     private String appliedVoucher;
+
+    @Schema(
+            description = "Quote ID yang bisa dikirim saat check-out agar biaya tidak dihitung ulang",
+            example = "3f2c1a9e-8d4b-4e0f-9a77-2b5c6d7e8f90"
+    )
+    private String quoteId;
+
+    @Schema(
+            description = "Quote expiry time",
+            example = "2025-01-16T14:32:00"
+    )
+    private LocalDateTime quoteExpiresAt;
+
+    @JsonIgnore
+    @Schema(hidden = true)
+    private String voucherReservation;
 }
\ No newline at end of file
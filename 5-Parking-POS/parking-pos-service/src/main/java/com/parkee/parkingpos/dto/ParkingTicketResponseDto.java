@@ -1,12 +1,12 @@
 package com.parkee.parkingpos.dto;
 
+import com.parkee.parkingpos.domain.value.Money;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -90,7 +90,7 @@ public class ParkingTicketResponseDto {
             description = "Parking fee",
             example = "12000.00"
     )
-    private BigDecimal parkingFee;
+    private Money parkingFee;
 
     @Schema(
             description = "Check-in photo path",
@@ -115,4 +115,10 @@ public class ParkingTicketResponseDto {
             example = "http://localhost:8081/api/parking/photos/checkout/2025/01/16/checkout_123456789.jpg"
     )
     private String checkOutPhotoUrl;
+
+    @Schema(
+            description = "True jika dicatat di journal lokal selama database tidak tersedia",
+            example = "false"
+    )
+    private Boolean offline;
 }
\ No newline at end of file
@@ -1,12 +1,12 @@
 package com.parkee.parkingpos.dto;
 
+import com.parkee.parkingpos.domain.value.Money;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -53,7 +53,7 @@ public class VehicleActivityDto {
     private String status;
 
     @Schema(description = "Parking fee", example = "12000.00")
-    private BigDecimal fee;
+    private Money fee;
 
     @Schema(description = "Payment method", example = "CASH")
     private String paymentMethod;
@@ -0,0 +1,103 @@
+package com.parkee.parkingpos.dto;
+
+import com.parkee.parkingpos.domain.entity.Voucher.DiscountType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO untuk membuat kampanye voucher massal dari pola kode
+ */
+@Data
+@Schema(description = "Bulk voucher campaign request")
+public class VoucherCampaignRequestDto {
+
+    @NotBlank(message = "Pola kode tidak boleh kosong")
+    @Pattern(regexp = "^[A-Z0-9#]{4,20}$", message = "Pola kode harus huruf kapital, angka, dan # sebagai karakter acak")
+    @Schema(
+            description = "Code pattern; each # is replaced by a random character (A-Z, 0-9)",
+            example = "RAMADAN######",
+            pattern = "^[A-Z0-9#]{4,20}$",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private String codePattern;
+
+    @NotNull(message = "Jumlah voucher tidak boleh kosong")
+    @Min(value = 1, message = "Jumlah voucher minimal 1")
+    @Max(value = 1_000_000, message = "Jumlah voucher maksimal 1.000.000")
+    @Schema(
+            description = "Number of unique codes to generate",
+            example = "100000",
+            minimum = "1",
+            maximum = "1000000",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private Integer quantity;
+
+    @NotBlank(message = "Deskripsi tidak boleh kosong")
+    @Size(max = 200, message = "Deskripsi maksimal 200 karakter")
+    @Schema(
+            description = "Voucher description",
+            example = "Ramadan campaign - single use",
+            maxLength = 200,
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private String description;
+
+    @NotNull(message = "Tipe diskon harus dipilih")
+    @Schema(
+            description = "Discount type",
+            example = "FIXED_AMOUNT",
+            requiredMode = Schema.RequiredMode.REQUIRED,
+            allowableValues = {"PERCENTAGE", "FIXED_AMOUNT"}
+    )
+    private DiscountType discountType;
+
+    @NotNull(message = "Nilai diskon tidak boleh kosong")
+    @DecimalMin(value = "0", message = "Nilai diskon tidak boleh negatif")
+    @Schema(
+            description = "Discount value (percentage or fixed amount)",
+            example = "5000.00",
+            minimum = "0",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private BigDecimal discountValue;
+
+    @DecimalMin(value = "0", message = "Minimum amount tidak boleh negatif")
+    @Schema(
+            description = "Minimum transaction amount to use voucher",
+            example = "0.00",
+            minimum = "0",
+            defaultValue = "0"
+    )
+    private BigDecimal minimumAmount = BigDecimal.ZERO;
+
+    @NotNull(message = "Tanggal mulai tidak boleh kosong")
+    @Future(message = "Tanggal mulai harus di masa depan")
+    @Schema(
+            description = "Voucher valid from date",
+            example = "2025-03-01T00:00:00",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private LocalDateTime validFrom;
+
+    @NotNull(message = "Tanggal berakhir tidak boleh kosong")
+    @Schema(
+            description = "Voucher valid until date",
+            example = "2025-03-31T23:59:59",
+            requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private LocalDateTime validUntil;
+
+    @Min(value = 1, message = "Usage limit minimal 1")
+    @Schema(
+            description = "Maximum usage per code",
+            example = "1",
+            minimum = "1",
+            defaultValue = "1"
+    )
+    private Integer usageLimit = 1;
+}
@@ -0,0 +1,80 @@
+package com.parkee.parkingpos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO untuk progress kampanye voucher massal
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Bulk voucher campaign progress")
+public class VoucherCampaignStatusDto {
+
+    @Schema(
+            description = "Campaign job ID",
+            example = "5f0c6f7e-3c1a-4c4b-9a57-2f1d0a3e7b11"
+    )
+    private String campaignId;
+
+    @Schema(
+            description = "Job status",
+            example = "RUNNING",
+            allowableValues = {"RUNNING", "COMPLETED", "FAILED"}
+    )
+    private String status;
+
+    @Schema(
+            description = "Code pattern",
+            example = "RAMADAN######"
+    )
+    private String codePattern;
+
+    @Schema(
+            description = "Requested number of codes",
+            example = "100000"
+    )
+    private int requested;
+
+    @Schema(
+            description = "Codes inserted so far",
+            example = "42000"
+    )
+    private int inserted;
+
+    @Schema(
+            description = "Generated codes discarded because they (may) already exist",
+            example = "3"
+    )
+    private int collisions;
+
+    @Schema(
+            description = "Progress percentage",
+            example = "42.0"
+    )
+    private double progressPercent;
+
+    @Schema(
+            description = "Job start time",
+            example = "2025-01-16T10:00:00"
+    )
+    private LocalDateTime startedAt;
+
+    @Schema(
+            description = "Job finish time",
+            example = "2025-01-16T10:00:04"
+    )
+    private LocalDateTime finishedAt;
+
+    @Schema(
+            description = "Error message when the job failed"
+    )
+    private String message;
+}
@@ -0,0 +1,12 @@
+package com.parkee.parkingpos.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception ketika operasi membutuhkan database yang sedang tidak tersedia
+ */
+public class OfflineOperationException extends BaseException {
+    public OfflineOperationException(String message) {
+        super(message, HttpStatus.SERVICE_UNAVAILABLE, "OFFLINE_OPERATION_NOT_SUPPORTED");
+    }
+}
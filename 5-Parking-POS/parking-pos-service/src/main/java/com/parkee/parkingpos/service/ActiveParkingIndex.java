@@ -0,0 +1,139 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
+import com.parkee.parkingpos.domain.projection.ActiveTicketProjection;
+import com.parkee.parkingpos.domain.repository.ParkingTicketRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index in-memory kendaraan yang sedang parkir (plate number -> tiket ACTIVE)
+ * Di-warm dari database saat startup, lalu diupdate setiap check-in, check-out, dan pembatalan
+ * Perubahan hanya diterapkan setelah transaksi commit agar index tidak mendahului database
+ * Setiap entry juga punya timer overstay di OverstayMonitor
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ActiveParkingIndex {
+
+    private final ParkingTicketRepository parkingTicketRepository;
+    private final OverstayMonitor overstayMonitor;
+
+    private final ConcurrentHashMap<String, ActiveTicketProjection> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Load semua tiket ACTIVE ke index saat aplikasi siap
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<ActiveTicketProjection> activeTickets = parkingTicketRepository.findActiveProjections();
+        activeTickets.forEach(this::put);
+        log.info("Active parking index warmed up dengan {} kendaraan", entries.size());
+    }
+
+    /**
+     * Cari tiket aktif berdasarkan plate number (lookup memory, tanpa network)
+     */
+    public Optional<ActiveTicketProjection> find(String plateNumber) {
+        return Optional.ofNullable(entries.get(normalize(plateNumber)));
+    }
+
+    /**
+     * Snapshot read-only seluruh kendaraan aktif
+     */
+    public Collection<ActiveTicketProjection> all() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Daftarkan tiket yang baru check-in setelah transaksi commit
+     */
+    public void registerAfterCommit(ParkingTicket ticket) {
+        ActiveTicketProjection entry = ActiveTicketProjection.of(ticket);
+        afterCommit(() -> put(entry));
+    }
+
+    /**
+     * Daftarkan tiket aktif; dipanggil listener setelah transaksi check-in commit
+     */
+    public void register(ActiveTicketProjection entry) {
+        put(entry);
+    }
+
+    /**
+     * Daftarkan entry sementara (id negatif) untuk check-in yang dicatat di journal saat database offline
+     */
+    public boolean registerProvisional(ActiveTicketProjection entry) {
+        boolean added = entries.putIfAbsent(normalize(entry.plateNumber()), entry) == null;
+        if (added) {
+            overstayMonitor.track(entry);
+        }
+        return added;
+    }
+
+    /**
+     * Hapus tiket yang check-out/dibatalkan setelah transaksi commit
+     */
+    public void unregisterAfterCommit(String plateNumber, Long ticketId) {
+        afterCommit(() -> evict(plateNumber, ticketId));
+    }
+
+    /**
+     * Hapus entry jika masih menunjuk ke ticket yang sama
+     * Dipakai juga untuk membersihkan entry yang ternyata sudah tidak aktif di database
+     */
+    public boolean evict(String plateNumber, Long ticketId) {
+        boolean[] removed = new boolean[1];
+        entries.computeIfPresent(normalize(plateNumber), (plate, current) -> {
+            removed[0] = current.ticketId().equals(ticketId);
+            return removed[0] ? null : current;
+        });
+        if (removed[0]) {
+            overstayMonitor.untrack(ticketId);
+        }
+        return removed[0];
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void put(ActiveTicketProjection entry) {
+        ActiveTicketProjection previous = entries.put(normalize(entry.plateNumber()), entry);
+        if (previous != null && !previous.ticketId().equals(entry.ticketId())) {
+            overstayMonitor.untrack(previous.ticketId());
+        }
+        overstayMonitor.track(entry);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private String normalize(String plateNumber) {
+        return plateNumber.toUpperCase();
+    }
+}
@@ -0,0 +1,243 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
+import com.parkee.parkingpos.domain.value.Money;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Rollup harian check-in, check-out dan revenue per tanggal, gate dan jenis kendaraan (tabel daily_parking_rollup)
+ * Delta dikumpulkan di memory setelah transaksi commit dan di-flush periodik dalam satu batch upsert,
+ * sehingga baris rollup yang sama tidak dikunci oleh setiap check-out. Rebuild malam hari menghitung ulang
+ * hari-hari terakhir dari parking_tickets untuk menutup delta yang hilang (mis. node mati sebelum flush).
+ * Rebuild memegang write lock: delta baru dan flush menunggu, lalu delta tanggal yang dibangun ulang dibuang
+ * karena transaksinya sudah commit dan ikut terhitung oleh rebuild
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DailyParkingRollup {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO daily_parking_rollup (stat_date, gate, vehicle_type, check_ins, check_outs, revenue, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, now()) " +
+            "ON CONFLICT (stat_date, gate, vehicle_type) DO UPDATE SET " +
+            "check_ins = daily_parking_rollup.check_ins + EXCLUDED.check_ins, " +
+            "check_outs = daily_parking_rollup.check_outs + EXCLUDED.check_outs, " +
+            "revenue = daily_parking_rollup.revenue + EXCLUDED.revenue, updated_at = now()";
+
+    private static final String DELETE_DAY_SQL = "DELETE FROM daily_parking_rollup WHERE stat_date = ?";
+
+    // ARGV: tanggal, awal hari, awal hari berikutnya (check-in), awal hari, awal hari berikutnya (check-out)
+    private static final String REBUILD_DAY_SQL =
+            "INSERT INTO daily_parking_rollup (stat_date, gate, vehicle_type, check_ins, check_outs, revenue) " +
+            "SELECT ?, gate, vehicle_type, SUM(check_ins), SUM(check_outs), SUM(revenue) FROM (" +
+            "SELECT COALESCE(check_in_gate, '') AS gate, COALESCE(vehicle_type, '') AS vehicle_type, " +
+            "1 AS check_ins, 0 AS check_outs, 0 AS revenue FROM parking_tickets " +
+            "WHERE check_in_time >= ? AND check_in_time < ? " +
+            "UNION ALL " +
+            "SELECT COALESCE(check_out_gate, ''), COALESCE(vehicle_type, ''), 0, 1, COALESCE(parking_fee, 0) " +
+            "FROM parking_tickets WHERE status = 'COMPLETED' AND check_out_time >= ? AND check_out_time < ?" +
+            ") t GROUP BY gate, vehicle_type";
+
+    private static final String SERIES_SQL =
+            "SELECT stat_date, SUM(check_ins), SUM(check_outs), SUM(revenue) FROM daily_parking_rollup " +
+            "WHERE stat_date BETWEEN ? AND ? GROUP BY stat_date";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${parking.rollup.reconcile-days:2}")
+    private int reconcileDays = 2;
+
+    private final ConcurrentHashMap<Key, Delta> pending = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("parking.rollup.pending", pending, ConcurrentHashMap::size)
+                .description("Baris rollup harian dengan delta yang belum di-flush")
+                .register(meterRegistry);
+    }
+
+    public void recordCheckIn(LocalDateTime checkInTime, String gate, ParkingTicket.VehicleType vehicleType) {
+        add(key(checkInTime, gate, vehicleType), 1, 0, 0);
+    }
+
+    public void recordCheckOut(LocalDateTime checkOutTime, String gate, ParkingTicket.VehicleType vehicleType,
+                               Money fee) {
+        add(key(checkOutTime, gate, vehicleType), 0, 1, fee != null ? fee.minor() : 0);
+    }
+
+    /**
+     * Total per hari dalam rentang (inklusif); satu range read di primary key, hari tanpa data tidak muncul
+     */
+    public List<DailyTotals> series(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(SERIES_SQL, (rs, rowNum) -> new DailyTotals(
+                rs.getDate(1).toLocalDate(),
+                rs.getLong(2),
+                rs.getLong(3),
+                Money.of(rs.getBigDecimal(4))), Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Flush delta ke database dalam satu batch upsert
+     * Read lock dipegang sampai upsert selesai agar rebuild tidak berjalan di antara remove dan upsert
+     */
+    @Scheduled(fixedDelayString = "${parking.rollup.flush-interval:5000}")
+    public void flush() {
+        rebuildLock.readLock().lock();
+        try {
+            flushPending();
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild malam hari untuk hari-hari terakhir yang sudah lengkap
+     */
+    @Scheduled(cron = "${parking.rollup.reconcile-cron:0 15 0 * * *}")
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        for (int i = reconcileDays; i >= 1; i--) {
+            try {
+                rebuild(today.minusDays(i));
+            } catch (DataAccessException e) {
+                log.error("Rebuild rollup {} gagal: {}", today.minusDays(i), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Hitung ulang satu tanggal dari parking_tickets dalam satu transaksi
+     * Delta tanggal tersebut yang masih pending dibuang setelah commit; jika rebuild gagal delta tetap di-flush
+     */
+    public void rebuild(LocalDate date) {
+        LocalDateTime start = date.atStartOfDay();
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
+        Integer rows;
+        rebuildLock.writeLock().lock();
+        try {
+            rows = new TransactionTemplate(transactionManager).execute(status -> {
+                jdbcTemplate.update(DELETE_DAY_SQL, Date.valueOf(date));
+                return jdbcTemplate.update(REBUILD_DAY_SQL, Date.valueOf(date), start, end, start, end);
+            });
+            pending.keySet().removeIf(key -> key.date().equals(date));
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+        log.info("Rollup harian {} dibangun ulang: {} baris", date, rows);
+        eventPublisher.publishEvent(new DaysChanged(Set.of(date)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void flushPending() {
+        List<Key> keys = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>();
+        for (Key key : pending.keySet()) {
+            // Delta yang sudah dilepas dari map tidak bisa diubah lagi: increment selalu lewat compute
+            Delta delta = pending.remove(key);
+            if (delta == null) {
+                continue;
+            }
+            keys.add(key);
+            batch.add(new Object[]{Date.valueOf(key.date()), key.gate(), key.vehicleType(),
+                    delta.checkIns, delta.checkOuts, Money.ofMinor(delta.revenueMinor).toBigDecimal()});
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+            log.debug("Flush {} baris rollup harian", batch.size());
+            eventPublisher.publishEvent(new DaysChanged(keys.stream().map(Key::date).collect(Collectors.toSet())));
+        } catch (DataAccessException e) {
+            // Kembalikan delta agar ikut flush berikutnya
+            for (int i = 0; i < keys.size(); i++) {
+                Object[] row = batch.get(i);
+                merge(keys.get(i), (Long) row[3], (Long) row[4], Money.of((BigDecimal) row[5]).minor());
+            }
+            log.warn("Flush rollup harian gagal, dicoba lagi: {}", e.getMessage());
+        }
+    }
+
+    private static Key key(LocalDateTime time, String gate, ParkingTicket.VehicleType vehicleType) {
+        return new Key(time.toLocalDate(), gate != null ? gate : "", vehicleType != null ? vehicleType.name() : "");
+    }
+
+    /**
+     * Delta baru menunggu selama rebuild berjalan, agar tidak dibuang bersama delta yang sudah terhitung
+     */
+    private void add(Key key, long checkIns, long checkOuts, long revenueMinor) {
+        rebuildLock.readLock().lock();
+        try {
+            merge(key, checkIns, checkOuts, revenueMinor);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Increment di dalam compute (lock per bin) sehingga flush bisa mengambil alih Delta dengan remove
+     */
+    private void merge(Key key, long checkIns, long checkOuts, long revenueMinor) {
+        pending.compute(key, (k, delta) -> {
+            Delta target = delta != null ? delta : new Delta();
+            target.checkIns += checkIns;
+            target.checkOuts += checkOuts;
+            target.revenueMinor += revenueMinor;
+            return target;
+        });
+    }
+
+    public record DailyTotals(LocalDate date, long checkIns, long checkOuts, Money revenue) {
+    }
+
+    /**
+     * Tanggal yang barisnya baru ditulis ke tabel rollup (flush atau rebuild)
+     */
+    public record DaysChanged(Set<LocalDate> dates) {
+    }
+
+    private record Key(LocalDate date, String gate, String vehicleType) {
+    }
+
+    private static final class Delta {
+        private long checkIns;
+        private long checkOuts;
+        private long revenueMinor;
+    }
+}
@@ -0,0 +1,353 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.value.Money;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Segmen statistik dashboard per hari yang bisa dijumlahkan untuk rentang tanggal apa pun
+ * Hari yang sudah tutup disimpan permanen di hash Redis dashboard_segment:{tanggal}; hari ini selalu
+ * dihitung live. Segmen hari lalu dihapus saat rollup harian mencatat perubahan untuk tanggal tersebut
+ * (sinkronisasi gate offline, rebuild malam hari), sehingga tidak pernah basi.
+ * Setiap penghapusan menaikkan versi hari tersebut; segmen hasil hitung hanya disimpan (WATCH/MULTI) jika
+ * versinya masih sama dengan saat dibaca, agar hasil hitung yang mendahului perubahan tidak menimpa penghapusan
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DailyStatisticsSegments {
+
+    static final String SEGMENT_KEY = "dashboard_segment:";
+    static final String VERSION_KEY = "dashboard_segment_version:";
+
+    static final String CHECK_IN = "CHECK_IN";
+    static final String PARKING_REVENUE = "PARKING_REVENUE";
+    static final String PAYMENT_REVENUE = "PAYMENT_REVENUE";
+    static final String PARKING_SECONDS = "PARKING_SECONDS";
+    static final String COMPLETED = "COMPLETED";
+    static final String PAYMENT = "PAYMENT:";
+    static final String TYPE = "TYPE:";
+
+    private static final String PAYMENTS_SQL =
+            "SELECT CAST(payment_time AS DATE), payment_method, COALESCE(SUM(amount), 0) FROM payments " +
+            "WHERE status = 'SUCCESS' AND payment_time >= ? AND payment_time < ? GROUP BY 1, 2";
+
+    private static final String VEHICLE_TYPES_SQL =
+            "SELECT CAST(check_in_time AS DATE), vehicle_type, COUNT(*) FROM parking_tickets " +
+            "WHERE check_in_time >= ? AND check_in_time < ? AND vehicle_type IS NOT NULL GROUP BY 1, 2";
+
+    private static final String DURATIONS_SQL =
+            "SELECT CAST(check_out_time AS DATE), " +
+            "CAST(COALESCE(SUM(EXTRACT(EPOCH FROM (check_out_time - check_in_time))), 0) AS BIGINT), COUNT(*) " +
+            "FROM parking_tickets WHERE status = 'COMPLETED' AND check_out_time >= ? AND check_out_time < ? GROUP BY 1";
+
+    private final DailyParkingRollup dailyParkingRollup;
+    private final JdbcTemplate jdbcTemplate;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * Segmen setiap hari yang sudah tutup dalam rentang (inklusif, dipotong sebelum hari ini)
+     * Satu pipeline HGETALL; hari yang belum tersimpan dihitung bersama dalam satu set query berkelompok
+     */
+    public List<Segment> closedDays(LocalDate from, LocalDate to) {
+        LocalDate lastClosed = LocalDate.now().minusDays(1);
+        LocalDate until = to.isAfter(lastClosed) ? lastClosed : to;
+        if (until.isBefore(from)) {
+            return List.of();
+        }
+
+        List<LocalDate> dates = from.datesUntil(until.plusDays(1)).toList();
+        Map<LocalDate, Object> versions = new HashMap<>();
+        Map<LocalDate, Segment> segments = new TreeMap<>(read(dates, versions));
+        List<LocalDate> missing = dates.stream().filter(date -> !segments.containsKey(date)).toList();
+        if (!missing.isEmpty()) {
+            Map<LocalDate, Segment> computed = compute(missing.get(0), missing.get(missing.size() - 1));
+            Map<LocalDate, Segment> fresh = new HashMap<>();
+            missing.forEach(date -> fresh.put(date, computed.getOrDefault(date, Segment.empty(date))));
+            write(List.copyOf(fresh.values()), versions);
+            segments.putAll(fresh);
+            log.debug("{} segmen statistik harian dihitung dari database", fresh.size());
+        }
+        return new ArrayList<>(segments.values());
+    }
+
+    /**
+     * Segmen hari ini, tidak disimpan; masuk dan pendapatan parkir diambil dari counter real-time
+     */
+    public Segment today(long checkIns, Money parkingRevenue) {
+        LocalDate today = LocalDate.now();
+        Segment computed = compute(today, today).getOrDefault(today, Segment.empty(today));
+        return new Segment(today, checkIns, parkingRevenue, computed.paymentRevenue(), computed.paymentMethods(),
+                computed.vehicleTypes(), computed.parkingSeconds(), computed.completed());
+    }
+
+    /**
+     * Rollup hari lalu berubah: segmen tersimpan tidak lagi final
+     * Versi dinaikkan sebelum segmen dihapus sehingga penulisan yang sedang berjalan ikut dibatalkan
+     */
+    @EventListener
+    public void onRollupChanged(DailyParkingRollup.DaysChanged event) {
+        List<LocalDate> dates = event.dates().stream()
+                .filter(date -> date.isBefore(LocalDate.now()))
+                .toList();
+        if (dates.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    dates.forEach(date -> ops.opsForValue().increment(versionKey(date)));
+                    ops.delete(dates.stream().map(DailyStatisticsSegments::segmentKey).toList());
+                    return null;
+                }
+            });
+        } catch (DataAccessException e) {
+            log.warn("Segmen statistik {} gagal dihapus: {}", dates, e.getMessage());
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Segmen tersimpan beserta versi setiap hari (diisi ke versions), dibaca dalam satu pipeline
+     */
+    private Map<LocalDate, Segment> read(List<LocalDate> dates, Map<LocalDate, Object> versions) {
+        List<Object> hashes;
+        try {
+            hashes = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    dates.forEach(date -> ops.opsForHash().entries(segmentKey(date)));
+                    ops.opsForValue().multiGet(versionKeys(dates));
+                    return null;
+                }
+            });
+        } catch (DataAccessException e) {
+            log.debug("Segmen statistik tidak tersedia di Redis: {}", e.getMessage());
+            return Map.of();
+        }
+
+        if (hashes.get(dates.size()) instanceof List<?> stored) {
+            for (int i = 0; i < dates.size(); i++) {
+                versions.put(dates.get(i), stored.get(i));
+            }
+        }
+
+        Map<LocalDate, Segment> segments = new HashMap<>();
+        for (int i = 0; i < dates.size(); i++) {
+            // Segmen tersimpan selalu punya field CHECK_IN; hash kosong berarti belum dihitung
+            Map<String, Long> fields = asLongs(hashes.get(i));
+            if (fields.containsKey(CHECK_IN)) {
+                segments.put(dates.get(i), Segment.fromFields(dates.get(i), fields));
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Simpan segmen yang versinya belum berubah sejak dibaca; EXEC batal jika versi berubah setelah WATCH.
+     * Segmen yang dilewati cukup dihitung ulang pada permintaan berikutnya
+     */
+    private void write(List<Segment> segments, Map<LocalDate, Object> versions) {
+        List<String> versionKeys = versionKeys(segments.stream().map(Segment::date).toList());
+        try {
+            redisTemplate.execute(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    ops.watch(versionKeys);
+                    List<Object> current = ops.opsForValue().multiGet(versionKeys);
+                    List<Segment> unchanged = new ArrayList<>();
+                    for (int i = 0; i < segments.size(); i++) {
+                        Segment segment = segments.get(i);
+                        if (current != null && Objects.equals(current.get(i), versions.get(segment.date()))) {
+                            unchanged.add(segment);
+                        }
+                    }
+                    if (unchanged.isEmpty()) {
+                        ops.unwatch();
+                        return null;
+                    }
+
+                    ops.multi();
+                    unchanged.forEach(segment ->
+                            ops.opsForHash().putAll(segmentKey(segment.date()), new HashMap<>(segment.toFields())));
+                    return ops.exec();
+                }
+            });
+        } catch (DataAccessException e) {
+            log.warn("Segmen statistik gagal disimpan, dihitung ulang pada permintaan berikutnya: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Hitung segmen untuk semua hari dalam rentang; hari tanpa aktivitas tidak muncul di map
+     */
+    private Map<LocalDate, Segment> compute(LocalDate from, LocalDate to) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        Map<LocalDate, Accumulator> days = new HashMap<>();
+
+        for (DailyParkingRollup.DailyTotals totals : dailyParkingRollup.series(from, to)) {
+            Accumulator day = days.computeIfAbsent(totals.date(), Accumulator::new);
+            day.checkIns = totals.checkIns();
+            day.parkingRevenue = totals.revenue();
+        }
+        jdbcTemplate.query(PAYMENTS_SQL, rs -> {
+            Accumulator day = days.computeIfAbsent(rs.getDate(1).toLocalDate(), Accumulator::new);
+            Money amount = Money.of(rs.getBigDecimal(3));
+            day.paymentRevenue = day.paymentRevenue.plus(amount);
+            day.paymentMethods.merge(rs.getString(2), amount, Money::plus);
+        }, start, end);
+        jdbcTemplate.query(VEHICLE_TYPES_SQL, rs -> {
+            Accumulator day = days.computeIfAbsent(rs.getDate(1).toLocalDate(), Accumulator::new);
+            day.vehicleTypes.put(rs.getString(2), rs.getLong(3));
+        }, start, end);
+        jdbcTemplate.query(DURATIONS_SQL, rs -> {
+            Accumulator day = days.computeIfAbsent(rs.getDate(1).toLocalDate(), Accumulator::new);
+            day.parkingSeconds = rs.getLong(2);
+            day.completed = rs.getLong(3);
+        }, start, end);
+
+        Map<LocalDate, Segment> segments = new HashMap<>();
+        days.forEach((date, day) -> segments.put(date, day.toSegment()));
+        return segments;
+    }
+
+    private static String segmentKey(LocalDate date) {
+        return SEGMENT_KEY + date;
+    }
+
+    private static List<String> versionKeys(List<LocalDate> dates) {
+        return dates.stream().map(DailyStatisticsSegments::versionKey).toList();
+    }
+
+    private static String versionKey(LocalDate date) {
+        return VERSION_KEY + date;
+    }
+
+    private static Map<String, Long> asLongs(Object hash) {
+        Map<String, Long> values = new HashMap<>();
+        if (hash instanceof Map<?, ?> map) {
+            map.forEach((field, value) -> {
+                if (value instanceof Number number) {
+                    values.put(field.toString(), number.longValue());
+                }
+            });
+        }
+        return values;
+    }
+
+    /**
+     * Statistik satu hari; semua field bisa dijumlahkan antar hari
+     * Durasi parkir dihitung dari tiket yang check-out pada hari tersebut, agar segmen hari lalu tidak
+     * berubah ketika kendaraan yang menginap keluar keesokan harinya
+     */
+    public record Segment(LocalDate date, long checkIns, Money parkingRevenue, Money paymentRevenue,
+                          Map<String, Money> paymentMethods, Map<String, Long> vehicleTypes,
+                          long parkingSeconds, long completed) {
+
+        static Segment empty(LocalDate date) {
+            return new Segment(date, 0, Money.ZERO, Money.ZERO, Map.of(), Map.of(), 0, 0);
+        }
+
+        /**
+         * Jumlahkan segmen rentang tanggal; tanggal hasil tidak bermakna
+         */
+        public static Segment merge(Collection<Segment> segments) {
+            Accumulator total = new Accumulator(null);
+            for (Segment segment : segments) {
+                total.checkIns += segment.checkIns();
+                total.parkingRevenue = total.parkingRevenue.plus(segment.parkingRevenue());
+                total.paymentRevenue = total.paymentRevenue.plus(segment.paymentRevenue());
+                segment.paymentMethods().forEach((method, amount) -> total.paymentMethods.merge(method, amount, Money::plus));
+                segment.vehicleTypes().forEach((type, count) -> total.vehicleTypes.merge(type, count, Long::sum));
+                total.parkingSeconds += segment.parkingSeconds();
+                total.completed += segment.completed();
+            }
+            return total.toSegment();
+        }
+
+        /**
+         * Rata-rata durasi parkir dalam jam; null jika tidak ada tiket selesai
+         */
+        public Double averageParkingHours() {
+            return completed > 0 ? parkingSeconds / 3600.0 / completed : null;
+        }
+
+        /**
+         * Field hash Redis; nominal dalam minor unit agar nilai hash tetap bilangan bulat
+         */
+        Map<String, Long> toFields() {
+            Map<String, Long> fields = new HashMap<>();
+            fields.put(CHECK_IN, checkIns);
+            fields.put(PARKING_REVENUE, parkingRevenue.minor());
+            fields.put(PAYMENT_REVENUE, paymentRevenue.minor());
+            fields.put(PARKING_SECONDS, parkingSeconds);
+            fields.put(COMPLETED, completed);
+            paymentMethods.forEach((method, amount) -> fields.put(PAYMENT + method, amount.minor()));
+            vehicleTypes.forEach((type, count) -> fields.put(TYPE + type, count));
+            return fields;
+        }
+
+        static Segment fromFields(LocalDate date, Map<String, Long> fields) {
+            Accumulator day = new Accumulator(date);
+            fields.forEach((field, value) -> {
+                if (field.startsWith(PAYMENT)) {
+                    day.paymentMethods.put(field.substring(PAYMENT.length()), Money.ofMinor(value));
+                } else if (field.startsWith(TYPE)) {
+                    day.vehicleTypes.put(field.substring(TYPE.length()), value);
+                }
+            });
+            day.checkIns = fields.getOrDefault(CHECK_IN, 0L);
+            day.parkingRevenue = Money.ofMinor(fields.getOrDefault(PARKING_REVENUE, 0L));
+            day.paymentRevenue = Money.ofMinor(fields.getOrDefault(PAYMENT_REVENUE, 0L));
+            day.parkingSeconds = fields.getOrDefault(PARKING_SECONDS, 0L);
+            day.completed = fields.getOrDefault(COMPLETED, 0L);
+            return day.toSegment();
+        }
+    }
+
+    private static final class Accumulator {
+        private final LocalDate date;
+        private long checkIns;
+        private Money parkingRevenue = Money.ZERO;
+        private Money paymentRevenue = Money.ZERO;
+        private final Map<String, Money> paymentMethods = new HashMap<>();
+        private final Map<String, Long> vehicleTypes = new HashMap<>();
+        private long parkingSeconds;
+        private long completed;
+
+        private Accumulator(LocalDate date) {
+            this.date = date;
+        }
+
+        private Segment toSegment() {
+            return new Segment(date, checkIns, parkingRevenue, paymentRevenue, Map.copyOf(paymentMethods),
+                    Map.copyOf(vehicleTypes), parkingSeconds, completed);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.parkee.parkingpos.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parkee.parkingpos.domain.value.Money;
+import com.parkee.parkingpos.dto.DashboardDeltaDto;
+import com.parkee.parkingpos.dto.LiveCountersDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stream Server-Sent Events untuk dashboard live
+ * Satu producer per node: perubahan yang commit hanya menandai dirty, lalu tick di thread producer sendiri membaca
+ * counter Redis sekali, menghitung delta terhadap snapshot sebelumnya, men-serialize sekali dan mengirim ke semua
+ * subscriber. Ratusan transaksi per detik digabung menjadi paling banyak satu event per tick; perubahan dari
+ * node lain terbaca pada refresh idle karena counter Redis dipakai bersama.
+ * Producer hanya memasukkan event ke antrean terbatas milik tiap subscriber; penulisan ke emitter dilakukan satu
+ * virtual thread per subscriber sehingga urutan snapshot/delta tetap terjaga. Subscriber yang tertinggal lebih dari
+ * max-pending event diputus (EventSource reconnect dan menerima snapshot baru), sehingga client lambat tidak menahan
+ * producer maupun subscriber lain
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardStreamService {
+
+    static final String SNAPSHOT_EVENT = "snapshot";
+    static final String DELTA_EVENT = "delta";
+
+    private static final Set<DataWithMediaType> PING = SseEmitter.event().comment("ping").build();
+
+    private final RealtimeCounters realtimeCounters;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${parking.dashboard-stream.interval:500}")
+    private long intervalMillis = 500;
+
+    @Value("${parking.dashboard-stream.timeout:1800000}")
+    private long timeoutMillis = 1_800_000;
+
+    @Value("${parking.dashboard-stream.idle-refresh:5000}")
+    private long idleRefreshMillis = 5000;
+
+    @Value("${parking.dashboard-stream.max-pending:16}")
+    private int maxPending = 16;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Queue<Subscriber> joining = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+
+    private ScheduledExecutorService producer;
+    private Counter droppedSubscribers;
+
+    // Hanya diakses dari thread producer
+    private LiveCountersDto lastSnapshot;
+    private long sequence;
+    private long lastReadMillis;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("parking.dashboard.subscribers", subscribers, Set::size)
+                .description("Subscriber stream dashboard yang terhubung")
+                .register(meterRegistry);
+        droppedSubscribers = Counter.builder("parking.dashboard.subscribers.dropped")
+                .description("Subscriber stream dashboard yang diputus karena antrean event penuh")
+                .register(meterRegistry);
+
+        producer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("dashboard-stream").daemon().factory());
+        producer.scheduleAtFixedRate(this::tick, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Daftarkan subscriber baru; producer mengantrekan snapshot terakhir lebih dulu pada tick berikutnya, dan
+     * emitter baru ikut broadcast setelah snapshot itu masuk antrean agar delta berikutnya bisa diterapkan
+     */
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, maxPending);
+        subscriber.start();
+        // Callback bisa jalan sebelum emitter masuk ke subscribers: flag closed mencegah emitter mati ikut terdaftar
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(e -> close(subscriber));
+        joining.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Dipanggil setelah counter Redis diupdate (check-in, check-out, top up yang sudah commit)
+     */
+    public void markDirty() {
+        dirty.set(true);
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Satu tick producer; hanya dipanggil dari thread producer (atau langsung di test)
+     */
+    void publish() {
+        if (subscribers.isEmpty() && joining.isEmpty()) {
+            // Tidak ada yang mendengar: snapshot dibangun ulang saat subscriber berikutnya datang
+            lastSnapshot = null;
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        boolean idle = now - lastReadMillis >= idleRefreshMillis;
+        // Flag dibersihkan sebelum membaca agar perubahan selama pembacaan tetap terkirim di tick berikutnya
+        if (dirty.getAndSet(false) || idle || lastSnapshot == null) {
+            lastReadMillis = now;
+            Optional<LiveCountersDto> current = realtimeCounters.today();
+            if (current.isEmpty()) {
+                // Redis tidak tersedia: subscriber baru tetap menunggu snapshot pertama yang berhasil
+                dirty.set(true);
+                return;
+            }
+            update(current.get(), idle);
+        }
+        admitJoining();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (producer != null) {
+            producer.shutdownNow();
+        }
+        subscribers.forEach(Subscriber::close);
+        subscribers.clear();
+        joining.forEach(Subscriber::close);
+        joining.clear();
+    }
+
+    /**
+     * Selisih dua snapshot hari yang sama; kosong jika tidak ada perubahan
+     */
+    static Optional<DashboardDeltaDto> diff(long sequence, LiveCountersDto previous, LiveCountersDto current) {
+        DashboardDeltaDto delta = DashboardDeltaDto.builder()
+                .sequence(sequence)
+                .date(current.getDate())
+                .vehiclesIn(value(current.getVehiclesIn()) - value(previous.getVehiclesIn()))
+                .vehiclesOut(value(current.getVehiclesOut()) - value(previous.getVehiclesOut()))
+                .revenue(value(current.getRevenue()).minus(value(previous.getRevenue())))
+                .topUps(value(current.getTopUps()) - value(previous.getTopUps()))
+                .topUpAmount(value(current.getTopUpAmount()).minus(value(previous.getTopUpAmount())))
+                .occupancy(current.getOccupancy())
+                .occupancyByVehicleType(current.getOccupancyByVehicleType())
+                .build();
+
+        boolean changed = delta.getVehiclesIn() != 0 || delta.getVehiclesOut() != 0
+                || !delta.getRevenue().equals(Money.ZERO) || delta.getTopUps() != 0
+                || !delta.getTopUpAmount().equals(Money.ZERO)
+                || !Objects.equals(previous.getOccupancy(), current.getOccupancy())
+                || !Objects.equals(previous.getOccupancyByVehicleType(), current.getOccupancyByVehicleType());
+        return changed ? Optional.of(delta) : Optional.empty();
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void tick() {
+        try {
+            publish();
+        } catch (RuntimeException e) {
+            // Exception yang lolos menghentikan scheduleAtFixedRate untuk selamanya
+            log.error("Tick stream dashboard gagal: {}", e.getMessage(), e);
+        }
+    }
+
+    private void update(LiveCountersDto current, boolean idle) {
+        if (lastSnapshot == null || !lastSnapshot.getDate().equals(current.getDate())) {
+            // Subscriber pertama atau pergantian hari: kirim snapshot penuh
+            lastSnapshot = current;
+            sequence++;
+            broadcast(event(SNAPSHOT_EVENT, sequence, serialize(lastSnapshot)));
+            return;
+        }
+
+        Optional<DashboardDeltaDto> delta = diff(sequence + 1, lastSnapshot, current);
+        lastSnapshot = current;
+        if (delta.isPresent()) {
+            sequence++;
+            broadcast(event(DELTA_EVENT, sequence, serialize(delta.get())));
+        } else if (idle) {
+            // Heartbeat menjaga koneksi tetap hidup di proxy dan mendeteksi client yang sudah putus
+            broadcast(PING);
+        }
+    }
+
+    /**
+     * Subscriber baru menerima snapshot setelah delta tick ini diantrekan ke subscriber lama, sehingga snapshot
+     * yang diterimanya sudah mencakup delta tersebut
+     */
+    private void admitJoining() {
+        if (joining.isEmpty()) {
+            return;
+        }
+        Set<DataWithMediaType> snapshot = event(SNAPSHOT_EVENT, sequence, serialize(lastSnapshot));
+        Subscriber subscriber;
+        while ((subscriber = joining.poll()) != null) {
+            if (!subscriber.offer(snapshot)) {
+                subscriber.close();
+                continue;
+            }
+            subscribers.add(subscriber);
+            if (subscriber.isClosed()) {
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Event sudah di-serialize dan di-encode sekali; setiap subscriber hanya mengantrekan referensi yang sama.
+     * Tidak pernah blocking: subscriber dengan antrean penuh langsung diputus
+     */
+    private void broadcast(Set<DataWithMediaType> event) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.offer(event)) {
+                subscribers.remove(subscriber);
+                if (!subscriber.isClosed()) {
+                    log.debug("Subscriber dashboard tertinggal lebih dari {} event, koneksi diputus", maxPending);
+                    droppedSubscribers.increment();
+                    subscriber.close();
+                }
+            }
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.close();
+        subscribers.remove(subscriber);
+    }
+
+    private static Set<DataWithMediaType> event(String name, long sequence, String json) {
+        return SseEmitter.event()
+                .name(name)
+                .id(Long.toString(sequence))
+                .data(json, MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private String serialize(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Payload dashboard tidak bisa di-serialize", e);
+        }
+    }
+
+    private static long value(Long counter) {
+        return counter != null ? counter : 0;
+    }
+
+    private static Money value(Money amount) {
+        return amount != null ? amount : Money.ZERO;
+    }
+
+    /**
+     * Emitter dengan antrean event terbatas dan satu virtual thread penulis
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> outbox;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final Thread writer;
+
+        Subscriber(SseEmitter emitter, int maxPending) {
+            this.emitter = emitter;
+            this.outbox = new ArrayBlockingQueue<>(maxPending);
+            this.writer = Thread.ofVirtual().name("dashboard-stream-writer").unstarted(this::drain);
+        }
+
+        void start() {
+            writer.start();
+        }
+
+        /**
+         * Non-blocking; false jika subscriber sudah ditutup atau antreannya penuh
+         */
+        boolean offer(Set<DataWithMediaType> event) {
+            return !closed.get() && outbox.offer(event);
+        }
+
+        boolean isClosed() {
+            return closed.get();
+        }
+
+        /**
+         * Emitter di-complete oleh thread penulis: complete() menunggu monitor emitter yang mungkin sedang dipegang
+         * send() ke client lambat, sehingga pemanggil (producer atau callback) tidak ikut tertahan
+         */
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                writer.interrupt();
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!closed.get()) {
+                    emitter.send(outbox.take());
+                }
+            } catch (InterruptedException e) {
+                // Ditutup lewat close()
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Subscriber dashboard terputus: {}", e.getMessage());
+            } finally {
+                closed.set(true);
+                outbox.clear();
+                emitter.complete();
+            }
+        }
+    }
+}
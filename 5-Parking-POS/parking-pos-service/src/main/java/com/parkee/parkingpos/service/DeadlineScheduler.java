@@ -0,0 +1,100 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.util.HierarchicalTimingWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler deadline in-process berbasis hierarchical timing wheel
+ * Dipakai untuk awal/akhir masa berlaku voucher dan batas overstay tiket; satu tick scheduler
+ * memajukan wheel, sehingga jutaan timer yang menunggu tidak membutuhkan polling database sama sekali.
+ * Wheel dimajukan di thread sendiri (bukan thread @Scheduled bersama) dan task yang jatuh tempo dijalankan
+ * di virtual thread, sehingga query database di satu task tidak menggeser tick maupun job terjadwal lain.
+ * Task yang gagal dijadwalkan ulang setelah retry-delay; pemanggil wajib mengonfirmasi state sebelum bertindak
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeadlineScheduler {
+
+    private static final int WHEEL_SIZE = 64;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${parking.timer.tick-millis:1000}")
+    private long tickMillis = 1000;
+
+    @Value("${parking.timer.retry-delay-millis:30000}")
+    private long retryDelayMillis = 30000;
+
+    private HierarchicalTimingWheel<Runnable> wheel;
+    private ScheduledExecutorService ticker;
+    private ExecutorService workers;
+
+    @PostConstruct
+    public void init() {
+        wheel = new HierarchicalTimingWheel<>(tickMillis, WHEEL_SIZE, System.currentTimeMillis());
+        Gauge.builder("parking.timer.pending", this, DeadlineScheduler::pending)
+                .description("Timer deadline yang menunggu")
+                .register(meterRegistry);
+
+        workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("deadline-task-", 0).factory());
+        ticker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("deadline-wheel").daemon().factory());
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        workers.shutdown();
+    }
+
+    /**
+     * Jadwalkan task pada waktu lokal tertentu; waktu yang sudah lewat dijalankan pada tick berikutnya
+     */
+    public HierarchicalTimingWheel.Timer<Runnable> schedule(LocalDateTime at, Runnable task) {
+        long deadline = at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return wheel.schedule(deadline, task);
+    }
+
+    public int pending() {
+        return wheel.size();
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void tick() {
+        try {
+            List<Runnable> due = wheel.advance(System.currentTimeMillis());
+            due.forEach(task -> workers.execute(() -> run(task)));
+        } catch (RuntimeException e) {
+            // Exception yang lolos menghentikan scheduleAtFixedRate untuk selamanya
+            log.error("Tick deadline gagal: {}", e.getMessage(), e);
+        }
+    }
+
+    private void run(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            // Timer sudah dilepas dari wheel: tanpa re-arm deadline ini hilang (mis. overstay saat database down)
+            log.warn("Task deadline gagal, dicoba lagi dalam {} ms: {}", retryDelayMillis, e.getMessage());
+            wheel.schedule(System.currentTimeMillis() + retryDelayMillis, task);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
+import com.parkee.parkingpos.domain.projection.ActiveTicketProjection;
+import com.parkee.parkingpos.domain.repository.ParkingTicketRepository;
+import com.parkee.parkingpos.domain.value.Money;
+import com.parkee.parkingpos.dto.FeeProjectionDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collector;
+
+/**
+ * Service untuk proyeksi pendapatan dari semua kendaraan yang sedang parkir
+ * Sumber data adalah query proyeksi ringan tiket ACTIVE di database (tanpa hydrate entity), bukan ActiveParkingIndex
+ * yang hanya berisi tiket dari node ini, sehingga hasilnya tetap lengkap saat aplikasi berjalan di beberapa instance;
+ * biaya dihitung paralel dengan TariffTable dan diakumulasi per jenis kendaraan dan gate dalam long
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FeeProjectionService {
+
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private final ParkingTicketRepository parkingTicketRepository;
+    private final TariffEngine tariffEngine;
+
+    /**
+     * Proyeksikan biaya seluruh tiket ACTIVE jika check-out dilakukan pada {@code at}
+     */
+    public FeeProjectionDto project(LocalDateTime at) {
+        long started = System.nanoTime();
+        List<ActiveTicketProjection> snapshot = parkingTicketRepository.findActiveProjections();
+        long nowSecond = at.toEpochSecond(ZoneOffset.UTC);
+
+        Accumulator total = snapshot.parallelStream().collect(Collector.of(
+                Accumulator::new,
+                (accumulator, ticket) -> accumulator.add(ticket, nowSecond),
+                Accumulator::merge,
+                Collector.Characteristics.UNORDERED));
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        log.debug("Proyeksi biaya {} tiket aktif selesai dalam {} ms", snapshot.size(), elapsedMillis);
+
+        Map<String, FeeProjectionDto.Breakdown> byVehicleType = new LinkedHashMap<>();
+        ParkingTicket.VehicleType[] types = ParkingTicket.VehicleType.values();
+        for (int i = 0; i <= types.length; i++) {
+            if (total.ticketsByType[i] > 0) {
+                byVehicleType.put(i < types.length ? types[i].name() : UNKNOWN,
+                        breakdown(total.ticketsByType[i], total.revenueByType[i]));
+            }
+        }
+
+        Map<String, FeeProjectionDto.Breakdown> byGate = new LinkedHashMap<>();
+        total.byGate.forEach((gate, values) -> byGate.put(gate, breakdown(values[0], values[1])));
+
+        return FeeProjectionDto.builder()
+                .calculatedAt(at)
+                .activeTickets((long) snapshot.size())
+                .totalBaseFee(Money.ofMinor(total.baseFee))
+                .totalMemberDiscount(Money.ofMinor(total.memberDiscount))
+                .projectedRevenue(Money.ofMinor(total.baseFee - total.memberDiscount))
+                .byVehicleType(byVehicleType)
+                .byGate(byGate)
+                .computeMillis(elapsedMillis)
+                .build();
+    }
+
+    private static FeeProjectionDto.Breakdown breakdown(long tickets, long revenue) {
+        return FeeProjectionDto.Breakdown.builder()
+                .tickets(tickets)
+                .projectedRevenue(Money.ofMinor(revenue))
+                .build();
+    }
+
+    /**
+     * Akumulator per thread; slot terakhir array per jenis untuk tiket tanpa vehicle type
+     */
+    private final class Accumulator {
+
+        private final long[] ticketsByType = new long[ParkingTicket.VehicleType.values().length + 1];
+        private final long[] revenueByType = new long[ticketsByType.length];
+        private final Map<String, long[]> byGate = new HashMap<>();
+        private long baseFee;
+        private long memberDiscount;
+
+        void add(ActiveTicketProjection ticket, long nowSecond) {
+            LocalDateTime checkIn = ticket.checkInTime();
+            long minutesParked = Math.max(0, (nowSecond - checkIn.toEpochSecond(ZoneOffset.UTC)) / 60);
+
+            Money fee = tariffEngine.fee(ticket.vehicleType(), checkIn, minutesParked);
+            long discount = ticket.member() ? tariffEngine.memberDiscount(fee).minor() : 0;
+            long revenue = fee.minor() - discount;
+
+            int slot = ticket.vehicleType() != null ? ticket.vehicleType().ordinal() : ticketsByType.length - 1;
+            ticketsByType[slot]++;
+            revenueByType[slot] += revenue;
+
+            long[] gate = byGate.computeIfAbsent(ticket.checkInGate() != null ? ticket.checkInGate() : UNKNOWN,
+                    key -> new long[2]);
+            gate[0]++;
+            gate[1] += revenue;
+
+            baseFee += fee.minor();
+            memberDiscount += discount;
+        }
+
+        Accumulator merge(Accumulator other) {
+            for (int i = 0; i < ticketsByType.length; i++) {
+                ticketsByType[i] += other.ticketsByType[i];
+                revenueByType[i] += other.revenueByType[i];
+            }
+            other.byGate.forEach((gate, values) -> {
+                long[] merged = byGate.computeIfAbsent(gate, key -> new long[2]);
+                merged[0] += values[0];
+                merged[1] += values[1];
+            });
+            baseFee += other.baseFee;
+            memberDiscount += other.memberDiscount;
+            return this;
+        }
+    }
+}
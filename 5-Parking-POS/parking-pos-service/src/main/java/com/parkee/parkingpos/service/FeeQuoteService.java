@@ -0,0 +1,135 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.dto.FeeQuoteDto;
+import com.parkee.parkingpos.dto.ParkingCalculationDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service untuk menerbitkan dan menukarkan quote biaya parkir
+ * Quote berumur pendek dan hanya bisa dipakai satu kali saat check-out.
+ * Menerbitkan quote tidak punya efek samping selain entry Redis: kuota voucher baru direservasi saat check-out
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FeeQuoteService {
+
+    private static final String FEE_QUOTE_KEY = "fee_quote:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${parking.quote-ttl-seconds:120}")
+    private long quoteTtlSeconds;
+
+    /**
+     * Simpan hasil kalkulasi sebagai quote dan isi quoteId/expiry di DTO
+     */
+    public FeeQuoteDto issue(ParkingCalculationDto calculation, String voucherCode) {
+        LocalDateTime expiresAt = calculation.getCheckOutTime().plusSeconds(quoteTtlSeconds);
+
+        FeeQuoteDto quote = FeeQuoteDto.builder()
+                .quoteId(UUID.randomUUID().toString())
+                .ticketId(calculation.getTicketId())
+                .plateNumber(calculation.getPlateNumber())
+                .requestedVoucherCode(normalizeVoucherCode(voucherCode))
+                .appliedVoucher(calculation.getAppliedVoucher())
+                .checkInTime(calculation.getCheckInTime())
+                .quotedAt(calculation.getCheckOutTime())
+                .expiresAt(expiresAt)
+                .hoursParked(calculation.getHoursParked())
+                .baseFee(calculation.getBaseFee())
+                .discount(calculation.getDiscount())
+                .totalFee(calculation.getTotalFee())
+                .gracePeriod(calculation.isGracePeriod())
+                .member(calculation.isMember())
+                .build();
+
+        try {
+            redisTemplate.opsForValue().set(FEE_QUOTE_KEY + quote.getQuoteId(), quote,
+                    quoteTtlSeconds, TimeUnit.SECONDS);
+        } catch (DataAccessException e) {
+            // Tanpa quote, check-out menghitung ulang biaya dari database
+            log.warn("Quote tidak bisa disimpan, Redis tidak tersedia: {}", e.getMessage());
+            return quote;
+        }
+
+        calculation.setQuoteId(quote.getQuoteId());
+        calculation.setQuoteExpiresAt(expiresAt);
+        return quote;
+    }
+
+    /**
+     * Ambil dan hapus quote secara atomik
+     * Quote ditolak jika milik ticket lain, voucher berbeda, atau sudah kadaluarsa
+     */
+    public Optional<FeeQuoteDto> redeem(String quoteId, Long ticketId, String voucherCode) {
+        if (quoteId == null || quoteId.isBlank()) {
+            return Optional.empty();
+        }
+
+        Object cached;
+        try {
+            cached = redisTemplate.opsForValue().getAndDelete(FEE_QUOTE_KEY + quoteId);
+        } catch (DataAccessException e) {
+            log.warn("Quote {} tidak bisa dibaca, biaya dihitung ulang: {}", quoteId, e.getMessage());
+            return Optional.empty();
+        }
+        if (!(cached instanceof FeeQuoteDto quote)) {
+            log.info("Quote {} tidak ditemukan atau sudah dipakai", quoteId);
+            return Optional.empty();
+        }
+
+        if (!Objects.equals(quote.getTicketId(), ticketId)) {
+            log.warn("Quote {} bukan milik ticket {}", quoteId, ticketId);
+            return Optional.empty();
+        }
+
+        if (!Objects.equals(quote.getRequestedVoucherCode(), normalizeVoucherCode(voucherCode))) {
+            log.info("Voucher pada quote {} berbeda dengan request check-out", quoteId);
+            return Optional.empty();
+        }
+
+        if (LocalDateTime.now().isAfter(quote.getExpiresAt())) {
+            log.info("Quote {} sudah kadaluarsa", quoteId);
+            return Optional.empty();
+        }
+
+        return Optional.of(quote);
+    }
+
+    /**
+     * Bentuk kembali kalkulasi dari quote yang valid
+     */
+    public ParkingCalculationDto toCalculation(FeeQuoteDto quote) {
+        return ParkingCalculationDto.builder()
+                .ticketId(quote.getTicketId())
+                .plateNumber(quote.getPlateNumber())
+                .checkInTime(quote.getCheckInTime())
+                .checkOutTime(quote.getQuotedAt())
+                .hoursParked(quote.getHoursParked())
+                .baseFee(quote.getBaseFee())
+                .discount(quote.getDiscount())
+                .totalFee(quote.getTotalFee())
+                .gracePeriod(quote.isGracePeriod())
+                .isMember(quote.isMember())
+                .appliedVoucher(quote.getAppliedVoucher())
+                .quoteId(quote.getQuoteId())
+                .quoteExpiresAt(quote.getExpiresAt())
+                .build();
+    }
+
+    private String normalizeVoucherCode(String voucherCode) {
+        return (voucherCode == null || voucherCode.isBlank()) ? null : voucherCode.trim();
+    }
+}
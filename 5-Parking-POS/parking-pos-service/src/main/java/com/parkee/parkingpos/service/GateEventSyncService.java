@@ -0,0 +1,369 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.entity.Member;
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
+import com.parkee.parkingpos.domain.entity.Payment;
+import com.parkee.parkingpos.domain.repository.MemberRepository;
+import com.parkee.parkingpos.domain.repository.ParkingTicketRepository;
+import com.parkee.parkingpos.dto.GateEventDto;
+import com.parkee.parkingpos.dto.GateEventSyncResultDto;
+import com.parkee.parkingpos.dto.ParkingCalculationDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service untuk sinkronisasi event gate yang di-buffer saat gate offline
+ * Event diterapkan berurutan per chunk; setiap chunk satu transaksi dengan JDBC batch insert
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GateEventSyncService {
+
+    private static final String ACTIVE_PARKING_KEY = "active_parking:";
+
+    private static final String CLAIM_EVENTS_SQL =
+            "INSERT INTO processed_gate_events (event_id) VALUES %s ON CONFLICT (event_id) DO NOTHING RETURNING event_id";
+
+    private static final String RELEASE_EVENTS_SQL = "DELETE FROM processed_gate_events WHERE event_id IN (%s)";
+
+    private static final String PURGE_EVENTS_SQL = "DELETE FROM processed_gate_events WHERE processed_at < ?";
+
+    private final ParkingTicketRepository parkingTicketRepository;
+    private final MemberRepository memberRepository;
+    private final DailyParkingRollup dailyParkingRollup;
+    private final ParkingService parkingService;
+    private final InvoiceReceiptService invoiceReceiptService;
+    private final ActiveParkingIndex activeParkingIndex;
+    private final VoucherUsageLedger voucherUsageLedger;
+    private final RedisReplayBuffer redisReplayBuffer;
+    private final DashboardStreamService dashboardStreamService;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${parking.sync.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${parking.sync.processed-retention-days:30}")
+    private int processedRetentionDays = 30;
+
+    /**
+     * Terapkan batch event gate sesuai urutan
+     * Event yang tidak valid ditolak satu per satu; jika satu chunk gagal di database,
+     * sisa event tidak diproses agar urutan check-in/check-out tetap terjaga.
+     * Event dengan eventId yang sudah pernah diterapkan dilewati (retry gate, replay journal)
+     */
+    public GateEventSyncResultDto sync(List<GateEventDto> events) {
+        log.info("Sinkronisasi {} event gate dengan chunk size {}", events.size(), chunkSize);
+
+        GateEventSyncResultDto result = GateEventSyncResultDto.builder()
+                .received(events.size())
+                .build();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        for (int from = 0; from < events.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, events.size());
+            int chunkStart = from;
+            List<GateEventDto> chunk = events.subList(from, to);
+
+            try {
+                ChunkOutcome outcome = transactionTemplate.execute(status -> applyChunk(chunk, chunkStart));
+                result.setApplied(result.getApplied() + outcome.applied());
+                result.setDuplicates(result.getDuplicates() + outcome.duplicates());
+                result.getRejections().addAll(outcome.rejections());
+            } catch (RuntimeException e) {
+                log.error("Chunk event {}-{} gagal diterapkan", from, to - 1, e);
+                result.setSkipped(events.size() - from);
+                break;
+            }
+        }
+
+        result.setRejected(result.getRejections().size());
+        log.info("Sinkronisasi selesai: {} diterapkan, {} ditolak, {} duplikat, {} dilewati",
+                result.getApplied(), result.getRejected(), result.getDuplicates(), result.getSkipped());
+        return result;
+    }
+
+    /**
+     * Hapus event ID yang lebih tua dari masa retensi; retry dan replay terjadi dalam hitungan jam/hari
+     */
+    @Scheduled(cron = "${parking.sync.processed-purge-cron:0 30 3 * * *}")
+    public void purgeProcessedEvents() {
+        int deleted = jdbcTemplate.update(PURGE_EVENTS_SQL, LocalDateTime.now().minusDays(processedRetentionDays));
+        log.info("{} event ID gate lama dihapus", deleted);
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private ChunkOutcome applyChunk(List<GateEventDto> chunk, int chunkStart) {
+        Set<String> claimed = claimEventIds(chunk);
+
+        Set<String> plates = chunk.stream()
+                .map(event -> event.getPlateNumber().toUpperCase())
+                .collect(Collectors.toSet());
+
+        // Satu query untuk semua tiket aktif dan member di chunk ini
+        Map<String, ParkingTicket> activeTickets = new HashMap<>(parkingTicketRepository
+                .findByPlateNumberInAndStatus(plates, ParkingTicket.Status.ACTIVE).stream()
+                .collect(Collectors.toMap(ParkingTicket::getPlateNumber, Function.identity(), (a, b) -> a)));
+        Map<String, Member> members = memberRepository.findByVehiclePlateNumberInAndActiveTrue(plates).stream()
+                .collect(Collectors.toMap(Member::getVehiclePlateNumber, Function.identity()));
+
+        List<ParkingTicket> checkedIn = new ArrayList<>();
+        List<ParkingTicket> checkedOut = new ArrayList<>();
+        List<Payment> payments = new ArrayList<>();
+        List<GateEventSyncResultDto.RejectedEvent> rejections = new ArrayList<>();
+        int duplicates = 0;
+
+        for (int i = 0; i < chunk.size(); i++) {
+            GateEventDto event = chunk.get(i);
+            String plate = event.getPlateNumber().toUpperCase();
+
+            // Id yang sudah ada di processed_gate_events (atau muncul dua kali di batch ini) tidak diterapkan ulang
+            if (event.getEventId() != null && !claimed.remove(event.getEventId())) {
+                log.debug("Event gate {} sudah pernah diterapkan, dilewati", event.getEventId());
+                duplicates++;
+                continue;
+            }
+
+            String rejection = switch (event.getType()) {
+                case CHECK_IN -> applyCheckIn(event, plate, activeTickets, members, checkedIn);
+                case CHECK_OUT -> applyCheckOut(event, plate, activeTickets, checkedOut, payments);
+            };
+
+            if (rejection != null) {
+                rejections.add(GateEventSyncResultDto.RejectedEvent.builder()
+                        .index(chunkStart + i)
+                        .eventId(event.getEventId())
+                        .reason(rejection)
+                        .build());
+            }
+        }
+
+        // Event yang ditolak tidak diterapkan: klaimnya dilepas agar kiriman ulang yang sudah diperbaiki diterima
+        releaseEventIds(rejections.stream()
+                .map(GateEventSyncResultDto.RejectedEvent::getEventId)
+                .filter(Objects::nonNull)
+                .toList());
+
+        // Tiket baru + payment + invoice di-insert lewat JDBC batch saat flush
+        invoiceReceiptService.generateInvoices(payments);
+        parkingTicketRepository.flush();
+
+        checkedIn.stream()
+                .filter(ticket -> ticket.getStatus() == ParkingTicket.Status.ACTIVE)
+                .forEach(activeParkingIndex::registerAfterCommit);
+        checkedOut.forEach(ticket ->
+                activeParkingIndex.unregisterAfterCommit(ticket.getPlateNumber(), ticket.getId()));
+        publishRedisStateAfterCommit(checkedIn, checkedOut);
+
+        return new ChunkOutcome(chunk.size() - rejections.size() - duplicates, duplicates, rejections);
+    }
+
+    /**
+     * Insert event ID chunk ke processed_gate_events di transaksi chunk; kembalikan id yang baru diklaim
+     * Unique constraint membuat sync paralel dengan id yang sama menunggu commit lalu melihatnya sebagai duplikat
+     */
+    private Set<String> claimEventIds(List<GateEventDto> chunk) {
+        List<String> eventIds = chunk.stream()
+                .map(GateEventDto::getEventId)
+                .filter(Objects::nonNull)
+                .toList();
+        if (eventIds.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        String values = String.join(", ", Collections.nCopies(eventIds.size(), "(?)"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                CLAIM_EVENTS_SQL.formatted(values), String.class, eventIds.toArray()));
+    }
+
+    /**
+     * Hapus klaim event yang ditolak di transaksi chunk yang sama; baris ini baru saja di-insert oleh chunk ini
+     */
+    private void releaseEventIds(List<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(eventIds.size(), "?"));
+        jdbcTemplate.update(RELEASE_EVENTS_SQL.formatted(placeholders), eventIds.toArray());
+    }
+
+    private String applyCheckIn(GateEventDto event, String plate, Map<String, ParkingTicket> activeTickets,
+                                Map<String, Member> members, List<ParkingTicket> checkedIn) {
+        if (event.getVehicleType() == null) {
+            return "Tipe kendaraan harus diisi untuk CHECK_IN";
+        }
+        if (activeTickets.containsKey(plate)) {
+            return "Kendaraan dengan plat nomor " + plate + " sudah parkir";
+        }
+
+        ParkingTicket ticket = ParkingTicket.builder()
+                .plateNumber(plate)
+                .vehicleType(event.getVehicleType())
+                .checkInTime(event.getEventTime())
+                .checkInGate(event.getGate())
+                .checkInOperator(event.getOperatorName())
+                .status(ParkingTicket.Status.ACTIVE)
+                .build();
+
+        Member member = members.get(plate);
+        if (member != null) {
+            ticket.setMember(member);
+            ticket.setMemberName(member.getName());
+        }
+
+        // Persist hanya mengambil id dari sequence; insert ditunda sampai flush
+        parkingTicketRepository.save(ticket);
+        activeTickets.put(plate, ticket);
+        checkedIn.add(ticket);
+        return null;
+    }
+
+    private String applyCheckOut(GateEventDto event, String plate, Map<String, ParkingTicket> activeTickets,
+                                 List<ParkingTicket> checkedOut, List<Payment> payments) {
+        if (event.getPaymentMethod() == null) {
+            return "Metode pembayaran harus diisi untuk CHECK_OUT";
+        }
+
+        ParkingTicket ticket = activeTickets.get(plate);
+        if (ticket == null) {
+            return "Tidak ada kendaraan aktif dengan plat nomor: " + plate;
+        }
+        if (event.getEventTime().isBefore(ticket.getCheckInTime())) {
+            return "Waktu check-out lebih awal dari waktu check-in";
+        }
+
+        ParkingCalculationDto calculation = parkingService.calculateFee(
+                ticket, event.getVoucherCode(), event.getEventTime());
+
+        ticket.setCheckOutTime(event.getEventTime());
+        ticket.setCheckOutGate(event.getGate());
+        ticket.setCheckOutOperator(event.getOperatorName());
+        ticket.setParkingFee(calculation.getTotalFee());
+        ticket.setStatus(ParkingTicket.Status.COMPLETED);
+
+        // Saldo kurang dikembalikan sebagai nilai, bukan exception, agar transaksi chunk tidak jadi rollback-only
+        Optional<Payment> processed = parkingService.tryProcessPayment(ticket, event.getPaymentMethod(), calculation);
+        if (processed.isEmpty()) {
+            // Kembalikan state ticket agar event berikutnya masih melihatnya aktif
+            ticket.setCheckOutTime(null);
+            ticket.setCheckOutGate(null);
+            ticket.setCheckOutOperator(null);
+            ticket.setParkingFee(null);
+            ticket.setStatus(ParkingTicket.Status.ACTIVE);
+            voucherUsageLedger.release(calculation.getVoucherReservation());
+            return "Saldo member tidak mencukupi";
+        }
+        Payment payment = processed.get();
+        voucherUsageLedger.commitAfterCompletion(calculation.getVoucherReservation());
+        payment.setPaymentTime(event.getEventTime());
+        ticket.setPayment(payment);
+
+        activeTickets.remove(plate);
+        checkedOut.add(ticket);
+        payments.add(payment);
+        return null;
+    }
+
+    /**
+     * Update key active_parking dan statistik Redis dalam satu pipeline setelah commit
+     */
+    private void publishRedisStateAfterCommit(List<ParkingTicket> checkedIn, List<ParkingTicket> checkedOut) {
+        if (checkedIn.isEmpty() && checkedOut.isEmpty()) {
+            return;
+        }
+
+        List<ParkingTicket> stillActive = checkedIn.stream()
+                .filter(ticket -> ticket.getStatus() == ParkingTicket.Status.ACTIVE)
+                .toList();
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                checkedIn.forEach(ticket -> dailyParkingRollup.recordCheckIn(
+                        ticket.getCheckInTime(), ticket.getCheckInGate(), ticket.getVehicleType()));
+                checkedOut.forEach(ticket -> dailyParkingRollup.recordCheckOut(
+                        ticket.getCheckOutTime(), ticket.getCheckOutGate(), ticket.getVehicleType(),
+                        ticket.getParkingFee()));
+                Map<String, Map<String, Long>> increments = counterIncrements(checkedIn, checkedOut);
+                try {
+                    redisTemplate.executePipelined(new SessionCallback<Object>() {
+                        @Override
+                        @SuppressWarnings("unchecked")
+                        public <K, V> Object execute(RedisOperations<K, V> operations) {
+                            RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+
+                            for (ParkingTicket ticket : stillActive) {
+                                ops.opsForValue().set(ACTIVE_PARKING_KEY + ticket.getPlateNumber(),
+                                        ticket.getId(), 24, TimeUnit.HOURS);
+                            }
+                            for (ParkingTicket ticket : checkedOut) {
+                                ops.delete(ACTIVE_PARKING_KEY + ticket.getPlateNumber());
+                            }
+                            increments.forEach((key, fields) -> fields.forEach((field, delta) ->
+                                    ops.opsForHash().increment(key, field, delta)));
+                            increments.keySet().stream()
+                                    .filter(key -> !key.equals(RealtimeCounters.OCCUPANCY_KEY))
+                                    .forEach(key -> ops.expire(key, 30, TimeUnit.DAYS));
+                            return null;
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    log.warn("Gagal update state Redis setelah sinkronisasi, statistik di-buffer: {}", e.getMessage());
+                    increments.forEach((key, fields) -> fields.forEach((field, delta) ->
+                            redisReplayBuffer.recordIncrement(key, field, delta)));
+                }
+                dashboardStreamService.markDirty();
+            }
+        });
+    }
+
+    /**
+     * Increment counter real-time seluruh chunk, dijumlahkan per key dan field agar satu HINCRBY per field
+     */
+    private static Map<String, Map<String, Long>> counterIncrements(List<ParkingTicket> checkedIn,
+                                                                   List<ParkingTicket> checkedOut) {
+        List<RealtimeCounters.Increment> all = new ArrayList<>();
+        checkedIn.forEach(ticket -> all.addAll(RealtimeCounters.checkIn(
+                ticket.getCheckInTime(), ticket.getCheckInGate(), ticket.getVehicleType())));
+        checkedOut.forEach(ticket -> all.addAll(RealtimeCounters.checkOut(
+                ticket.getCheckOutTime(), ticket.getCheckOutGate(), ticket.getVehicleType(), ticket.getParkingFee())));
+
+        Map<String, Map<String, Long>> merged = new HashMap<>();
+        for (RealtimeCounters.Increment increment : all) {
+            merged.computeIfAbsent(increment.key(), key -> new HashMap<>())
+                    .merge(increment.field(), increment.delta(), Long::sum);
+        }
+        return merged;
+    }
+
+    private record ChunkOutcome(int applied, int duplicates, List<GateEventSyncResultDto.RejectedEvent> rejections) {
+    }
+}
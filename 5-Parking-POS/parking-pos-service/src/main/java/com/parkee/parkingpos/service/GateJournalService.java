@@ -0,0 +1,344 @@
+package com.parkee.parkingpos.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parkee.parkingpos.domain.entity.Member;
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
+import com.parkee.parkingpos.domain.entity.PaymentMethod;
+import com.parkee.parkingpos.domain.projection.ActiveTicketProjection;
+import com.parkee.parkingpos.dto.CheckInRequestDto;
+import com.parkee.parkingpos.dto.CheckOutRequestDto;
+import com.parkee.parkingpos.dto.GateEventDto;
+import com.parkee.parkingpos.dto.GateEventSyncResultDto;
+import com.parkee.parkingpos.dto.InvoiceReceiptDto;
+import com.parkee.parkingpos.dto.ParkingCalculationDto;
+import com.parkee.parkingpos.dto.ParkingTicketResponseDto;
+import com.parkee.parkingpos.exception.OfflineOperationException;
+import com.parkee.parkingpos.exception.ResourceNotFoundException;
+import com.parkee.parkingpos.exception.VehicleAlreadyParkedException;
+import com.parkee.parkingpos.util.MappedJournal;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service untuk operasi gate saat database tidak tersedia
+ * Check-in/check-out diterima dari journal lokal (memory-mapped) dan index kendaraan aktif di memory,
+ * lalu di-replay berurutan ke database lewat GateEventSyncService setelah database pulih
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GateJournalService {
+
+    private final ParkingService parkingService;
+    private final GateEventSyncService gateEventSyncService;
+    private final TariffEngine tariffEngine;
+    private final ActiveParkingIndex activeParkingIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${parking.journal.directory:./journal}")
+    private String journalDirectory;
+
+    @Value("${parking.journal.segment-size:16777216}")
+    private int segmentSize;
+
+    @Value("${parking.journal.replay-batch-size:500}")
+    private int replayBatchSize;
+
+    private final AtomicLong offlineSequence = new AtomicLong();
+    private volatile boolean databaseAvailable = true;
+    private MappedJournal journal;
+
+    @PostConstruct
+    public void init() throws IOException {
+        journal = new MappedJournal(Path.of(journalDirectory), segmentSize);
+
+        Gauge.builder("parking.journal.lag", journal, MappedJournal::pending)
+                .description("Event gate di journal yang belum di-replay ke database")
+                .register(meterRegistry);
+        Gauge.builder("parking.journal.lag.seconds", this, GateJournalService::lagSeconds)
+                .description("Umur event tertua di journal yang belum di-replay")
+                .register(meterRegistry);
+        Gauge.builder("parking.database.available", this, service -> service.databaseAvailable ? 1 : 0)
+                .description("1 jika database tersedia untuk operasi gate")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        journal.close();
+    }
+
+    /**
+     * Check-in lewat database; jika database tidak tersedia, dicatat ke journal
+     */
+    public ParkingTicketResponseDto checkIn(CheckInRequestDto request, PhotoIngestionService.StagedPhoto photo) {
+        if (databaseAvailable) {
+            try {
+                return parkingService.checkIn(request, photo);
+            } catch (RuntimeException e) {
+                if (!isConnectivityFailure(e)) {
+                    throw e;
+                }
+                markUnavailable(e);
+            }
+        }
+        return checkInOffline(request);
+    }
+
+    /**
+     * Check-out lewat database; jika database tidak tersedia, dicatat ke journal
+     */
+    public InvoiceReceiptDto checkOut(CheckOutRequestDto request, PhotoIngestionService.StagedPhoto photo) {
+        if (databaseAvailable) {
+            try {
+                return parkingService.checkOut(request, photo);
+            } catch (RuntimeException e) {
+                if (!isConnectivityFailure(e)) {
+                    throw e;
+                }
+                markUnavailable(e);
+            }
+        }
+        return checkOutOffline(request);
+    }
+
+    public boolean isDatabaseAvailable() {
+        return databaseAvailable;
+    }
+
+    /**
+     * Cek database dan replay journal
+     * Selama replay berjalan gate tetap memakai journal agar urutan event terjaga
+     */
+    @Scheduled(fixedDelayString = "${parking.journal.probe-interval:2000}")
+    public void recover() {
+        if (databaseAvailable && journal.pending() == 0) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+        } catch (RuntimeException e) {
+            log.debug("Database masih belum tersedia: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            replay();
+        } catch (RuntimeException | IOException e) {
+            log.error("Replay journal gagal, dicoba lagi pada probe berikutnya", e);
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private synchronized void replay() throws IOException {
+        while (true) {
+            List<MappedJournal.Entry> entries = journal.read(replayBatchSize);
+            if (entries.isEmpty()) {
+                break;
+            }
+
+            List<GateEventDto> events = entries.stream().map(this::deserialize).toList();
+            GateEventSyncResultDto result = gateEventSyncService.sync(events);
+            result.getRejections().forEach(rejection ->
+                    log.warn("Event journal {} ditolak saat replay: {}", rejection.getEventId(), rejection.getReason()));
+
+            int processed = result.getReceived() - result.getSkipped();
+            if (processed > 0) {
+                journal.commit(entries.get(processed - 1).next(), processed);
+            }
+            if (result.getSkipped() > 0) {
+                log.warn("Replay journal berhenti, {} event tertunda", journal.pending());
+                return;
+            }
+        }
+
+        if (!databaseAvailable) {
+            databaseAvailable = true;
+            log.info("Database tersedia kembali, journal sudah di-replay");
+        }
+    }
+
+    private ParkingTicketResponseDto checkInOffline(CheckInRequestDto request) {
+        String plate = request.getPlateNumber().toUpperCase();
+        LocalDateTime now = LocalDateTime.now();
+
+        // Id negatif menandai entry sementara; entry diganti tiket asli saat replay
+        long provisionalId = -offlineSequence.incrementAndGet();
+        ActiveTicketProjection provisional = new ActiveTicketProjection(
+                provisionalId, plate, request.getVehicleType(), now, request.getGate(), false);
+        if (!activeParkingIndex.registerProvisional(provisional)) {
+            throw new VehicleAlreadyParkedException("Kendaraan dengan plat nomor " + plate + " sudah parkir");
+        }
+
+        GateEventDto event = GateEventDto.builder()
+                .eventId(newEventId())
+                .type(GateEventDto.EventType.CHECK_IN)
+                .plateNumber(plate)
+                .vehicleType(request.getVehicleType())
+                .gate(request.getGate())
+                .operatorName(request.getOperatorName())
+                .eventTime(now)
+                .build();
+        try {
+            append(event);
+        } catch (RuntimeException e) {
+            activeParkingIndex.evict(plate, provisionalId);
+            throw e;
+        }
+
+        log.warn("Database tidak tersedia, check-in {} dicatat di journal ({})", plate, event.getEventId());
+        return ParkingTicketResponseDto.builder()
+                .plateNumber(plate)
+                .vehicleType(request.getVehicleType().name())
+                .checkInTime(now)
+                .checkInGate(request.getGate())
+                .checkInOperator(request.getOperatorName())
+                .status(ParkingTicket.Status.ACTIVE.name())
+                .offline(true)
+                .build();
+    }
+
+    private InvoiceReceiptDto checkOutOffline(CheckOutRequestDto request) {
+        String plate = request.getPlateNumber().toUpperCase();
+        LocalDateTime now = LocalDateTime.now();
+
+        // Voucher dan saldo member hanya bisa divalidasi di database
+        if (request.getVoucherCode() != null && !request.getVoucherCode().isBlank()) {
+            throw new OfflineOperationException("Voucher tidak dapat dipakai saat sistem offline");
+        }
+        if (request.getPaymentMethod() == PaymentMethod.MEMBER_BALANCE) {
+            throw new OfflineOperationException("Pembayaran saldo member tidak tersedia saat sistem offline");
+        }
+
+        ActiveTicketProjection active = activeParkingIndex.find(plate)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Tidak ada kendaraan aktif dengan plat nomor: " + plate));
+
+        ParkingTicket ticket = ParkingTicket.builder()
+                .plateNumber(plate)
+                .vehicleType(active.vehicleType())
+                .checkInTime(active.checkInTime())
+                .member(active.member() ? new Member() : null)
+                .build();
+        // Tarif dihitung di memory: ParkingService transaksional dan akan menunggu koneksi database
+        ParkingCalculationDto calculation = tariffEngine.calculate(ticket, now);
+
+        // Hapus dari index dulu agar check-out ganda untuk plate yang sama ditolak
+        if (!activeParkingIndex.evict(plate, active.ticketId())) {
+            throw new ResourceNotFoundException("Tidak ada kendaraan aktif dengan plat nomor: " + plate);
+        }
+
+        GateEventDto event = GateEventDto.builder()
+                .eventId(newEventId())
+                .type(GateEventDto.EventType.CHECK_OUT)
+                .plateNumber(plate)
+                .gate(request.getGate())
+                .operatorName(request.getOperatorName())
+                .eventTime(now)
+                .paymentMethod(request.getPaymentMethod())
+                .build();
+        try {
+            append(event);
+        } catch (RuntimeException e) {
+            activeParkingIndex.registerProvisional(active);
+            throw e;
+        }
+
+        log.warn("Database tidak tersedia, check-out {} dicatat di journal ({})", plate, event.getEventId());
+        return InvoiceReceiptDto.builder()
+                .invoiceNumber("OFFLINE/" + event.getEventId())
+                .invoiceDate(now)
+                .plateNumber(plate)
+                .checkInTime(active.checkInTime())
+                .checkOutTime(now)
+                .duration(calculation.getDuration())
+                .baseAmount(calculation.getBaseFee())
+                .discountAmount(calculation.getDiscount())
+                .totalAmount(calculation.getTotalFee())
+                .paymentMethod(request.getPaymentMethod().name())
+                .operatorName(request.getOperatorName())
+                .checkInGate(active.checkInGate())
+                .checkOutGate(request.getGate())
+                .offline(true)
+                .build();
+    }
+
+    private void append(GateEventDto event) {
+        try {
+            journal.append(objectMapper.writeValueAsBytes(event));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Gagal menulis event ke journal", e);
+        }
+    }
+
+    private GateEventDto deserialize(MappedJournal.Entry entry) {
+        try {
+            return objectMapper.readValue(entry.payload(), GateEventDto.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Record journal tidak bisa dibaca", e);
+        }
+    }
+
+    private void markUnavailable(RuntimeException e) {
+        if (databaseAvailable) {
+            databaseAvailable = false;
+            log.error("Database tidak tersedia, gate beralih ke journal lokal: {}", e.getMessage());
+        }
+    }
+
+    private double lagSeconds() {
+        try {
+            return journal.oldestPendingTimestamp()
+                    .stream()
+                    .mapToDouble(timestamp -> (System.currentTimeMillis() - timestamp) / 1000.0)
+                    .findFirst()
+                    .orElse(0);
+        } catch (IOException e) {
+            return Double.NaN;
+        }
+    }
+
+    private String newEventId() {
+        return "JRN-" + UUID.randomUUID();
+    }
+
+    /**
+     * Hanya kegagalan koneksi ke database (SQLState kelas 08 atau koneksi socket ditolak) yang memindahkan gate
+     * ke journal. Pool Hikari yang habis dan timeout limiter juga melempar SQLTransientConnectionException,
+     * tetapi tanpa SQLState 08: itu beban tinggi, bukan outage, dan diteruskan sebagai error biasa
+     */
+    private static boolean isConnectivityFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
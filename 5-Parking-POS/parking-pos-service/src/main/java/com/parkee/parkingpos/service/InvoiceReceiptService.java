@@ -4,17 +4,18 @@ import com.parkee.parkingpos.domain.entity.*;
 import com.parkee.parkingpos.domain.repository.InvoiceReceiptRepository;
 import com.parkee.parkingpos.dto.InvoiceReceiptDto;
 import com.parkee.parkingpos.exception.ResourceNotFoundException;
+import com.parkee.parkingpos.domain.value.Money;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Service untuk mengelola invoice/struk pembayaran
@@ -35,28 +36,7 @@ public class InvoiceReceiptService {
     public InvoiceReceiptDto generateInvoice(ParkingTicket ticket, Payment payment) {
         log.info("Generate invoice untuk ticket ID: {}", ticket.getId());
 
-        // Calculate duration
-        long durationMinutes = ChronoUnit.MINUTES.between(
-                ticket.getCheckInTime(), ticket.getCheckOutTime());
-
-        // Create invoice
-        InvoiceReceipt invoice = InvoiceReceipt.builder()
-                .invoiceNumber(generateInvoiceNumber())
-                .parkingTicket(ticket)
-                .invoiceDate(LocalDateTime.now())
-                .plateNumber(ticket.getPlateNumber())
-                .checkInTime(ticket.getCheckInTime())
-                .checkOutTime(ticket.getCheckOutTime())
-                .durationMinutes(durationMinutes)
-                .baseAmount(payment.getAmount())
-                .discountAmount(BigDecimal.ZERO) // TODO: Calculate from voucher/member
-                .totalAmount(payment.getAmount())
-                .paymentMethod(payment.getPaymentMethod().getDisplayName())
-                .paymentReference(payment.getReferenceNumber())
-                .memberName(ticket.getMemberName())
-                .operatorName(ticket.getCheckOutOperator())
-                .status(InvoiceReceipt.Status.PAID)
-                .build();
+        InvoiceReceipt invoice = buildInvoice(ticket, payment, generateInvoiceNumber());
 
         InvoiceReceipt savedInvoice = invoiceReceiptRepository.save(invoice);
         log.info("Invoice {} berhasil dibuat", savedInvoice.getInvoiceNumber());
@@ -64,6 +44,31 @@ public class InvoiceReceiptService {
         return mapToDto(savedInvoice, ticket);
     }
 
+    /**
+     * Generate invoice untuk banyak pembayaran sekaligus (sinkronisasi batch)
+     * Nomor invoice dihitung sekali per batch lalu dinaikkan di memory,
+     * insert dilakukan lewat JDBC batch saat flush
+     */
+    public List<InvoiceReceipt> generateInvoices(List<Payment> payments) {
+        if (payments.isEmpty()) {
+            return List.of();
+        }
+
+        String prefix = "INV-" + LocalDate.now().format(INVOICE_NUMBER_FORMAT);
+        long sequence = countTodayInvoices();
+
+        List<InvoiceReceipt> invoices = new ArrayList<>(payments.size());
+        for (Payment payment : payments) {
+            sequence++;
+            invoices.add(buildInvoice(payment.getParkingTicket(), payment,
+                    String.format("%s%04d", prefix, sequence)));
+        }
+
+        List<InvoiceReceipt> savedInvoices = invoiceReceiptRepository.saveAll(invoices);
+        log.info("{} invoice berhasil dibuat dalam batch", savedInvoices.size());
+        return savedInvoices;
+    }
+
     /**
      * Find invoice by number
      */
@@ -82,16 +87,43 @@ public class InvoiceReceiptService {
      */
     private String generateInvoiceNumber() {
         String prefix = "INV-" + LocalDate.now().format(INVOICE_NUMBER_FORMAT);
+        return String.format("%s%04d", prefix, countTodayInvoices() + 1);
+    }
 
-        // Get today's count
+    /**
+     * Hitung jumlah invoice hari ini
+     */
+    private long countTodayInvoices() {
         LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
         LocalDateTime endOfDay = LocalDate.now().atTime(23, 59, 59);
+        return invoiceReceiptRepository.countByInvoiceDateBetween(startOfDay, endOfDay);
+    }
 
-        long todayCount = invoiceReceiptRepository
-                .findByInvoiceDateBetween(startOfDay, endOfDay, Pageable.unpaged())
-                .getTotalElements();
+    /**
+     * Build invoice entity dari ticket dan payment
+     */
+    private InvoiceReceipt buildInvoice(ParkingTicket ticket, Payment payment, String invoiceNumber) {
+        // Calculate duration
+        long durationMinutes = ChronoUnit.MINUTES.between(
+                ticket.getCheckInTime(), ticket.getCheckOutTime());
 
-        return String.format("%s%04d", prefix, todayCount + 1);
+        return InvoiceReceipt.builder()
+                .invoiceNumber(invoiceNumber)
+                .parkingTicket(ticket)
+                .invoiceDate(LocalDateTime.now())
+                .plateNumber(ticket.getPlateNumber())
+                .checkInTime(ticket.getCheckInTime())
+                .checkOutTime(ticket.getCheckOutTime())
+                .durationMinutes(durationMinutes)
+                .baseAmount(payment.getAmount())
+                .discountAmount(Money.ZERO) // TODO: Calculate from voucher/member
+                .totalAmount(payment.getAmount())
+                .paymentMethod(payment.getPaymentMethod().getDisplayName())
+                .paymentReference(payment.getReferenceNumber())
+                .memberName(ticket.getMemberName())
+                .operatorName(ticket.getCheckOutOperator())
+                .status(InvoiceReceipt.Status.PAID)
+                .build();
     }
 
     /**
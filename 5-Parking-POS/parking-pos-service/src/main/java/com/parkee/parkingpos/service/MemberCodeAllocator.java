@@ -0,0 +1,54 @@
+package com.parkee.parkingpos.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Alokasi kode member tanpa probing
+ * Setiap node me-lease satu blok nomor dari member_code_seq (INCREMENT BY = BLOCK_SIZE) dan membagikannya
+ * dari memory; nextval tidak pernah mengembalikan blok yang sama ke dua node. Nomor sisa blok saat node
+ * berhenti hanya menjadi celah, tidak pernah dipakai ulang.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MemberCodeAllocator {
+
+    static final int BLOCK_SIZE = 50;
+
+    private static final String NEXT_BLOCK_SQL = "SELECT nextval('member_code_seq')";
+    private static final String CODE_FORMAT = "MBR%06d";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // ReentrantLock, bukan synchronized: nextval adalah I/O dan tidak boleh mem-pin virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long next;
+    private long limit;
+
+    /**
+     * Kode member berikutnya; query database hanya sekali per BLOCK_SIZE kode
+     */
+    public String nextCode() {
+        lock.lock();
+        try {
+            if (next >= limit) {
+                Long start = jdbcTemplate.queryForObject(NEXT_BLOCK_SQL, Long.class);
+                if (start == null) {
+                    throw new IllegalStateException("member_code_seq tidak mengembalikan nilai");
+                }
+                next = start;
+                limit = start + BLOCK_SIZE;
+                log.debug("Blok kode member {}-{} di-lease", start, limit - 1);
+            }
+            return String.format(CODE_FORMAT, next++);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,18 +1,22 @@
 package com.parkee.parkingpos.service;
 
 import com.parkee.parkingpos.domain.entity.Member;
+import com.parkee.parkingpos.domain.event.MemberToppedUpEvent;
+import com.parkee.parkingpos.domain.projection.MemberSuggestion;
 import com.parkee.parkingpos.domain.repository.MemberRepository;
-import com.parkee.parkingpos.domain.repository.ParkingTicketRepository;
 import com.parkee.parkingpos.dto.MemberRegistrationDto;
 import com.parkee.parkingpos.dto.MemberResponseDto;
 import com.parkee.parkingpos.dto.MemberUpdateDto;
 import com.parkee.parkingpos.exception.ResourceNotFoundException;
+import com.parkee.parkingpos.domain.value.Money;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -34,8 +38,14 @@ import java.util.stream.Collectors;
 @Transactional
 public class MemberService {
 
+    // Index GIN pg_trgm baru bisa dipakai untuk LIKE '%x%' jika pola punya minimal satu trigram utuh;
+    // di bawah tiga karakter planner jatuh ke sequential scan
+    private static final int MIN_SUGGEST_LENGTH = 3;
+    private static final int MAX_SUGGEST_LIMIT = 20;
+
     private final MemberRepository memberRepository;
-    private final ParkingTicketRepository parkingTicketRepository;
+    private final MemberCodeAllocator memberCodeAllocator;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Registrasi member baru
@@ -54,8 +64,8 @@ public class MemberService {
             throw new IllegalArgumentException("Email sudah terdaftar");
         }
 
-        // Generate member code
-        String memberCode = generateMemberCode();
+        // Kode dari blok sequence milik node ini, tanpa cek ke database
+        String memberCode = memberCodeAllocator.nextCode();
 
         // Create member
         Member member = Member.builder()
@@ -64,7 +74,7 @@ public class MemberService {
                 .vehiclePlateNumber(request.getVehiclePlateNumber().toUpperCase())
                 .email(request.getEmail())
                 .phoneNumber(request.getPhoneNumber())
-                .balance(BigDecimal.ZERO)
+                .balance(Money.ZERO)
                 .active(true)
                 .build();
 
@@ -92,6 +102,22 @@ public class MemberService {
         return new PageImpl<>(dtos, pageable, raw.getTotalElements());
     }
 
+    /**
+     * Typeahead member aktif berdasarkan nama atau plat nomor, maksimal {@value #MAX_SUGGEST_LIMIT} hasil
+     */
+    @Transactional(readOnly = true)
+    public List<MemberSuggestion> suggest(String query, int limit) {
+        // Wildcard LIKE dari input dibuang agar pola tetap dilayani index trigram
+        String term = query != null ? query.trim().toLowerCase().replaceAll("[%_\\\\]", "") : "";
+        if (term.length() < MIN_SUGGEST_LENGTH) {
+            return List.of();
+        }
+
+        int size = Math.max(1, Math.min(limit, MAX_SUGGEST_LIMIT));
+        return memberRepository.suggestActiveMembers(
+                "%" + term + "%", term + "%", term, PageRequest.of(0, size));
+    }
+
     /**
      * Get member by ID
      */
@@ -161,46 +187,32 @@ public class MemberService {
     public MemberResponseDto topUpBalance(Long id, BigDecimal amount) {
         log.info("Top up saldo member ID: {} sebesar: {}", id, amount);
 
-        Member member = memberRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Member tidak ditemukan dengan ID: " + id));
-
-        if (!member.getActive()) {
+        // Update saldo atomik, tanpa read-modify-write di Java
+        Money topUp = Money.of(amount);
+        LocalDateTime now = LocalDateTime.now();
+        if (memberRepository.creditBalance(id, topUp.toBigDecimal(), now) == 0) {
+            if (!memberRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Member tidak ditemukan dengan ID: " + id);
+            }
             throw new IllegalStateException("Member tidak aktif");
         }
 
-        // Update balance
-        member.setBalance(member.getBalance().add(amount));
-        member.setLastActivity(LocalDateTime.now());
+        // Counter dan stream dashboard diupdate listener setelah commit
+        eventPublisher.publishEvent(new MemberToppedUpEvent(id, topUp, now));
 
-        Member updatedMember = memberRepository.save(member);
+        Member updatedMember = memberRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Member tidak ditemukan dengan ID: " + id));
         log.info("Top up berhasil. Saldo baru member {}: {}",
-                member.getMemberCode(), member.getBalance());
+                updatedMember.getMemberCode(), updatedMember.getBalance());
 
         return mapToResponseDto(updatedMember);
     }
 
-    /**
-     * Generate unique member code
-     */
-    private String generateMemberCode() {
-        String code;
-        do {
-            // Format: MBR + 3 digit random
-            code = String.format("MBR%03d", (int) (Math.random() * 1000));
-        } while (memberRepository.findByMemberCode(code).isPresent());
-
-        return code;
-    }
-
     /**
      * Map entity to response DTO
      */
     private MemberResponseDto mapToResponseDto(Member member) {
-        // Hitung total parkings
-        long totalParkings = parkingTicketRepository
-                .findByPlateNumberContaining(member.getVehiclePlateNumber(), Pageable.unpaged())
-                .getTotalElements();
-
+        // Ringkasan parkir sudah tersimpan di baris member, tanpa query tambahan per member
         return MemberResponseDto.builder()
                 .id(member.getId())
                 .memberCode(member.getMemberCode())
@@ -212,7 +224,8 @@ public class MemberService {
                 .active(member.getActive())
                 .registeredAt(member.getRegisteredAt())
                 .lastActivity(member.getLastActivity())
-                .totalParkings((int) totalParkings)
+                .totalParkings(member.getTotalParkings())
+                .totalSpent(member.getTotalSpent())
                 .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
+import com.parkee.parkingpos.domain.event.VehicleOverstayedEvent;
+import com.parkee.parkingpos.domain.projection.ActiveTicketProjection;
+import com.parkee.parkingpos.domain.repository.ParkingTicketRepository;
+import com.parkee.parkingpos.util.HierarchicalTimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deteksi tiket ACTIVE yang melewati max parking hours jenis kendaraannya
+ * Setiap tiket di ActiveParkingIndex punya satu timer di DeadlineScheduler; timer dibatalkan saat check-out.
+ * Database hanya disentuh saat timer benar-benar jatuh tempo, untuk konfirmasi status tiket
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OverstayMonitor {
+
+    private static final String OVERSTAY_KEY = "overstay:";
+    private static final Duration OVERSTAY_KEY_TTL = Duration.ofDays(1);
+
+    private final DeadlineScheduler deadlineScheduler;
+    private final TariffEngine tariffEngine;
+    private final ParkingTicketRepository parkingTicketRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<Long, HierarchicalTimingWheel.Timer<Runnable>> timers = new ConcurrentHashMap<>();
+
+    private Counter overstayCounter;
+
+    @PostConstruct
+    public void init() {
+        overstayCounter = Counter.builder("parking.overstay")
+                .description("Tiket yang melewati batas maksimal durasi parkir")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Pasang timer overstay untuk tiket aktif; tiket provisional (id negatif) dilewati
+     */
+    public void track(ActiveTicketProjection ticket) {
+        if (ticket.ticketId() == null || ticket.ticketId() < 0 || ticket.checkInTime() == null) {
+            return;
+        }
+
+        LocalDateTime deadline = ticket.checkInTime()
+                .plusHours(tariffEngine.tariffFor(ticket.vehicleType()).getMaxParkingHours());
+        HierarchicalTimingWheel.Timer<Runnable> timer =
+                deadlineScheduler.schedule(deadline, () -> onDeadline(ticket, deadline));
+
+        HierarchicalTimingWheel.Timer<Runnable> previous = timers.put(ticket.ticketId(), timer);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    /**
+     * Batalkan timer saat tiket check-out atau dibatalkan
+     */
+    public void untrack(Long ticketId) {
+        HierarchicalTimingWheel.Timer<Runnable> timer = ticketId != null ? timers.remove(ticketId) : null;
+        if (timer != null) {
+            timer.cancel();
+        }
+    }
+
+    public int tracked() {
+        return timers.size();
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void onDeadline(ActiveTicketProjection ticket, LocalDateTime deadline) {
+        timers.remove(ticket.ticketId());
+
+        // Check-out di node lain tidak membatalkan timer di node ini
+        if (!parkingTicketRepository.existsByIdAndStatus(ticket.ticketId(), ParkingTicket.Status.ACTIVE)) {
+            return;
+        }
+        if (!claim(ticket.ticketId())) {
+            return;
+        }
+
+        overstayCounter.increment();
+        log.warn("Kendaraan {} (tiket {}) melewati batas parkir {}", ticket.plateNumber(), ticket.ticketId(), deadline);
+        eventPublisher.publishEvent(new VehicleOverstayedEvent(ticket, deadline));
+    }
+
+    /**
+     * Hanya satu node yang menaikkan event per tiket; jika Redis tidak tersedia event tetap dinaikkan
+     */
+    private boolean claim(Long ticketId) {
+        try {
+            Boolean claimed = redisTemplate.opsForValue()
+                    .setIfAbsent(OVERSTAY_KEY + ticketId, 1, OVERSTAY_KEY_TTL);
+            return !Boolean.FALSE.equals(claimed);
+        } catch (DataAccessException e) {
+            log.debug("Klaim overstay tiket {} tanpa Redis: {}", ticketId, e.getMessage());
+            return true;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.event.MemberToppedUpEvent;
+import com.parkee.parkingpos.domain.event.VehicleCheckedInEvent;
+import com.parkee.parkingpos.domain.event.VehicleCheckedOutEvent;
+import com.parkee.parkingpos.domain.event.VehicleOverstayedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listener side effect check-in/check-out setelah transaksi commit
+ * Semua perintah Redis untuk satu event dikirim dalam satu Lua script (satu round trip),
+ * sehingga state Redis tidak pernah mendahului atau menyimpang dari database
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ParkingEventListener {
+
+    private static final String ACTIVE_PARKING_KEY = "active_parking:";
+    private static final long NO_RESERVATION = 0L;
+
+    // Counter real-time: ARGV dari index tertentu berisi triple (index KEYS, field, delta).
+    // ARGV diserialisasi JSON oleh RedisTemplate sehingga field di-decode dengan cjson
+    private static final String APPLY_INCREMENTS = """
+            local function apply(from)
+                for i = from, #ARGV, 3 do
+                    redis.call('hincrby', KEYS[tonumber(ARGV[i])], cjson.decode(ARGV[i + 1]), ARGV[i + 2])
+                end
+            end
+            """;
+
+    // KEYS: active key, stats key, occupancy key | ARGV: token reservasi (0 = tanpa reservasi), ticket ID,
+    // TTL active, TTL stats, increment counter...
+    static final RedisScript<Long> CHECK_IN_SCRIPT = new DefaultRedisScript<>(APPLY_INCREMENTS + """
+            local holder = redis.call('get', KEYS[1])
+            if ARGV[1] == '0' or not holder or holder == ARGV[1] then
+                redis.call('set', KEYS[1], ARGV[2], 'EX', ARGV[3])
+            end
+            apply(5)
+            redis.call('expire', KEYS[2], ARGV[4])
+            return 1
+            """, Long.class);
+
+    // KEYS: active key, stats key, occupancy key | ARGV: ticket ID, TTL stats, increment counter...
+    static final RedisScript<Long> CHECK_OUT_SCRIPT = new DefaultRedisScript<>(APPLY_INCREMENTS + """
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                redis.call('del', KEYS[1])
+            end
+            apply(3)
+            redis.call('expire', KEYS[2], ARGV[2])
+            return 1
+            """, Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ActiveParkingIndex activeParkingIndex;
+    private final RedisReplayBuffer redisReplayBuffer;
+    private final DailyParkingRollup dailyParkingRollup;
+    private final DashboardStreamService dashboardStreamService;
+
+    @Value("${parking.reservation.active-ttl-hours:24}")
+    private long activeTtlHours;
+
+    @Value("${parking.stats-ttl-days:30}")
+    private long statsTtlDays;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCheckedIn(VehicleCheckedInEvent event) {
+        activeParkingIndex.register(event.ticket());
+        dailyParkingRollup.recordCheckIn(
+                event.ticket().checkInTime(), event.ticket().checkInGate(), event.ticket().vehicleType());
+
+        Object token = event.reservationToken() != null ? event.reservationToken() : NO_RESERVATION;
+        List<RealtimeCounters.Increment> increments = RealtimeCounters.checkIn(
+                event.ticket().checkInTime(), event.ticket().checkInGate(), event.ticket().vehicleType());
+        String statsKey = RealtimeCounters.statsKey(event.ticket().checkInTime().toLocalDate());
+        List<String> keys = List.of(ACTIVE_PARKING_KEY + event.ticket().plateNumber(), statsKey,
+                RealtimeCounters.OCCUPANCY_KEY);
+        boolean applied = execute(CHECK_IN_SCRIPT, keys, withIncrements(keys, increments,
+                token, event.ticket().ticketId(),
+                Duration.ofHours(activeTtlHours).toSeconds(), Duration.ofDays(statsTtlDays).toSeconds()));
+        if (!applied) {
+            // Key active_parking tidak di-buffer: validasi plate punya fallback index + database
+            buffer(increments);
+        }
+        dashboardStreamService.markDirty();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCheckedOut(VehicleCheckedOutEvent event) {
+        activeParkingIndex.evict(event.plateNumber(), event.ticketId());
+        dailyParkingRollup.recordCheckOut(
+                event.checkOutTime(), event.checkOutGate(), event.vehicleType(), event.parkingFee());
+
+        List<RealtimeCounters.Increment> increments = RealtimeCounters.checkOut(
+                event.checkOutTime(), event.checkOutGate(), event.vehicleType(), event.parkingFee());
+        String statsKey = RealtimeCounters.statsKey(event.checkOutTime().toLocalDate());
+        List<String> keys = List.of(ACTIVE_PARKING_KEY + event.plateNumber(), statsKey,
+                RealtimeCounters.OCCUPANCY_KEY);
+        boolean applied = execute(CHECK_OUT_SCRIPT, keys, withIncrements(keys, increments,
+                event.ticketId(), Duration.ofDays(statsTtlDays).toSeconds()));
+        if (!applied) {
+            buffer(increments);
+        }
+        dashboardStreamService.markDirty();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onToppedUp(MemberToppedUpEvent event) {
+        List<RealtimeCounters.Increment> increments = RealtimeCounters.topUp(event.toppedUpAt(), event.amount());
+        try {
+            increments.forEach(increment ->
+                    redisTemplate.opsForHash().increment(increment.key(), increment.field(), increment.delta()));
+        } catch (DataAccessException e) {
+            buffer(increments);
+        }
+        dashboardStreamService.markDirty();
+    }
+
+    /**
+     * Overstay dicatat di statistik harian; tidak terkait transaksi
+     */
+    @EventListener
+    public void onOverstayed(VehicleOverstayedEvent event) {
+        String statsKey = RealtimeCounters.statsKey(event.deadline().toLocalDate());
+        try {
+            redisTemplate.opsForHash().increment(statsKey, "OVERSTAY", 1);
+        } catch (DataAccessException e) {
+            redisReplayBuffer.recordIncrement(statsKey, "OVERSTAY", 1);
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private boolean execute(RedisScript<Long> script, List<String> keys, Object... args) {
+        try {
+            redisTemplate.execute(script, keys, args);
+            return true;
+        } catch (DataAccessException e) {
+            // Transaksi sudah commit; statistik di-buffer dan di-replay setelah Redis pulih
+            log.warn("Gagal update Redis setelah commit untuk {}: {}", keys.get(0), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Argumen script diikuti triple (index KEYS 1-based, field, delta) untuk setiap increment counter
+     */
+    private static Object[] withIncrements(List<String> keys, List<RealtimeCounters.Increment> increments,
+                                           Object... args) {
+        List<Object> all = new ArrayList<>(List.of(args));
+        for (RealtimeCounters.Increment increment : increments) {
+            all.add((long) keys.indexOf(increment.key()) + 1);
+            all.add(increment.field());
+            all.add(increment.delta());
+        }
+        return all.toArray();
+    }
+
+    private void buffer(List<RealtimeCounters.Increment> increments) {
+        increments.forEach(increment ->
+                redisReplayBuffer.recordIncrement(increment.key(), increment.field(), increment.delta()));
+    }
+}
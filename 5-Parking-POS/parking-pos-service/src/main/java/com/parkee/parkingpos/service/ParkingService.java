@@ -1,30 +1,33 @@
 package com.parkee.parkingpos.service;
 
 import com.parkee.parkingpos.domain.entity.*;
+import com.parkee.parkingpos.domain.event.VehicleCheckedInEvent;
+import com.parkee.parkingpos.domain.event.VehicleCheckedOutEvent;
+import com.parkee.parkingpos.domain.projection.ActiveTicketProjection;
 import com.parkee.parkingpos.domain.repository.*;
+import com.parkee.parkingpos.domain.value.Money;
 import com.parkee.parkingpos.dto.*;
 import com.parkee.parkingpos.exception.*;
-import com.parkee.parkingpos.util.FileUploadUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -40,23 +43,17 @@ public class ParkingService {
     private final ParkingTicketRepository parkingTicketRepository;
     private final PaymentRepository paymentRepository;
     private final MemberRepository memberRepository;
-    private final VoucherRepository voucherRepository;
     private final InvoiceReceiptRepository invoiceReceiptRepository;
     private final InvoiceReceiptService invoiceReceiptService;
-    private final RedisTemplate<String, Object> redisTemplate;
-    private final FileUploadUtil fileUploadUtil;
-
-    @Value("${parking.rate-per-hour}")
-    private BigDecimal ratePerHour;
-
-    @Value("${parking.grace-period-minutes}")
-    private int gracePeriodMinutes;
-
-    @Value("${parking.max-parking-hours}")
-    private int maxParkingHours;
-
-    private static final String ACTIVE_PARKING_KEY = "active_parking:";
-    private static final String PARKING_STATS_KEY = "parking_stats:";
+    private final PhotoIngestionService photoIngestionService;
+    private final ActiveParkingIndex activeParkingIndex;
+    private final FeeQuoteService feeQuoteService;
+    private final PlateReservationService plateReservationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TariffEngine tariffEngine;
+    private final VoucherRuleTable voucherRuleTable;
+    private final VoucherUsageLedger voucherUsageLedger;
+    private final CacheManager cacheManager;
 
     @Value("${app.base-url}")
     private String baseUrl; // http://localhost:8081
@@ -68,24 +65,18 @@ public class ParkingService {
      * Check-in kendaraan baru
      * Validasi plate number tidak sedang parkir
      */
-    public ParkingTicketResponseDto checkIn(CheckInRequestDto request, MultipartFile photo) {
+    public ParkingTicketResponseDto checkIn(CheckInRequestDto request, PhotoIngestionService.StagedPhoto photo) {
         log.info("Processing check-in untuk plate number: {}", request.getPlateNumber());
 
-        // Validasi apakah kendaraan sudah parkir
+        // Validasi apakah kendaraan sudah parkir, lalu reservasi plate secara atomik
         validateVehicleNotParked(request.getPlateNumber());
-
-        // Upload foto jika ada
-        String photoPath = null;
-        if (photo != null && !photo.isEmpty()) {
-            photoPath = fileUploadUtil.uploadFile(photo, "checkin");
-        }
+        PlateReservationService.Reservation reservation = plateReservationService.reserve(request.getPlateNumber());
 
         // Buat ticket parkir baru
         ParkingTicket ticket = ParkingTicket.builder()
                 .plateNumber(request.getPlateNumber().toUpperCase())
                 .vehicleType(request.getVehicleType())
                 .checkInTime(LocalDateTime.now())
-                .checkInPhotoPath(photoPath)
                 .checkInGate(request.getGate())
                 .checkInOperator(request.getOperatorName())
                 .status(ParkingTicket.Status.ACTIVE)
@@ -98,14 +89,21 @@ public class ParkingService {
                     ticket.setMemberName(member.getName());
                 });
 
-        ParkingTicket savedTicket = parkingTicketRepository.save(ticket);
+        // Flush langsung agar partial unique index (plate ACTIVE) dicek di dalam request ini
+        ParkingTicket savedTicket;
+        try {
+            savedTicket = parkingTicketRepository.saveAndFlush(ticket);
+        } catch (DataIntegrityViolationException e) {
+            throw new VehicleAlreadyParkedException(
+                    "Kendaraan dengan plat nomor " + ticket.getPlateNumber() + " sudah parkir");
+        }
 
-        // Simpan ke Redis untuk tracking aktif
-        String redisKey = ACTIVE_PARKING_KEY + request.getPlateNumber().toUpperCase();
-        redisTemplate.opsForValue().set(redisKey, savedTicket.getId(), 24, TimeUnit.HOURS);
+        // Foto sudah di-spool; referensi di tiket dipasang writer setelah file final tersimpan
+        photoIngestionService.ingestAfterCommit(photo, savedTicket.getId(),
+                PhotoIngestionService.PhotoSlot.CHECK_IN);
 
-        // Update statistik
-        updateParkingStats("CHECK_IN");
+        // Index, key active_parking dan statistik diupdate listener setelah commit
+        eventPublisher.publishEvent(VehicleCheckedInEvent.of(savedTicket, reservation.token()));
 
         log.info("Check-in berhasil dengan ticket ID: {}", savedTicket.getId());
         return mapToResponseDto(savedTicket);
@@ -128,6 +126,8 @@ public class ParkingService {
 
     /**
      * Kalkulasi biaya parkir
+     * Hasil kalkulasi disimpan sebagai quote berumur pendek untuk dipakai saat check-out.
+     * Tidak mereservasi kuota voucher, sehingga preview berulang tidak mengunci voucher sekali pakai
      */
     public ParkingCalculationDto calculateParkingFee(String plateNumber, String voucherCode) {
         log.info("Menghitung biaya parkir untuk plate: {}", plateNumber);
@@ -137,71 +137,17 @@ public class ParkingService {
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Tidak ada kendaraan aktif dengan plat nomor: " + plateNumber));
 
-        LocalDateTime now = LocalDateTime.now();
-        long minutesParked = ChronoUnit.MINUTES.between(ticket.getCheckInTime(), now);
-
-        // Grace period check
-        if (minutesParked <= gracePeriodMinutes) {
-            return ParkingCalculationDto.builder()
-                    .ticketId(ticket.getId())
-                    .plateNumber(ticket.getPlateNumber())
-                    .checkInTime(ticket.getCheckInTime())
-                    .checkOutTime(now)
-                    .duration(formatDuration(minutesParked))
-                    .gracePeriod(true)
-                    .baseFee(BigDecimal.ZERO)
-                    .discount(BigDecimal.ZERO)
-                    .totalFee(BigDecimal.ZERO)
-                    .build();
-        }
-
-        // Hitung biaya dasar
-        long hoursParked = (long) Math.ceil(minutesParked / 60.0);
-        if (hoursParked > maxParkingHours) {
-            hoursParked = maxParkingHours;
-        }
-
-        BigDecimal baseFee = ratePerHour.multiply(BigDecimal.valueOf(hoursParked));
-        BigDecimal discount = BigDecimal.ZERO;
-        BigDecimal totalFee = baseFee;
-
-        // Apply voucher jika ada
-        Voucher appliedVoucher = null;
-        if (voucherCode != null && !voucherCode.isEmpty()) {
-            appliedVoucher = validateAndApplyVoucher(voucherCode, baseFee);
-            if (appliedVoucher != null) {
-                discount = calculateDiscount(baseFee, appliedVoucher);
-                totalFee = baseFee.subtract(discount);
-            }
-        }
-
-        // Member discount
-        if (ticket.getMember() != null) {
-            BigDecimal memberDiscount = baseFee.multiply(BigDecimal.valueOf(0.1)); // 10% untuk member
-            discount = discount.add(memberDiscount);
-            totalFee = totalFee.subtract(memberDiscount);
-        }
-
-        return ParkingCalculationDto.builder()
-                .ticketId(ticket.getId())
-                .plateNumber(ticket.getPlateNumber())
-                .checkInTime(ticket.getCheckInTime())
-                .checkOutTime(now)
-                .duration(formatDuration(minutesParked))
-                .hoursParked(hoursParked)
-                .baseFee(baseFee)
-                .discount(discount)
-                .totalFee(totalFee.max(BigDecimal.ZERO))
-                .isMember(ticket.getMember() != null)
-                .appliedVoucher(appliedVoucher != null ? appliedVoucher.getCode() : null)
-                .build();
+        ParkingCalculationDto calculation = previewFee(ticket, voucherCode, LocalDateTime.now());
+        feeQuoteService.issue(calculation, voucherCode);
+        return calculation;
     }
 
     /**
      * Check-out kendaraan
+     * Jika quoteId masih valid, biaya yang sudah di-quote langsung di-commit
      */
     @CacheEvict(value = "activeTickets", key = "#request.plateNumber")
-    public InvoiceReceiptDto checkOut(CheckOutRequestDto request, MultipartFile photo) {
+    public InvoiceReceiptDto checkOut(CheckOutRequestDto request, PhotoIngestionService.StagedPhoto photo) {
         log.info("Processing check-out untuk plate: {}", request.getPlateNumber());
 
         // Get ticket
@@ -210,39 +156,36 @@ public class ParkingService {
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Tidak ada kendaraan aktif dengan plat nomor: " + request.getPlateNumber()));
 
-        ParkingCalculationDto calculation = calculateParkingFee(
-                request.getPlateNumber(), request.getVoucherCode());
-
-        // Upload foto keluar
-        String photoPath = null;
-        if (photo != null && !photo.isEmpty()) {
-            photoPath = fileUploadUtil.uploadFile(photo, "checkout");
-        }
+        // Quote dengan voucher hanya dipakai jika kuota voucher masih bisa direservasi sekarang
+        ParkingCalculationDto calculation = feeQuoteService
+                .redeem(request.getQuoteId(), ticket.getId(), request.getVoucherCode())
+                .map(feeQuoteService::toCalculation)
+                .filter(this::reserveQuotedVoucher)
+                .orElseGet(() -> calculateFee(ticket, request.getVoucherCode(), LocalDateTime.now()));
+        voucherUsageLedger.commitAfterCompletion(calculation.getVoucherReservation());
 
         // Update ticket SETELAH calculation
         ticket.setCheckOutTime(LocalDateTime.now());
-        ticket.setCheckOutPhotoPath(photoPath);
         ticket.setCheckOutGate(request.getGate());
         ticket.setCheckOutOperator(request.getOperatorName());
         ticket.setParkingFee(calculation.getTotalFee());
         ticket.setStatus(ParkingTicket.Status.COMPLETED); // Status diubah SETELAH calculation
 
         // Process payment
-        Payment payment = processPayment(ticket, request, calculation);
+        Payment payment = processPayment(ticket, request.getPaymentMethod(), calculation);
         ticket.setPayment(payment);
 
         // Save ticket
         ParkingTicket savedTicket = parkingTicketRepository.save(ticket);
+        // Foto sudah di-spool; referensi di tiket dipasang writer setelah file final tersimpan
+        photoIngestionService.ingestAfterCommit(photo, savedTicket.getId(),
+                PhotoIngestionService.PhotoSlot.CHECK_OUT);
 
         // Generate invoice
         InvoiceReceiptDto invoice = invoiceReceiptService.generateInvoice(savedTicket, payment);
 
-        // Clear Redis cache
-        String redisKey = ACTIVE_PARKING_KEY + request.getPlateNumber().toUpperCase();
-        redisTemplate.delete(redisKey);
-
-        // Update stats
-        updateParkingStats("CHECK_OUT");
+        // Index, key active_parking dan statistik diupdate listener setelah commit
+        eventPublisher.publishEvent(VehicleCheckedOutEvent.of(savedTicket, request.getPaymentMethod()));
 
         log.info("Check-out berhasil dengan invoice: {}", invoice.getInvoiceNumber());
         return invoice;
@@ -250,38 +193,57 @@ public class ParkingService {
 
     /**
      * Process payment
+     * Payment baru di-persist (insert terjadi saat flush sehingga bisa di-batch)
      */
-    private Payment processPayment(ParkingTicket ticket, CheckOutRequestDto request,
-                                   ParkingCalculationDto calculation) {
+    Payment processPayment(ParkingTicket ticket, PaymentMethod paymentMethod,
+                           ParkingCalculationDto calculation) {
+        return tryProcessPayment(ticket, paymentMethod, calculation)
+                .orElseThrow(() -> new InsufficientBalanceException("Saldo member tidak mencukupi"));
+    }
+
+    /**
+     * Seperti processPayment, tetapi saldo member yang tidak cukup dikembalikan sebagai Optional kosong.
+     * Dipakai sinkronisasi gate lewat proxy transaksi: exception di sini akan menandai transaksi chunk
+     * rollback-only, padahal hanya satu event yang perlu ditolak
+     */
+    Optional<Payment> tryProcessPayment(ParkingTicket ticket, PaymentMethod paymentMethod,
+                                        ParkingCalculationDto calculation) {
 
         Payment payment = Payment.builder()
                 .parkingTicket(ticket)
                 .amount(calculation.getTotalFee())
-                .paymentMethod(request.getPaymentMethod())
+                .paymentMethod(paymentMethod)
                 .paymentTime(LocalDateTime.now())
                 .status(Payment.Status.PENDING)
                 .build();
 
         // Jika member dan saldo cukup, potong saldo
         if (ticket.getMember() != null &&
-                request.getPaymentMethod() == PaymentMethod.MEMBER_BALANCE) {
+                paymentMethod == PaymentMethod.MEMBER_BALANCE) {
 
-            Member member = ticket.getMember();
-            if (member.getBalance().compareTo(calculation.getTotalFee()) < 0) {
-                throw new InsufficientBalanceException("Saldo member tidak mencukupi");
+            // Debit atomik di database; id diambil dari proxy tanpa load entity member
+            int updated = memberRepository.debitBalance(
+                    ticket.getMember().getId(), calculation.getTotalFee().toBigDecimal(), LocalDateTime.now());
+            if (updated == 0) {
+                return Optional.empty();
             }
 
-            member.setBalance(member.getBalance().subtract(calculation.getTotalFee()));
-            memberRepository.save(member);
             payment.setStatus(Payment.Status.SUCCESS);
             payment.setReferenceNumber("MB-" + System.currentTimeMillis());
         } else {
             // Simulasi pembayaran non-tunai
             payment.setStatus(Payment.Status.SUCCESS);
-            payment.setReferenceNumber(generatePaymentReference(request.getPaymentMethod()));
+            payment.setReferenceNumber(generatePaymentReference(paymentMethod));
         }
 
-        return paymentRepository.save(payment);
+        // Ringkasan parkir member diupdate di transaksi yang sama dengan pembayaran
+        if (ticket.getMember() != null) {
+            memberRepository.recordParking(
+                    ticket.getMember().getId(), calculation.getTotalFee().toBigDecimal(), LocalDateTime.now());
+            evictMember(ticket.getMember().getId());
+        }
+
+        return Optional.of(paymentRepository.save(payment));
     }
 
     public Page<VehicleActivityDto> getVehicleActivities(String plateNumber, LocalDate date,
@@ -392,55 +354,105 @@ public class ParkingService {
     // ==================== HELPER METHODS ====================
 
     /**
-     * Validasi kendaraan tidak sedang parkir
+     * Saldo dan ringkasan parkir diupdate lewat query langsung, bukan lewat MemberService, sehingga
+     * entry cache "member" harus dibuang manual. Cache manager transaction-aware: evict baru dijalankan
+     * setelah commit (bersama listener after-commit lain) dan di-buffer jika Redis tidak tersedia
      */
-    private void validateVehicleNotParked(String plateNumber) {
-        String redisKey = ACTIVE_PARKING_KEY + plateNumber.toUpperCase();
+    private void evictMember(Long memberId) {
+        Cache cache = cacheManager.getCache("member");
+        if (cache != null) {
+            cache.evict(memberId);
+        }
+    }
 
-        // Check Redis first
-        if (Boolean.TRUE.equals(redisTemplate.hasKey(redisKey))) {
-            throw new VehicleAlreadyParkedException(
-                    "Kendaraan dengan plat nomor " + plateNumber + " sudah parkir");
+    /**
+     * Hitung biaya parkir untuk ticket yang sudah di-load
+     * Tarif dan diskon member dari TariffEngine; voucher ditambahkan di sini karena kuotanya direservasi di ledger
+     */
+    ParkingCalculationDto calculateFee(ParkingTicket ticket, String voucherCode, LocalDateTime now) {
+        ParkingCalculationDto calculation = tariffEngine.calculate(ticket, now);
+        if (calculation.isGracePeriod() || voucherCode == null || voucherCode.isEmpty()) {
+            return calculation;
         }
 
-        // Double check database
-        parkingTicketRepository
-                .findByPlateNumberAndStatus(plateNumber.toUpperCase(), ParkingTicket.Status.ACTIVE)
-                .ifPresent(ticket -> {
-                    throw new VehicleAlreadyParkedException(
-                            "Kendaraan dengan plat nomor " + plateNumber + " sudah parkir");
-                });
+        // Apply voucher jika ada; kuota voucher direservasi di ledger
+        VoucherRuleTable.Rule appliedVoucher = validateAndApplyVoucher(voucherCode, calculation.getBaseFee());
+        String voucherReservation = appliedVoucher != null
+                ? voucherUsageLedger.reserve(appliedVoucher.code(), appliedVoucher.limited()).orElse(null)
+                : null;
+        if (voucherReservation != null) {
+            applyVoucher(calculation, appliedVoucher);
+            calculation.setVoucherReservation(voucherReservation);
+        }
+        return calculation;
     }
 
     /**
-     * Validate dan apply voucher
+     * Seperti calculateFee tanpa menyentuh kuota voucher, untuk kalkulasi/quote yang belum tentu diikuti
+     * check-out. Kuota baru direservasi saat quote ditukarkan di check-out
      */
-    private Voucher validateAndApplyVoucher(String voucherCode, BigDecimal amount) {
-        return voucherRepository.findByCodeAndActiveTrue(voucherCode)
-                .filter(voucher -> voucher.isValid())
-                .filter(voucher -> amount.compareTo(voucher.getMinimumAmount()) >= 0)
-                .orElse(null);
+    private ParkingCalculationDto previewFee(ParkingTicket ticket, String voucherCode, LocalDateTime now) {
+        ParkingCalculationDto calculation = tariffEngine.calculate(ticket, now);
+        if (calculation.isGracePeriod() || voucherCode == null || voucherCode.isEmpty()) {
+            return calculation;
+        }
+
+        VoucherRuleTable.Rule appliedVoucher = validateAndApplyVoucher(voucherCode, calculation.getBaseFee());
+        if (appliedVoucher != null) {
+            applyVoucher(calculation, appliedVoucher);
+        }
+        return calculation;
     }
 
     /**
-     * Calculate discount dari voucher
+     * Reservasi kuota voucher dari quote yang ditukarkan; false jika voucher sudah tidak berlaku atau kuotanya
+     * habis sejak quote diterbitkan, sehingga check-out menghitung ulang biaya
      */
-    private BigDecimal calculateDiscount(BigDecimal baseFee, Voucher voucher) {
-        if (voucher.getDiscountType() == Voucher.DiscountType.PERCENTAGE) {
-            return baseFee.multiply(voucher.getDiscountValue())
-                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-        } else {
-            return voucher.getDiscountValue().min(baseFee);
+    private boolean reserveQuotedVoucher(ParkingCalculationDto quoted) {
+        if (quoted.getAppliedVoucher() == null) {
+            return true;
         }
+        Optional<String> reservation = voucherRuleTable.find(quoted.getAppliedVoucher())
+                .flatMap(rule -> voucherUsageLedger.reserve(rule.code(), rule.limited()));
+        reservation.ifPresent(quoted::setVoucherReservation);
+        return reservation.isPresent();
+    }
+
+    private static void applyVoucher(ParkingCalculationDto calculation, VoucherRuleTable.Rule voucher) {
+        Money discount = calculation.getDiscount().plus(voucher.discount(calculation.getBaseFee()));
+        calculation.setDiscount(discount);
+        calculation.setTotalFee(calculation.getBaseFee().minus(discount).max(Money.ZERO));
+        calculation.setAppliedVoucher(voucher.code());
     }
 
     /**
-     * Format duration untuk display
+     * Validasi kendaraan tidak sedang parkir
+     * Lookup ke index in-memory; database hanya dipakai untuk konfirmasi jika ada hit
      */
-    private String formatDuration(long minutes) {
-        long hours = minutes / 60;
-        long mins = minutes % 60;
-        return String.format("%d jam %d menit", hours, mins);
+    private void validateVehicleNotParked(String plateNumber) {
+        ActiveTicketProjection indexed = activeParkingIndex.find(plateNumber).orElse(null);
+        if (indexed == null) {
+            return;
+        }
+
+        // Konfirmasi ke database, entry bisa stale jika check-out dilakukan di node lain
+        if (parkingTicketRepository.existsByIdAndStatus(indexed.ticketId(), ParkingTicket.Status.ACTIVE)) {
+            throw new VehicleAlreadyParkedException(
+                    "Kendaraan dengan plat nomor " + plateNumber + " sudah parkir");
+        }
+
+        log.debug("Entry index untuk plate {} sudah tidak aktif, dihapus", plateNumber);
+        activeParkingIndex.evict(plateNumber, indexed.ticketId());
+    }
+
+    /**
+     * Validate dan apply voucher
+     * Lookup ke snapshot aturan voucher di memory; batas usageLimit ditegakkan VoucherUsageLedger
+     */
+    private VoucherRuleTable.Rule validateAndApplyVoucher(String voucherCode, Money amount) {
+        return voucherRuleTable.find(voucherCode)
+                .filter(rule -> rule.accepts(amount))
+                .orElse(null);
     }
 
     /**
@@ -459,15 +471,6 @@ public class ParkingService {
         return prefix + "-" + System.currentTimeMillis();
     }
 
-    /**
-     * Update parking statistics di Redis
-     */
-    private void updateParkingStats(String event) {
-        String key = PARKING_STATS_KEY + LocalDate.now();
-        redisTemplate.opsForHash().increment(key, event, 1);
-        redisTemplate.expire(key, 30, TimeUnit.DAYS);
-    }
-
     /**
      * Map entity to response DTO
      */
@@ -525,7 +528,7 @@ public class ParkingService {
                 .checkInTime(ticket.getCheckInTime())
                 .checkOutTime(ticket.getCheckOutTime())
                 .duration(ticket.getCheckOutTime() != null ?
-                        formatDuration(ChronoUnit.MINUTES.between(
+                        TariffEngine.formatDuration(ChronoUnit.MINUTES.between(
                                 ticket.getCheckInTime(), ticket.getCheckOutTime())) : "-")
                 .checkInGate(ticket.getCheckInGate())
                 .checkOutGate(ticket.getCheckOutGate())
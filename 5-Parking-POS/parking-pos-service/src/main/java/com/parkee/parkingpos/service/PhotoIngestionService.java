@@ -0,0 +1,252 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.repository.ParkingTicketRepository;
+import com.parkee.parkingpos.util.FileUploadUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Pipeline asinkron untuk foto gate (check-in/check-out)
+ * Foto di-spool sekali sebelum transaksi, tiket di-commit tanpa referensi foto, lalu writer pool di background
+ * memvalidasi isi file, memindahkannya ke lokasi final dan baru kemudian memasang referensinya di tiket.
+ * Jika antrean writer penuh, foto tidak ditulis di thread gate: file spool dibiarkan dan dicoba ulang oleh sweeper
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PhotoIngestionService {
+
+    private final FileUploadUtil fileUploadUtil;
+    private final ParkingTicketRepository parkingTicketRepository;
+
+    @Value("${file-upload.ingestion.writer-threads:2}")
+    private int writerThreads;
+
+    @Value("${file-upload.ingestion.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${file-upload.ingestion.spool-retention-minutes:60}")
+    private long spoolRetentionMinutes;
+
+    private ThreadPoolExecutor writerPool;
+
+    // Penulisan yang ditolak karena antrean penuh, diajukan ulang oleh sweeper
+    private final Queue<PendingWrite> deferred = new ConcurrentLinkedQueue<>();
+
+    // File spool milik penulisan yang belum selesai; tidak boleh dihapus sweeper
+    private final Set<Path> pendingSpoolFiles = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        writerPool = new ThreadPoolExecutor(
+                writerThreads, writerThreads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "photo-writer-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Antrean penuh: submit() menunda penulisan ke sweeper, bukan menulis di thread pemanggil
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writerPool.shutdown();
+        if (!writerPool.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Photo writer pool belum selesai, {} foto tertinggal di spool", writerPool.getQueue().size());
+        }
+        if (!deferred.isEmpty()) {
+            log.warn("{} foto tertunda tertinggal di spool tanpa referensi di tiket", deferred.size());
+        }
+    }
+
+    /**
+     * Spool foto dari request multipart
+     * Dipanggil di luar transaksi agar koneksi database tidak tertahan oleh I/O file
+     *
+     * @return staged photo, atau null jika tidak ada foto
+     */
+    public StagedPhoto stage(MultipartFile photo, String type) {
+        if (photo == null || photo.isEmpty()) {
+            return null;
+        }
+
+        Path spoolPath = fileUploadUtil.spoolFile(photo, type);
+        String relativePath = fileUploadUtil.planRelativePath(spoolPath, type);
+        return new StagedPhoto(spoolPath, relativePath, type);
+    }
+
+    /**
+     * Jadwalkan penulisan foto ke lokasi final setelah transaksi tiket commit
+     * Jika transaksi rollback, file spool langsung dibuang
+     */
+    public void ingestAfterCommit(StagedPhoto photo, Long ticketId, PhotoSlot slot) {
+        if (photo == null) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(new PendingWrite(photo, ticketId, slot));
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(new PendingWrite(photo, ticketId, slot));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    discard(photo);
+                }
+            }
+        });
+    }
+
+    /**
+     * Ajukan ulang penulisan yang tertunda, lalu hapus file spool yang tidak pernah di-commit
+     * (request gagal atau aplikasi restart)
+     */
+    @Scheduled(fixedDelayString = "${file-upload.ingestion.spool-sweep-interval:900000}")
+    public void sweepOrphanedSpoolFiles() {
+        retryDeferredWrites();
+
+        Path spoolDir = fileUploadUtil.getTempDirectory();
+        if (!Files.isDirectory(spoolDir)) {
+            return;
+        }
+
+        Instant threshold = Instant.now().minus(Duration.ofMinutes(spoolRetentionMinutes));
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            files.filter(Files::isRegularFile)
+                    .filter(file -> !pendingSpoolFiles.contains(file.toAbsolutePath()))
+                    .filter(file -> isOlderThan(file, threshold))
+                    .forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Gagal membersihkan spool directory {}: {}", spoolDir, e.getMessage());
+        }
+    }
+
+    /**
+     * Foto yang sudah diajukan tetapi belum selesai: di antrean, sedang ditulis, atau ditunda ke sweeper
+     */
+    public int pendingWrites() {
+        return pendingSpoolFiles.size();
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void submit(PendingWrite pending) {
+        pendingSpoolFiles.add(pending.photo().spoolPath());
+        try {
+            writerPool.execute(() -> write(pending));
+        } catch (RejectedExecutionException e) {
+            log.warn("Antrean photo writer penuh, foto {} untuk ticket {} ditunda ke sweeper",
+                    pending.photo().relativePath(), pending.ticketId());
+            deferred.add(pending);
+        }
+    }
+
+    private void retryDeferredWrites() {
+        // Hanya entri yang sudah ada saat mulai; yang ditolak lagi menunggu sweep berikutnya
+        for (int remaining = deferred.size(); remaining > 0; remaining--) {
+            PendingWrite pending = deferred.poll();
+            if (pending == null) {
+                return;
+            }
+            submit(pending);
+        }
+    }
+
+    private void write(PendingWrite pending) {
+        StagedPhoto photo = pending.photo();
+        try {
+            if (!fileUploadUtil.isImageContent(photo.spoolPath())) {
+                throw new IllegalArgumentException("File harus berupa gambar");
+            }
+            fileUploadUtil.storeSpooledFile(photo.spoolPath(), photo.relativePath());
+            attachReference(pending.ticketId(), pending.slot(), photo.relativePath());
+
+        } catch (RuntimeException e) {
+            log.error("Foto {} untuk ticket {} gagal diproses: {}", photo.relativePath(), pending.ticketId(),
+                    e.getMessage());
+            discard(photo);
+        } finally {
+            pendingSpoolFiles.remove(photo.spoolPath());
+        }
+    }
+
+    private void attachReference(Long ticketId, PhotoSlot slot, String relativePath) {
+        try {
+            if (slot == PhotoSlot.CHECK_IN) {
+                parkingTicketRepository.attachCheckInPhotoPath(ticketId, relativePath);
+            } else {
+                parkingTicketRepository.attachCheckOutPhotoPath(ticketId, relativePath);
+            }
+        } catch (RuntimeException e) {
+            log.error("Gagal memasang referensi foto {} ke ticket {}", relativePath, ticketId, e);
+        }
+    }
+
+    private void discard(StagedPhoto photo) {
+        deleteQuietly(photo.spoolPath());
+    }
+
+    private boolean isOlderThan(Path file, Instant threshold) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(threshold);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Gagal menghapus file spool {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Foto yang sudah di-spool dan menunggu dipindahkan ke lokasi final
+     */
+    public record StagedPhoto(Path spoolPath, String relativePath, String type) {
+    }
+
+    public enum PhotoSlot {
+        CHECK_IN, CHECK_OUT
+    }
+
+    private record PendingWrite(StagedPhoto photo, Long ticketId, PhotoSlot slot) {
+    }
+}
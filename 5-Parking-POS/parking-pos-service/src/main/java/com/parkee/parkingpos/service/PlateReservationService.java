@@ -0,0 +1,148 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
+import com.parkee.parkingpos.domain.repository.ParkingTicketRepository;
+import com.parkee.parkingpos.exception.VehicleAlreadyParkedException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service untuk reservasi plate number secara atomik saat check-in
+ * SETNX pada key active_parking: memastikan hanya satu lane yang lolos per plate;
+ * partial unique index di database menjadi pengaman terakhir jika Redis tidak tersedia
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PlateReservationService {
+
+    static final String ACTIVE_PARKING_KEY = "active_parking:";
+    static final String PENDING_PREFIX = "pending:";
+
+    // Hapus key hanya jika masih milik reservasi ini
+    static final RedisScript<Long> COMPARE_AND_DELETE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end return 0",
+            Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ParkingTicketRepository parkingTicketRepository;
+
+    @Value("${parking.reservation.pending-ttl-seconds:30}")
+    private long pendingTtlSeconds = 30;
+
+    /**
+     * Reservasi plate untuk check-in pada transaksi berjalan
+     * Reservasi otomatis dilepas saat rollback; saat commit diganti ticket ID oleh ParkingEventListener
+     */
+    public Reservation reserve(String plateNumber) {
+        String plate = plateNumber.toUpperCase();
+        String key = ACTIVE_PARKING_KEY + plate;
+        String token = PENDING_PREFIX + UUID.randomUUID();
+
+        try {
+            // Maksimal dua percobaan: percobaan kedua hanya setelah membersihkan value stale
+            for (int attempt = 0; attempt < 2; attempt++) {
+                Boolean acquired = redisTemplate.opsForValue()
+                        .setIfAbsent(key, token, Duration.ofSeconds(pendingTtlSeconds));
+                if (Boolean.TRUE.equals(acquired)) {
+                    Reservation reservation = new Reservation(key, token);
+                    releaseOnCompletion(reservation);
+                    return reservation;
+                }
+
+                Object holder = redisTemplate.opsForValue().get(key);
+                if (holder != null && !isStale(holder)) {
+                    throw new VehicleAlreadyParkedException(
+                            "Kendaraan dengan plat nomor " + plate + " sudah parkir");
+                }
+                if (holder != null) {
+                    log.debug("Reservasi stale untuk plate {} dihapus: {}", plate, holder);
+                    redisTemplate.execute(COMPARE_AND_DELETE, List.of(key), holder);
+                }
+            }
+        } catch (DataAccessException e) {
+            // Redis tidak tersedia: unique index database tetap mencegah duplikasi
+            log.warn("Reservasi Redis untuk plate {} gagal, lanjut dengan unique index: {}", plate, e.getMessage());
+            return Reservation.NONE;
+        }
+
+        throw new VehicleAlreadyParkedException(
+                "Kendaraan dengan plat nomor " + plate + " sedang diproses di gate lain");
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Value berupa ticket ID dianggap stale jika tiket sudah tidak ACTIVE
+     * Value pending selalu dianggap valid; TTL pendek yang membersihkannya
+     */
+    private boolean isStale(Object holder) {
+        if (holder instanceof Number ticketId) {
+            return !parkingTicketRepository.existsByIdAndStatus(ticketId.longValue(), ParkingTicket.Status.ACTIVE);
+        }
+        return !(holder instanceof String value && value.startsWith(PENDING_PREFIX));
+    }
+
+    /**
+     * Reservasi dilepas jika transaksi tidak commit
+     * Jika commit, key diganti ticket ID oleh ParkingEventListener bersama update statistik
+     */
+    private void releaseOnCompletion(Reservation reservation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                try {
+                    redisTemplate.execute(COMPARE_AND_DELETE, List.of(reservation.key), reservation.token);
+                } catch (DataAccessException e) {
+                    log.warn("Gagal melepas reservasi {}: {}", reservation.key, e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Handle reservasi plate; token dibawa event check-in untuk finalisasi key setelah commit
+     */
+    public static final class Reservation {
+
+        static final Reservation NONE = new Reservation(null, null);
+
+        private final String key;
+        private final String token;
+
+        Reservation(String key, String token) {
+            this.key = key;
+            this.token = token;
+        }
+
+        /**
+         * Token reservasi di Redis, null jika reservasi dilewati karena Redis tidak tersedia
+         */
+        public String token() {
+            return token;
+        }
+
+        public boolean isHeld() {
+            return key != null;
+        }
+    }
+}
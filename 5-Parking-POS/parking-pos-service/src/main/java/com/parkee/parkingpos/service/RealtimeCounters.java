@@ -0,0 +1,298 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
+import com.parkee.parkingpos.domain.value.Money;
+import com.parkee.parkingpos.dto.LiveCountersDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Counter real-time dashboard di Redis
+ * Hash parking_stats:{tanggal} menyimpan masuk/keluar/pendapatan (minor unit) total, per gate dan per jenis
+ * kendaraan; hash parking_occupancy menyimpan kendaraan yang sedang parkir. Counter dinaikkan di Lua script
+ * check-in/check-out yang sama dengan key active_parking, dibaca dengan dua HGETALL, dan dikoreksi periodik
+ * terhadap database untuk menutup drift (event yang hilang saat node mati, replay buffer yang terlambat)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RealtimeCounters {
+
+    static final String STATS_KEY = "parking_stats:";
+    static final String OCCUPANCY_KEY = "parking_occupancy";
+
+    static final String CHECK_IN = "CHECK_IN";
+    static final String CHECK_OUT = "CHECK_OUT";
+    static final String REVENUE = "REVENUE";
+    static final String TOTAL = "TOTAL";
+    static final String TOP_UP = "TOP_UP";
+    static final String TOP_UP_AMOUNT = "TOP_UP_AMOUNT";
+
+    private static final String GATE = ":gate:";
+    private static final String TYPE = ":type:";
+    private static final String OCCUPANCY_TYPE = "type:";
+
+    private static final String CHECK_INS_SQL =
+            "SELECT COALESCE(check_in_gate, ''), COALESCE(vehicle_type, ''), COUNT(*) FROM parking_tickets " +
+            "WHERE check_in_time >= ? AND check_in_time < ? GROUP BY 1, 2";
+
+    private static final String CHECK_OUTS_SQL =
+            "SELECT COALESCE(check_out_gate, ''), COALESCE(vehicle_type, ''), COUNT(*), COALESCE(SUM(parking_fee), 0) " +
+            "FROM parking_tickets WHERE status = 'COMPLETED' AND check_out_time >= ? AND check_out_time < ? GROUP BY 1, 2";
+
+    private static final String OCCUPANCY_SQL =
+            "SELECT COALESCE(vehicle_type, ''), COUNT(*) FROM parking_tickets WHERE status = 'ACTIVE' GROUP BY 1";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Increment untuk satu check-in
+     */
+    public static List<Increment> checkIn(LocalDateTime time, String gate, ParkingTicket.VehicleType vehicleType) {
+        String statsKey = statsKey(time.toLocalDate());
+        String type = typeName(vehicleType);
+        return List.of(
+                new Increment(statsKey, CHECK_IN, 1),
+                new Increment(statsKey, CHECK_IN + GATE + gateName(gate), 1),
+                new Increment(statsKey, CHECK_IN + TYPE + type, 1),
+                new Increment(OCCUPANCY_KEY, TOTAL, 1),
+                new Increment(OCCUPANCY_KEY, OCCUPANCY_TYPE + type, 1));
+    }
+
+    /**
+     * Increment untuk satu check-out; pendapatan dalam minor unit agar bisa HINCRBY
+     */
+    public static List<Increment> checkOut(LocalDateTime time, String gate, ParkingTicket.VehicleType vehicleType,
+                                           Money fee) {
+        String statsKey = statsKey(time.toLocalDate());
+        String type = typeName(vehicleType);
+        long revenue = fee != null ? fee.minor() : 0;
+        return List.of(
+                new Increment(statsKey, CHECK_OUT, 1),
+                new Increment(statsKey, CHECK_OUT + GATE + gateName(gate), 1),
+                new Increment(statsKey, CHECK_OUT + TYPE + type, 1),
+                new Increment(statsKey, REVENUE, revenue),
+                new Increment(statsKey, REVENUE + GATE + gateName(gate), revenue),
+                new Increment(statsKey, REVENUE + TYPE + type, revenue),
+                new Increment(OCCUPANCY_KEY, TOTAL, -1),
+                new Increment(OCCUPANCY_KEY, OCCUPANCY_TYPE + type, -1));
+    }
+
+    /**
+     * Increment untuk satu top up saldo member; tidak ikut koreksi drift karena top up tidak punya tabel sumber
+     */
+    public static List<Increment> topUp(LocalDateTime time, Money amount) {
+        String statsKey = statsKey(time.toLocalDate());
+        return List.of(
+                new Increment(statsKey, TOP_UP, 1),
+                new Increment(statsKey, TOP_UP_AMOUNT, amount.minor()));
+    }
+
+    public static String statsKey(LocalDate date) {
+        return STATS_KEY + date;
+    }
+
+    /**
+     * Counter hari ini; kosong jika Redis tidak tersedia (pemanggil kembali ke query database)
+     */
+    public Optional<LiveCountersDto> today() {
+        LocalDate today = LocalDate.now();
+        List<Object> hashes;
+        try {
+            hashes = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    ops.opsForHash().entries(statsKey(today));
+                    ops.opsForHash().entries(OCCUPANCY_KEY);
+                    return null;
+                }
+            });
+        } catch (DataAccessException e) {
+            log.debug("Counter real-time tidak tersedia: {}", e.getMessage());
+            return Optional.empty();
+        }
+
+        return Optional.of(toDto(today, asLongs(hashes.get(0)), asLongs(hashes.get(1))));
+    }
+
+    /**
+     * Koreksi drift: tulis ulang counter hari ini dan occupancy dari database
+     * Increment yang terjadi di antara query dan tulis bisa tertimpa; koreksi berikutnya menutupnya
+     */
+    @Scheduled(fixedDelayString = "${parking.realtime.reconcile-interval:300000}",
+            initialDelayString = "${parking.realtime.reconcile-interval:300000}")
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        DatabaseCounts counts;
+        try {
+            counts = countFromDatabase(today);
+        } catch (DataAccessException e) {
+            log.warn("Koreksi counter real-time dilewati, database tidak tersedia: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            redisTemplate.opsForHash().putAll(statsKey(today), new HashMap<>(counts.stats()));
+            redisTemplate.opsForHash().putAll(OCCUPANCY_KEY, new HashMap<>(counts.occupancy()));
+            log.debug("Counter real-time dikoreksi: {} field statistik, occupancy {}",
+                    counts.stats().size(), counts.occupancy().get(TOTAL));
+        } catch (DataAccessException e) {
+            log.warn("Koreksi counter real-time gagal ditulis ke Redis: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Counter hari ini langsung dari database dengan query yang sama dengan koreksi drift, sehingga fallback saat
+     * Redis tidak tersedia memakai definisi yang sama (pendapatan = parking_fee tiket yang check-out hari ini).
+     * Top up tidak ikut dihitung
+     */
+    public LiveCountersDto todayFromDatabase() {
+        LocalDate today = LocalDate.now();
+        DatabaseCounts counts = countFromDatabase(today);
+        return toDto(today, counts.stats(), counts.occupancy());
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private DatabaseCounts countFromDatabase(LocalDate date) {
+        LocalDateTime start = date.atStartOfDay();
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
+
+        Map<String, Long> stats = new HashMap<>();
+        Map<String, Long> occupancy = new HashMap<>();
+        jdbcTemplate.query(CHECK_INS_SQL, rs -> {
+            add(stats, checkIn(start, rs.getString(1), vehicleType(rs.getString(2))), rs.getLong(3));
+        }, start, end);
+        jdbcTemplate.query(CHECK_OUTS_SQL, rs -> {
+            List<Increment> increments = checkOut(start, rs.getString(1), vehicleType(rs.getString(2)),
+                    Money.of(rs.getBigDecimal(4)));
+            // Baris agregat: counter dikali jumlah tiket, pendapatan sudah berupa SUM
+            add(stats, increments.subList(0, 3), rs.getLong(3));
+            add(stats, increments.subList(3, 6), 1);
+        }, start, end);
+        occupancy.put(TOTAL, 0L);
+        for (ParkingTicket.VehicleType type : ParkingTicket.VehicleType.values()) {
+            occupancy.put(OCCUPANCY_TYPE + type.name(), 0L);
+        }
+        jdbcTemplate.query(OCCUPANCY_SQL, rs -> {
+            long count = rs.getLong(2);
+            occupancy.merge(TOTAL, count, Long::sum);
+            occupancy.merge(OCCUPANCY_TYPE + typeName(vehicleType(rs.getString(1))), count, Long::sum);
+        });
+        stats.putIfAbsent(CHECK_IN, 0L);
+        stats.putIfAbsent(CHECK_OUT, 0L);
+        stats.putIfAbsent(REVENUE, 0L);
+        return new DatabaseCounts(stats, occupancy);
+    }
+
+    /**
+     * Jumlahkan field hash statistik; increment occupancy dihitung terpisah dari tiket ACTIVE
+     */
+    private static void add(Map<String, Long> target, List<Increment> increments, long multiplier) {
+        for (Increment increment : increments) {
+            if (increment.key().equals(OCCUPANCY_KEY)) {
+                continue;
+            }
+            target.merge(increment.field(), increment.delta() * multiplier, Long::sum);
+        }
+    }
+
+    static LiveCountersDto toDto(LocalDate date, Map<String, Long> stats, Map<String, Long> occupancy) {
+        Map<String, LiveCountersDto.Breakdown> byGate = new HashMap<>();
+        Map<String, LiveCountersDto.Breakdown> byVehicleType = new HashMap<>();
+        stats.forEach((field, value) -> {
+            int gate = field.indexOf(GATE);
+            int type = field.indexOf(TYPE);
+            if (gate > 0) {
+                apply(byGate.computeIfAbsent(field.substring(gate + GATE.length()), k -> emptyBreakdown()),
+                        field.substring(0, gate), value);
+            } else if (type > 0) {
+                apply(byVehicleType.computeIfAbsent(field.substring(type + TYPE.length()), k -> emptyBreakdown()),
+                        field.substring(0, type), value);
+            }
+        });
+
+        Map<String, Long> occupancyByType = new HashMap<>();
+        occupancy.forEach((field, value) -> {
+            if (field.startsWith(OCCUPANCY_TYPE)) {
+                occupancyByType.put(field.substring(OCCUPANCY_TYPE.length()), value);
+            }
+        });
+
+        return LiveCountersDto.builder()
+                .date(date)
+                .vehiclesIn(stats.getOrDefault(CHECK_IN, 0L))
+                .vehiclesOut(stats.getOrDefault(CHECK_OUT, 0L))
+                .revenue(Money.ofMinor(stats.getOrDefault(REVENUE, 0L)))
+                .topUps(stats.getOrDefault(TOP_UP, 0L))
+                .topUpAmount(Money.ofMinor(stats.getOrDefault(TOP_UP_AMOUNT, 0L)))
+                .occupancy(Math.max(0, occupancy.getOrDefault(TOTAL, 0L)))
+                .occupancyByVehicleType(occupancyByType)
+                .byGate(byGate)
+                .byVehicleType(byVehicleType)
+                .build();
+    }
+
+    private static void apply(LiveCountersDto.Breakdown breakdown, String metric, long value) {
+        switch (metric) {
+            case CHECK_IN -> breakdown.setVehiclesIn(value);
+            case CHECK_OUT -> breakdown.setVehiclesOut(value);
+            case REVENUE -> breakdown.setRevenue(Money.ofMinor(value));
+            default -> { }
+        }
+    }
+
+    private static LiveCountersDto.Breakdown emptyBreakdown() {
+        return LiveCountersDto.Breakdown.builder().revenue(Money.ZERO).build();
+    }
+
+    private static Map<String, Long> asLongs(Object hash) {
+        Map<String, Long> values = new HashMap<>();
+        if (hash instanceof Map<?, ?> map) {
+            map.forEach((field, value) -> {
+                if (value instanceof Number number) {
+                    values.put(field.toString(), number.longValue());
+                }
+            });
+        }
+        return values;
+    }
+
+    private static String gateName(String gate) {
+        return gate != null ? gate : "";
+    }
+
+    private static String typeName(ParkingTicket.VehicleType vehicleType) {
+        return vehicleType != null ? vehicleType.name() : "";
+    }
+
+    private static ParkingTicket.VehicleType vehicleType(String name) {
+        return name == null || name.isEmpty() ? null : ParkingTicket.VehicleType.valueOf(name);
+    }
+
+    /**
+     * Satu HINCRBY pada hash counter
+     */
+    public record Increment(String key, String field, long delta) {
+    }
+
+    private record DatabaseCounts(Map<String, Long> stats, Map<String, Long> occupancy) {
+    }
+}
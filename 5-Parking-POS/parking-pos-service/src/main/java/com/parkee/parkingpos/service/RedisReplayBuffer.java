@@ -0,0 +1,170 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.config.RedisCircuitBreaker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Buffer perubahan Redis yang gagal saat Redis tidak tersedia (degraded mode)
+ * Increment statistik dijumlahkan di memory dan eviction cache dicatat,
+ * lalu di-replay setelah circuit breaker kembali CLOSED
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RedisReplayBuffer {
+
+    private static final int MAX_PENDING_EVICTIONS = 10_000;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    @Value("${parking.stats-ttl-days:30}")
+    private long statsTtlDays;
+
+    // stats key -> field -> delta
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, LongAdder>> statsIncrements = new ConcurrentHashMap<>();
+    // cache name -> key yang harus di-evict; key null berarti clear seluruh cache
+    private final ConcurrentHashMap<String, Set<Object>> pendingEvictions = new ConcurrentHashMap<>();
+    private final Set<String> pendingClears = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("redis.replay.pending", this, RedisReplayBuffer::pendingCount)
+                .description("Perubahan Redis yang menunggu di-replay")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Catat increment hash statistik yang gagal dikirim ke Redis
+     */
+    public void recordIncrement(String key, String field, long delta) {
+        statsIncrements.computeIfAbsent(key, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(field, f -> new LongAdder())
+                .add(delta);
+    }
+
+    /**
+     * Catat eviction cache yang gagal; jika terlalu banyak, seluruh cache di-clear saat replay
+     */
+    public void recordEviction(String cacheName, Object key) {
+        Set<Object> keys = pendingEvictions.computeIfAbsent(cacheName, name -> ConcurrentHashMap.newKeySet());
+        if (keys.size() >= MAX_PENDING_EVICTIONS) {
+            recordClear(cacheName);
+            return;
+        }
+        keys.add(key);
+    }
+
+    public void recordClear(String cacheName) {
+        pendingClears.add(cacheName);
+        pendingEvictions.remove(cacheName);
+    }
+
+    /**
+     * Replay buffer ke Redis; saat breaker OPEN percobaan ini langsung ditolak,
+     * setelah open-duration lewat replay sekaligus menjadi percobaan HALF_OPEN
+     */
+    @Scheduled(fixedDelayString = "${parking.redis-breaker.replay-interval:5000}")
+    public void replay() {
+        if (pendingCount() == 0) {
+            return;
+        }
+
+        try {
+            replayCacheInvalidations();
+            replayStats();
+        } catch (DataAccessException e) {
+            log.debug("Replay buffer Redis gagal (breaker {}), dicoba lagi: {}", circuitBreaker.getState(), e.getMessage());
+        }
+    }
+
+    public long pendingCount() {
+        long stats = statsIncrements.values().stream()
+                .flatMap(fields -> fields.values().stream())
+                .filter(adder -> adder.sum() != 0)
+                .count();
+        long evictions = pendingEvictions.values().stream().mapToLong(Set::size).sum();
+        return stats + evictions + pendingClears.size();
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void replayCacheInvalidations() {
+        // Hapus dari buffer sebelum dieksekusi: cache yang gagal akan mencatat ulang dirinya sendiri
+        for (String cacheName : Set.copyOf(pendingClears)) {
+            pendingClears.remove(cacheName);
+            Cache cache = cacheManager.getObject().getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+
+        for (Map.Entry<String, Set<Object>> entry : pendingEvictions.entrySet()) {
+            Cache cache = cacheManager.getObject().getCache(entry.getKey());
+            for (Object key : Set.copyOf(entry.getValue())) {
+                entry.getValue().remove(key);
+                if (cache != null) {
+                    cache.evict(key);
+                }
+            }
+        }
+    }
+
+    private void replayStats() {
+        // Ambil delta yang ada sekarang; increment baru selama replay tetap tertampung di buffer
+        Map<String, Map<String, Long>> snapshot = new HashMap<>();
+        statsIncrements.forEach((key, fields) -> fields.forEach((field, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                snapshot.computeIfAbsent(key, k -> new HashMap<>()).put(field, delta);
+            }
+        }));
+        if (snapshot.isEmpty()) {
+            return;
+        }
+
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    snapshot.forEach((key, fields) -> {
+                        fields.forEach((field, delta) -> ops.opsForHash().increment(key, field, delta));
+                        ops.expire(key, statsTtlDays, TimeUnit.DAYS);
+                    });
+                    return null;
+                }
+            });
+            log.info("Replay {} key statistik Redis selesai", snapshot.size());
+        } catch (DataAccessException e) {
+            // Kembalikan delta ke buffer agar tidak hilang
+            snapshot.forEach((key, fields) -> fields.forEach((field, delta) -> recordIncrement(key, field, delta)));
+            throw e;
+        }
+    }
+}
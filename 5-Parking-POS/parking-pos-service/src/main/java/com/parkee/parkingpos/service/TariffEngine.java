@@ -0,0 +1,131 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.config.ParkingProperties;
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
+import com.parkee.parkingpos.domain.value.Money;
+import com.parkee.parkingpos.dto.ParkingCalculationDto;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * Service untuk menghitung biaya parkir per jenis kendaraan
+ * Tarif dari parking.tariffs di-compile sekali saat startup; jenis kendaraan tanpa tarif
+ * memakai tarif global parking.rate-per-hour sepanjang hari
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TariffEngine {
+
+    private static final long MEMBER_DISCOUNT_PERCENT = 10;
+
+    private final ParkingProperties parkingProperties;
+
+    private final EnumMap<ParkingTicket.VehicleType, TariffTable> tables = new EnumMap<>(ParkingTicket.VehicleType.class);
+    private TariffTable defaultTable;
+
+    @PostConstruct
+    public void compile() {
+        defaultTable = TariffTable.compile(parkingProperties.getGracePeriodMinutes(), parkingProperties.getMaxParkingHours(), 0,
+                List.of(TariffTable.Band.of(LocalTime.MIDNIGHT, List.of(parkingProperties.getRatePerHour()), Money.SCALE)));
+
+        for (ParkingTicket.VehicleType type : ParkingTicket.VehicleType.values()) {
+            ParkingProperties.Tariff tariff = parkingProperties.getTariffs().get(type);
+            if (tariff == null || tariff.getBands().isEmpty()) {
+                tables.put(type, defaultTable);
+                continue;
+            }
+            try {
+                tables.put(type, TariffTable.compile(
+                        tariff.getGracePeriodMinutes() != null ? tariff.getGracePeriodMinutes() : parkingProperties.getGracePeriodMinutes(),
+                        tariff.getMaxParkingHours() != null ? tariff.getMaxParkingHours() : parkingProperties.getMaxParkingHours(),
+                        tariff.getDailyCap() != null ? Money.of(tariff.getDailyCap()).minor() : 0,
+                        tariff.getBands().stream()
+                                .map(band -> TariffTable.Band.of(band.getStart(), band.getHourlyRates(), Money.SCALE))
+                                .toList()));
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                throw new IllegalStateException("Konfigurasi parking.tariffs." + type + " tidak valid: " + e.getMessage(), e);
+            }
+        }
+        log.info("Tarif parkir di-compile untuk {} jenis kendaraan ({} tarif khusus)",
+                tables.size(), parkingProperties.getTariffs().size());
+    }
+
+    /**
+     * Tarif untuk jenis kendaraan; tiket lama tanpa vehicle type memakai tarif global
+     */
+    public TariffTable tariffFor(ParkingTicket.VehicleType type) {
+        return type != null ? tables.get(type) : defaultTable;
+    }
+
+    /**
+     * Biaya dasar sebelum diskon
+     */
+    public Money fee(ParkingTicket.VehicleType type, LocalDateTime checkInTime, long minutesParked) {
+        return Money.ofMinor(tariffFor(type).fee(checkInTime.getHour() * 60 + checkInTime.getMinute(), minutesParked));
+    }
+
+    /**
+     * Biaya tiket tanpa voucher: grace period, biaya dasar dan diskon member
+     * Murni perhitungan di memory, sehingga bisa dipakai check-out offline saat database tidak tersedia
+     */
+    public ParkingCalculationDto calculate(ParkingTicket ticket, LocalDateTime now) {
+        long minutesParked = ChronoUnit.MINUTES.between(ticket.getCheckInTime(), now);
+        TariffTable tariff = tariffFor(ticket.getVehicleType());
+
+        // Grace period check
+        if (tariff.isWithinGracePeriod(minutesParked)) {
+            return ParkingCalculationDto.builder()
+                    .ticketId(ticket.getId())
+                    .plateNumber(ticket.getPlateNumber())
+                    .checkInTime(ticket.getCheckInTime())
+                    .checkOutTime(now)
+                    .duration(formatDuration(minutesParked))
+                    .gracePeriod(true)
+                    .baseFee(Money.ZERO)
+                    .discount(Money.ZERO)
+                    .totalFee(Money.ZERO)
+                    .build();
+        }
+
+        Money baseFee = fee(ticket.getVehicleType(), ticket.getCheckInTime(), minutesParked);
+        Money discount = ticket.getMember() != null ? memberDiscount(baseFee) : Money.ZERO;
+
+        return ParkingCalculationDto.builder()
+                .ticketId(ticket.getId())
+                .plateNumber(ticket.getPlateNumber())
+                .checkInTime(ticket.getCheckInTime())
+                .checkOutTime(now)
+                .duration(formatDuration(minutesParked))
+                .hoursParked(tariff.billableHours(minutesParked))
+                .baseFee(baseFee)
+                .discount(discount)
+                .totalFee(baseFee.minus(discount).max(Money.ZERO))
+                .isMember(ticket.getMember() != null)
+                .build();
+    }
+
+    /**
+     * Diskon member dari biaya dasar
+     */
+    public Money memberDiscount(Money baseFee) {
+        return baseFee.ratio(MEMBER_DISCOUNT_PERCENT, 100);
+    }
+
+    /**
+     * Format duration untuk display
+     */
+    public static String formatDuration(long minutes) {
+        long hours = minutes / 60;
+        long mins = minutes % 60;
+        return String.format("%d jam %d menit", hours, mins);
+    }
+}
@@ -0,0 +1,128 @@
+package com.parkee.parkingpos.service;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tarif satu jenis kendaraan yang sudah di-compile menjadi lookup table
+ * cumulative[menit check-in dalam hari][jumlah jam 0..24] berisi total biaya (minor unit Money) sudah termasuk daily cap,
+ * sehingga quote hanya butuh dua lookup array tanpa alokasi
+ */
+public final class TariffTable {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int HOURS_PER_DAY = 24;
+
+    private final int gracePeriodMinutes;
+    private final int maxParkingHours;
+    private final long[][] cumulative;
+
+    private TariffTable(int gracePeriodMinutes, int maxParkingHours, long[][] cumulative) {
+        this.gracePeriodMinutes = gracePeriodMinutes;
+        this.maxParkingHours = maxParkingHours;
+        this.cumulative = cumulative;
+    }
+
+    /**
+     * Compile band tarif menjadi lookup table
+     *
+     * @param bands    band jam dengan rate progresif dalam minor unit
+     * @param dailyCap maksimal biaya per 24 jam (minor unit), 0 berarti tanpa cap
+     */
+    public static TariffTable compile(int gracePeriodMinutes, int maxParkingHours, long dailyCap, List<Band> bands) {
+        if (bands.isEmpty()) {
+            throw new IllegalArgumentException("Tarif harus punya minimal satu band");
+        }
+        if (gracePeriodMinutes < 0 || maxParkingHours <= 0 || dailyCap < 0) {
+            throw new IllegalArgumentException("Grace period, max parking hours dan daily cap tidak valid");
+        }
+
+        List<Band> sorted = bands.stream().sorted(Comparator.comparingInt(Band::startMinute)).toList();
+        for (int i = 0; i < sorted.size(); i++) {
+            Band band = sorted.get(i);
+            if (band.hourlyRates().length == 0) {
+                throw new IllegalArgumentException("Band " + band.startMinute() + " tidak punya rate");
+            }
+            for (long rate : band.hourlyRates()) {
+                if (rate < 0) {
+                    throw new IllegalArgumentException("Rate tidak boleh negatif: " + rate);
+                }
+            }
+            if (i > 0 && sorted.get(i - 1).startMinute() == band.startMinute()) {
+                throw new IllegalArgumentException("Dua band dimulai di menit yang sama: " + band.startMinute());
+            }
+        }
+
+        // Band yang berlaku di setiap menit; sebelum band pertama berlaku band terakhir (wrap tengah malam)
+        long[][] ratesByMinute = new long[MINUTES_PER_DAY][];
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            Band active = sorted.get(sorted.size() - 1);
+            for (Band band : sorted) {
+                if (band.startMinute() > minute) {
+                    break;
+                }
+                active = band;
+            }
+            ratesByMinute[minute] = active.hourlyRates();
+        }
+
+        long cap = dailyCap > 0 ? dailyCap : Long.MAX_VALUE;
+        long[][] cumulative = new long[MINUTES_PER_DAY][HOURS_PER_DAY + 1];
+        for (int start = 0; start < MINUTES_PER_DAY; start++) {
+            long[] row = cumulative[start];
+            for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+                // Jam ke-n diberi harga sesuai band pada menit awal jam tersebut
+                long[] rates = ratesByMinute[(start + hour * 60) % MINUTES_PER_DAY];
+                long rate = rates[Math.min(hour, rates.length - 1)];
+                row[hour + 1] = Math.min(cap, row[hour] + rate);
+            }
+        }
+        return new TariffTable(gracePeriodMinutes, maxParkingHours, cumulative);
+    }
+
+    public boolean isWithinGracePeriod(long minutesParked) {
+        return minutesParked <= gracePeriodMinutes;
+    }
+
+    /**
+     * Jumlah jam yang ditagih: dibulatkan ke atas, maksimal maxParkingHours
+     */
+    public long billableHours(long minutesParked) {
+        return Math.min((minutesParked + 59) / 60, maxParkingHours);
+    }
+
+    /**
+     * Biaya dasar dalam minor unit; setiap 24 jam penuh dihitung sebagai satu hari dengan cap sendiri
+     */
+    public long fee(int checkInMinuteOfDay, long minutesParked) {
+        if (isWithinGracePeriod(minutesParked)) {
+            return 0;
+        }
+        long hours = billableHours(minutesParked);
+        long[] row = cumulative[checkInMinuteOfDay];
+        return hours / HOURS_PER_DAY * row[HOURS_PER_DAY] + row[(int) (hours % HOURS_PER_DAY)];
+    }
+
+    public int getGracePeriodMinutes() {
+        return gracePeriodMinutes;
+    }
+
+    public int getMaxParkingHours() {
+        return maxParkingHours;
+    }
+
+    /**
+     * Band tarif yang sudah dikonversi ke minor unit
+     */
+    public record Band(int startMinute, long[] hourlyRates) {
+
+        public static Band of(LocalTime start, List<BigDecimal> hourlyRates, int fractionDigits) {
+            long[] rates = hourlyRates.stream()
+                    .mapToLong(rate -> rate.movePointRight(fractionDigits).longValueExact())
+                    .toArray();
+            return new Band(start.getHour() * 60 + start.getMinute(), rates);
+        }
+    }
+}
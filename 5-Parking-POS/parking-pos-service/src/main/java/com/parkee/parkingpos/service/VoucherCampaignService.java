@@ -0,0 +1,259 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.entity.Voucher;
+import com.parkee.parkingpos.dto.VoucherCampaignRequestDto;
+import com.parkee.parkingpos.dto.VoucherCampaignStatusDto;
+import com.parkee.parkingpos.exception.ResourceNotFoundException;
+import com.parkee.parkingpos.util.BloomFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.security.SecureRandom;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service untuk kampanye voucher massal (ratusan ribu kode sekali pakai)
+ * Kode dibangkitkan dari pola, keunikan dicek di memory dengan Bloom filter berisi kode yang sudah ada,
+ * lalu dimuat per chunk dengan satu INSERT ... SELECT unnest(...) ON CONFLICT DO NOTHING RETURNING code;
+ * kode yang ternyata bentrok dibangkitkan ulang pada chunk berikutnya
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VoucherCampaignService {
+
+    private static final char RANDOM_SLOT = '#';
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
+    // Ruang kode minimal sekian kali jumlah yang diminta agar pembangkitan acak tidak melambat
+    private static final int MIN_CODE_SPACE_FACTOR = 20;
+    private static final double BLOOM_FPP = 0.001;
+    private static final Duration STATUS_RETENTION = Duration.ofHours(24);
+
+    private static final String COUNT_EXISTING_SQL = "SELECT count(*) FROM vouchers WHERE code LIKE ?";
+    private static final String SELECT_EXISTING_SQL = "SELECT code FROM vouchers WHERE code LIKE ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO vouchers (code, description, discount_type, discount_value, minimum_amount, " +
+            "valid_from, valid_until, active, usage_limit, usage_count, usage_leased, created_at) " +
+            "SELECT c, ?::varchar, ?::varchar, ?::numeric, ?::numeric, ?::timestamp, ?::timestamp, true, ?::integer, " +
+            "0, 0, CURRENT_TIMESTAMP FROM unnest(?::varchar[]) AS c " +
+            "ON CONFLICT (code) DO NOTHING RETURNING code";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final VoucherRuleTable voucherRuleTable;
+
+    @Value("${parking.voucher-campaign.chunk-size:5000}")
+    private int chunkSize;
+
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentHashMap<String, Job> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Validasi request lalu jalankan kampanye di background
+     */
+    public VoucherCampaignStatusDto start(VoucherCampaignRequestDto request) {
+        String pattern = request.getCodePattern();
+        int randomSlots = (int) pattern.chars().filter(c -> c == RANDOM_SLOT).count();
+        if (randomSlots == 0) {
+            throw new IllegalArgumentException("Pola kode harus memiliki minimal satu karakter #");
+        }
+        if (Math.pow(ALPHABET.length, randomSlots) < (double) request.getQuantity() * MIN_CODE_SPACE_FACTOR) {
+            throw new IllegalArgumentException("Pola kode " + pattern + " terlalu sempit untuk "
+                    + request.getQuantity() + " voucher, tambahkan karakter #");
+        }
+        if (request.getValidFrom().isAfter(request.getValidUntil())) {
+            throw new IllegalArgumentException("Tanggal mulai tidak boleh setelah tanggal berakhir");
+        }
+        if (request.getDiscountType() == Voucher.DiscountType.PERCENTAGE &&
+                request.getDiscountValue().compareTo(BigDecimal.valueOf(100)) > 0) {
+            throw new IllegalArgumentException("Persentase diskon tidak boleh lebih dari 100%");
+        }
+
+        pruneFinishedJobs();
+        Job job = new Job(UUID.randomUUID().toString(), pattern, request.getQuantity());
+        jobs.put(job.id, job);
+
+        Thread.ofVirtual().name("voucher-campaign-" + job.id).start(() -> run(job, request));
+        log.info("Kampanye voucher {} dimulai: {} kode dengan pola {}", job.id, request.getQuantity(), pattern);
+        return job.toDto();
+    }
+
+    public VoucherCampaignStatusDto getStatus(String campaignId) {
+        Job job = jobs.get(campaignId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Kampanye voucher tidak ditemukan: " + campaignId);
+        }
+        return job.toDto();
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void run(Job job, VoucherCampaignRequestDto request) {
+        try {
+            String likePattern = job.pattern.replace(RANDOM_SLOT, '_');
+            BloomFilter taken = loadExistingCodes(likePattern, request.getQuantity());
+            Set<String> pending = new HashSet<>();
+
+            while (job.inserted.get() < job.requested) {
+                int wanted = Math.min(chunkSize, job.requested - job.inserted.get());
+                List<String> chunk = new ArrayList<>(wanted);
+                while (chunk.size() < wanted) {
+                    String code = generate(job.pattern);
+                    // Bloom positif (mungkin sudah ada) atau duplikat di kampanye ini: bangkitkan ulang
+                    if (taken.mightContain(code) || !pending.add(code)) {
+                        job.collisions.incrementAndGet();
+                        continue;
+                    }
+                    chunk.add(code);
+                }
+
+                List<String> inserted = insertChunk(chunk, request);
+                // Kode yang bentrok juga sudah ada di database, jadi seluruh chunk masuk filter
+                chunk.forEach(taken::put);
+                pending.clear();
+                job.inserted.addAndGet(inserted.size());
+                job.collisions.addAndGet(chunk.size() - inserted.size());
+                log.debug("Kampanye {}: {}/{} voucher", job.id, job.inserted.get(), job.requested);
+            }
+
+            job.finish("COMPLETED", null);
+            log.info("Kampanye voucher {} selesai: {} kode dalam {} ms", job.id, job.inserted.get(),
+                    Duration.between(job.startedAt, job.finishedAt).toMillis());
+        } catch (RuntimeException e) {
+            job.finish("FAILED", e.getMessage());
+            log.error("Kampanye voucher {} gagal setelah {} kode: {}", job.id, job.inserted.get(), e.getMessage(), e);
+        } finally {
+            // Voucher yang sudah masuk tetap dipakai, termasuk saat kampanye gagal di tengah jalan
+            if (job.inserted.get() > 0) {
+                voucherRuleTable.reloadAfterCommit();
+            }
+        }
+    }
+
+    /**
+     * Bloom filter dari kode yang sudah ada dengan bentuk yang sama dengan pola
+     */
+    private BloomFilter loadExistingCodes(String likePattern, int quantity) {
+        Long existing = jdbcTemplate.queryForObject(COUNT_EXISTING_SQL, Long.class, likePattern);
+        long expected = (existing != null ? existing : 0) + quantity;
+        BloomFilter filter = BloomFilter.create(expected, BLOOM_FPP);
+
+        // Fetch size hanya berlaku di dalam transaksi (cursor PostgreSQL), sehingga kode di-stream per chunk
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_EXISTING_SQL);
+            statement.setFetchSize(chunkSize);
+            statement.setString(1, likePattern);
+            return statement;
+        }, (ResultSet rs) -> {
+            filter.put(rs.getString(1));
+        }));
+        return filter;
+    }
+
+    private List<String> insertChunk(List<String> codes, VoucherCampaignRequestDto request) {
+        return jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            Array array = connection.createArrayOf("varchar", codes.toArray());
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                statement.setString(1, request.getDescription());
+                statement.setString(2, request.getDiscountType().name());
+                statement.setBigDecimal(3, request.getDiscountValue());
+                statement.setBigDecimal(4, request.getMinimumAmount() != null
+                        ? request.getMinimumAmount() : BigDecimal.ZERO);
+                statement.setTimestamp(5, Timestamp.valueOf(request.getValidFrom()));
+                statement.setTimestamp(6, Timestamp.valueOf(request.getValidUntil()));
+                statement.setObject(7, request.getUsageLimit());
+                statement.setArray(8, array);
+
+                List<String> inserted = new ArrayList<>(codes.size());
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        inserted.add(rs.getString(1));
+                    }
+                }
+                return inserted;
+            } finally {
+                array.free();
+            }
+        });
+    }
+
+    private String generate(String pattern) {
+        char[] code = pattern.toCharArray();
+        for (int i = 0; i < code.length; i++) {
+            if (code[i] == RANDOM_SLOT) {
+                code[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+            }
+        }
+        return new String(code);
+    }
+
+    private void pruneFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(STATUS_RETENTION);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    /**
+     * Progress satu kampanye; dibaca endpoint status selama job berjalan
+     */
+    private static final class Job {
+
+        private final String id;
+        private final String pattern;
+        private final int requested;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicInteger inserted = new AtomicInteger();
+        private final AtomicInteger collisions = new AtomicInteger();
+        private volatile String status = "RUNNING";
+        private volatile LocalDateTime finishedAt;
+        private volatile String message;
+
+        Job(String id, String pattern, int requested) {
+            this.id = id;
+            this.pattern = pattern;
+            this.requested = requested;
+        }
+
+        void finish(String status, String message) {
+            this.message = message;
+            this.finishedAt = LocalDateTime.now();
+            this.status = status;
+        }
+
+        VoucherCampaignStatusDto toDto() {
+            int done = inserted.get();
+            return VoucherCampaignStatusDto.builder()
+                    .campaignId(id)
+                    .status(status)
+                    .codePattern(pattern)
+                    .requested(requested)
+                    .inserted(done)
+                    .collisions(collisions.get())
+                    .progressPercent(Math.round(done * 1000.0 / requested) / 10.0)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .message(message)
+                    .build();
+        }
+    }
+}
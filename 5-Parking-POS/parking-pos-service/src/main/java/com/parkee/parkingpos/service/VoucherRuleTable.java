@@ -0,0 +1,246 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.entity.Voucher;
+import com.parkee.parkingpos.domain.repository.VoucherRepository;
+import com.parkee.parkingpos.domain.value.Money;
+import com.parkee.parkingpos.util.HierarchicalTimingWheel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tabel aturan voucher immutable di memory untuk jalur kalkulasi biaya
+ * Snapshot diganti atomik saat voucher dibuat/diterminasi (disiarkan ke node lain lewat Redis pub/sub)
+ * dan saat masa berlaku voucher dimulai atau berakhir (timer DeadlineScheduler per waktu batas yang berbeda);
+ * lookup tidak pernah keluar dari JVM
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VoucherRuleTable implements MessageListener {
+
+    static final String CHANNEL = "voucher_rules:changed";
+
+    private final VoucherRepository voucherRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final DeadlineScheduler deadlineScheduler;
+    private final CacheManager cacheManager;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+    // Satu timer per waktu batas, bukan per voucher: kampanye massal berbagi validFrom/validUntil yang sama
+    private final Map<LocalDateTime, HierarchicalTimingWheel.Timer<Runnable>> boundaryTimers = new HashMap<>();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        reload();
+    }
+
+    /**
+     * Voucher yang berlaku saat ini berdasarkan kode
+     */
+    public Optional<Rule> find(String code) {
+        Rule rule = snapshot.get().valid().get(code);
+        // Cek ulang jendela waktu: timer batas berikutnya bisa terlambat satu tick
+        return rule != null && rule.isOpen(LocalDateTime.now()) ? Optional.of(rule) : Optional.empty();
+    }
+
+    public int size() {
+        return snapshot.get().valid().size();
+    }
+
+    /**
+     * Muat ulang dari database setelah transaksi commit dan siarkan ke node lain
+     */
+    public void reloadAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reloadAndBroadcast();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reloadAndBroadcast();
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        log.debug("Perubahan voucher diterima dari node lain, snapshot dimuat ulang");
+        reload();
+    }
+
+    /**
+     * Muat ulang periodik sebagai jaring pengaman jika siaran pub/sub terlewat (mis. Redis sempat down)
+     * Query dijalankan di bawah reloadLock: reload yang saling mendahului (after-commit, pub/sub, periodik)
+     * dipasang sesuai urutan baca, sehingga snapshot lama tidak pernah menimpa snapshot yang lebih baru
+     */
+    @Scheduled(fixedDelayString = "${parking.voucher-rules.refresh-interval:300000}",
+            initialDelayString = "${parking.voucher-rules.refresh-interval:300000}")
+    public void reload() {
+        reloadLock.lock();
+        try {
+            List<Voucher> vouchers;
+            try {
+                vouchers = voucherRepository.findByActiveTrueAndValidUntilAfter(LocalDateTime.now());
+            } catch (DataAccessException e) {
+                log.warn("Snapshot voucher tidak bisa dimuat, snapshot lama tetap dipakai: {}", e.getMessage());
+                return;
+            }
+
+            List<Rule> rules = vouchers.stream().map(Rule::of).toList();
+            LocalDateTime now = LocalDateTime.now();
+            Snapshot next = Snapshot.of(rules, now);
+
+            snapshot.set(next);
+            boundaryTimers.values().forEach(HierarchicalTimingWheel.Timer::cancel);
+            boundaryTimers.clear();
+            next.boundaries(now).forEach((boundary, closes) -> boundaryTimers.put(boundary,
+                    deadlineScheduler.schedule(boundary, () -> onBoundary(boundary, closes))));
+            log.info("Snapshot voucher dimuat: {} berlaku, {} terjadwal, {} timer batas",
+                    next.valid().size(), next.rules().size(), boundaryTimers.size());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Jendela berlaku voucher dibuka/ditutup: ganti snapshot dari memory, nonaktifkan voucher yang berakhir,
+     * dan buang cache daftar voucher yang memuat flag isValid
+     */
+    private void onBoundary(LocalDateTime boundary, boolean closes) {
+        LocalDateTime now = LocalDateTime.now();
+        reloadLock.lock();
+        try {
+            boundaryTimers.remove(boundary);
+            snapshot.updateAndGet(current -> Snapshot.of(current.rules(), now));
+        } finally {
+            reloadLock.unlock();
+        }
+
+        if (closes) {
+            try {
+                int deactivated = voucherRepository.deactivateExpired(now);
+                log.info("{} voucher berakhir pada {} dinonaktifkan", deactivated, boundary);
+            } catch (DataAccessException e) {
+                // Snapshot sudah menolak voucher ini; baris database diperbaiki pada batas berikutnya
+                log.warn("Voucher yang berakhir pada {} gagal dinonaktifkan: {}", boundary, e.getMessage());
+            }
+        }
+
+        for (String cacheName : List.of("active_vouchers", "voucher_by_code")) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private void reloadAndBroadcast() {
+        reload();
+        try {
+            redisTemplate.convertAndSend(CHANNEL, LocalDateTime.now().toString());
+        } catch (DataAccessException e) {
+            log.warn("Siaran perubahan voucher gagal, node lain menunggu refresh periodik: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Aturan satu voucher; diskon persen disimpan dalam basis poin
+     */
+    public record Rule(String code, Voucher.DiscountType discountType, long basisPoints, Money fixedAmount,
+                       Money minimumAmount, LocalDateTime validFrom, LocalDateTime validUntil, boolean limited) {
+
+        static Rule of(Voucher voucher) {
+            boolean percentage = voucher.getDiscountType() == Voucher.DiscountType.PERCENTAGE;
+            return new Rule(
+                    voucher.getCode(),
+                    voucher.getDiscountType(),
+                    percentage ? voucher.getDiscountValue().movePointRight(2).longValue() : 0,
+                    percentage ? Money.ZERO : Money.of(voucher.getDiscountValue()),
+                    voucher.getMinimumAmount() != null ? Money.of(voucher.getMinimumAmount()) : Money.ZERO,
+                    voucher.getValidFrom(),
+                    voucher.getValidUntil(),
+                    voucher.getUsageLimit() != null);
+        }
+
+        public boolean isOpen(LocalDateTime now) {
+            return now.isAfter(validFrom) && now.isBefore(validUntil);
+        }
+
+        public boolean accepts(Money amount) {
+            return amount.isGreaterThanOrEqual(minimumAmount);
+        }
+
+        public Money discount(Money baseFee) {
+            if (discountType == Voucher.DiscountType.PERCENTAGE) {
+                return baseFee.ratio(basisPoints, 10_000);
+            }
+            return fixedAmount.min(baseFee);
+        }
+    }
+
+    /**
+     * rules berisi semua voucher aktif yang belum berakhir; valid hanya yang jendelanya sedang terbuka
+     */
+    record Snapshot(List<Rule> rules, Map<String, Rule> valid) {
+
+        static final Snapshot EMPTY = new Snapshot(List.of(), Map.of());
+
+        static Snapshot of(List<Rule> rules, LocalDateTime now) {
+            Map<String, Rule> valid = new HashMap<>();
+            for (Rule rule : rules) {
+                if (rule.isOpen(now)) {
+                    valid.put(rule.code(), rule);
+                }
+            }
+            List<Rule> pending = rules.stream().filter(rule -> rule.validUntil().isAfter(now)).toList();
+            return new Snapshot(pending, Map.copyOf(valid));
+        }
+
+        /**
+         * Waktu batas yang belum lewat; nilai true jika ada voucher yang berakhir pada waktu tersebut
+         */
+        SortedMap<LocalDateTime, Boolean> boundaries(LocalDateTime now) {
+            SortedMap<LocalDateTime, Boolean> boundaries = new TreeMap<>();
+            for (Rule rule : rules) {
+                if (rule.validFrom().isAfter(now)) {
+                    boundaries.putIfAbsent(rule.validFrom(), false);
+                }
+                if (rule.validUntil().isAfter(now)) {
+                    boundaries.put(rule.validUntil(), true);
+                }
+            }
+            return boundaries;
+        }
+    }
+}
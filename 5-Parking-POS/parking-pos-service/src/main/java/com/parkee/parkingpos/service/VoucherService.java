@@ -29,6 +29,7 @@ import java.util.List;
 public class VoucherService {
 
     private final VoucherRepository voucherRepository;
+    private final VoucherRuleTable voucherRuleTable;
 
     /**
      * Create voucher baru
@@ -67,6 +68,7 @@ public class VoucherService {
                 .build();
 
         Voucher savedVoucher = voucherRepository.save(voucher);
+        voucherRuleTable.reloadAfterCommit();
         log.info("Voucher {} berhasil dibuat", savedVoucher.getCode());
 
         return mapToResponseDto(savedVoucher);
@@ -135,6 +137,7 @@ public class VoucherService {
         voucher.setTerminatedAt(LocalDateTime.now());
 
         Voucher updatedVoucher = voucherRepository.save(voucher);
+        voucherRuleTable.reloadAfterCommit();
         log.info("Voucher {} berhasil diterminasi", voucher.getCode());
 
         return mapToResponseDto(updatedVoucher);
@@ -0,0 +1,330 @@
+package com.parkee.parkingpos.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ledger pemakaian voucher di memory
+ * Kuota voucher ber-limit di-lease per blok dari database (kolom usage_leased), sehingga row voucher
+ * hanya dikunci sekali per blok; reservasi diambil dengan CAS dari sisa lease node ini.
+ * Reservasi dibuat di dalam check-out (bukan saat kalkulasi/quote), di-commit setelah check-out commit dan
+ * dikembalikan jika rollback atau kadaluarsa. Pemakaian yang sudah commit di-flush ke vouchers.usage_count
+ * secara periodik dalam batch.
+ * Lease sering terjadi di dalam transaksi check-out yang sudah memegang connection, sehingga lease memakai
+ * pool kecil sendiri (di luar pool utama dan limiter) agar check-out yang bersamaan tidak saling menunggu.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VoucherUsageLedger {
+
+    // Ambil blok kuota dengan row lock singkat; hasil adalah jumlah yang benar-benar diberikan.
+    // Satu statement auto-commit: rollback check-out tidak membatalkan kuota yang sudah dipegang node
+    private static final String LEASE_SQL =
+            "UPDATE vouchers v SET usage_leased = LEAST(v.usage_limit, v.usage_leased + ?) " +
+            "FROM (SELECT id, usage_leased AS previous FROM vouchers WHERE code = ? FOR UPDATE) old " +
+            "WHERE v.id = old.id AND v.usage_leased < v.usage_limit " +
+            "RETURNING v.usage_leased - old.previous";
+
+    private static final String RETURN_LEASE_SQL =
+            "UPDATE vouchers SET usage_leased = GREATEST(COALESCE(usage_count, 0), usage_leased - ?) WHERE code = ?";
+
+    private static final String FLUSH_SQL =
+            "UPDATE vouchers SET usage_count = COALESCE(usage_count, 0) + ? WHERE code = ?";
+
+    // Setelah kuota habis, database baru dicek ulang (lease yang dikembalikan node lain) setelah jeda ini
+    private static final long EXHAUSTED_RECHECK_MILLIS = 10_000;
+
+    // Reservasi hanya hidup selama check-out; yang tertinggal karena exception dilepas sweeper
+    private static final long RESERVATION_TTL_SECONDS = 60;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${parking.voucher-ledger.lease-block:20}")
+    private int leaseBlock = 20;
+
+    @Value("${parking.voucher-ledger.lease-pool-size:2}")
+    private int leasePoolSize = 2;
+
+    @Value("${spring.datasource.hikari.connection-timeout:5000}")
+    private long leaseConnectionTimeout = 5000;
+
+    private final ConcurrentHashMap<String, Slot> slots = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Reservation> reservations = new ConcurrentHashMap<>();
+
+    private HikariDataSource leasePool;
+    private JdbcTemplate leaseJdbcTemplate;
+
+    @PostConstruct
+    public void init() {
+        // Pool dibuat lazy oleh Hikari: connection baru dibuka saat lease pertama
+        leasePool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        leasePool.setPoolName("voucher-lease");
+        leasePool.setMaximumPoolSize(leasePoolSize);
+        leasePool.setMinimumIdle(0);
+        leasePool.setConnectionTimeout(leaseConnectionTimeout);
+        leaseJdbcTemplate = new JdbcTemplate(leasePool);
+
+        Gauge.builder("voucher.ledger.reserved", reservations, Map::size)
+                .description("Reservasi voucher yang belum di-commit")
+                .register(meterRegistry);
+        Gauge.builder("voucher.ledger.unflushed", this, VoucherUsageLedger::unflushedCount)
+                .description("Pemakaian voucher yang belum di-flush ke database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reservasi satu pemakaian voucher; voucher tanpa usageLimit tidak perlu lease
+     * Kosong jika kuota voucher sudah habis
+     */
+    public Optional<String> reserve(String voucherCode, boolean limited) {
+        Slot slot = slots.computeIfAbsent(voucherCode, code -> new Slot(code, limited));
+        if (!slot.take()) {
+            return Optional.empty();
+        }
+
+        String reservationId = UUID.randomUUID().toString();
+        long expiresAt = System.currentTimeMillis() + RESERVATION_TTL_SECONDS * 1000;
+        reservations.put(reservationId, new Reservation(voucherCode, expiresAt));
+        return Optional.of(reservationId);
+    }
+
+    /**
+     * Tahan reservasi dari sweeper kadaluarsa; false jika reservasi tidak dipegang node ini
+     */
+    private boolean pin(String reservationId) {
+        if (reservationId == null) {
+            return false;
+        }
+        return reservations.computeIfPresent(reservationId,
+                (id, reservation) -> new Reservation(reservation.voucherCode(), Long.MAX_VALUE)) != null;
+    }
+
+    /**
+     * Commit reservasi setelah transaksi aktif commit, kembalikan ke kuota jika rollback
+     */
+    public void commitAfterCompletion(String reservationId) {
+        if (reservationId == null) {
+            return;
+        }
+        pin(reservationId);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commit(reservationId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    commit(reservationId);
+                } else {
+                    release(reservationId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Tandai reservasi sebagai pemakaian; di-flush ke database pada jadwal berikutnya
+     */
+    public boolean commit(String reservationId) {
+        Reservation reservation = reservationId != null ? reservations.remove(reservationId) : null;
+        if (reservation == null) {
+            return false;
+        }
+        slots.get(reservation.voucherCode()).committed.increment();
+        return true;
+    }
+
+    /**
+     * Kembalikan reservasi ke sisa lease node ini
+     */
+    public boolean release(String reservationId) {
+        Reservation reservation = reservationId != null ? reservations.remove(reservationId) : null;
+        if (reservation == null) {
+            return false;
+        }
+        slots.get(reservation.voucherCode()).giveBack();
+        return true;
+    }
+
+    /**
+     * Lepas reservasi yang tidak pernah di-commit atau dikembalikan oleh check-out
+     */
+    @Scheduled(fixedDelayString = "${parking.voucher-ledger.sweep-interval:30000}")
+    public void releaseExpired() {
+        long now = System.currentTimeMillis();
+        reservations.forEach((id, reservation) -> {
+            // remove(id, value) gagal jika reservasi sudah di-pin check-out sejak snapshot ini dibaca
+            if (reservation.expiresAt() < now && reservations.remove(id, reservation)) {
+                slots.get(reservation.voucherCode()).giveBack();
+                log.debug("Reservasi voucher {} kadaluarsa, kuota dikembalikan", reservation.voucherCode());
+            }
+        });
+    }
+
+    /**
+     * Flush pemakaian yang sudah commit ke vouchers.usage_count dalam satu batch
+     */
+    @Scheduled(fixedDelayString = "${parking.voucher-ledger.flush-interval:5000}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        slots.forEach((code, slot) -> {
+            long delta = slot.committed.sumThenReset();
+            if (delta > 0) {
+                batch.add(new Object[]{delta, code});
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            log.debug("Flush pemakaian {} voucher ke database", batch.size());
+        } catch (DataAccessException e) {
+            // Kembalikan delta agar ikut flush berikutnya
+            batch.forEach(row -> slots.get((String) row[1]).committed.add((Long) row[0]));
+            log.warn("Flush pemakaian voucher gagal, dicoba lagi: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Flush pemakaian terakhir dan kembalikan sisa lease agar bisa dipakai node lain
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+
+        List<Object[]> unused = new ArrayList<>();
+        slots.forEach((code, slot) -> {
+            long remaining = slot.available.getAndSet(0);
+            if (remaining > 0) {
+                unused.add(new Object[]{remaining, code});
+            }
+        });
+        try {
+            if (!unused.isEmpty()) {
+                jdbcTemplate.batchUpdate(RETURN_LEASE_SQL, unused);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Sisa lease voucher tidak bisa dikembalikan: {}", e.getMessage());
+        } finally {
+            leasePool.close();
+        }
+    }
+
+    public long unflushedCount() {
+        return slots.values().stream().mapToLong(slot -> slot.committed.sum()).sum();
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private long lease(String voucherCode) {
+        try {
+            List<Long> granted = leaseJdbcTemplate.queryForList(LEASE_SQL, Long.class, leaseBlock, voucherCode);
+            return granted == null || granted.isEmpty() ? 0 : granted.get(0);
+        } catch (DataAccessException e) {
+            log.warn("Lease kuota voucher {} gagal: {}", voucherCode, e.getMessage());
+            return 0;
+        }
+    }
+
+    private record Reservation(String voucherCode, long expiresAt) {
+    }
+
+    /**
+     * State per voucher; available adalah sisa lease node ini yang belum direservasi
+     */
+    private final class Slot {
+
+        private final String voucherCode;
+        private final boolean limited;
+        private final AtomicLong available = new AtomicLong();
+        private final LongAdder committed = new LongAdder();
+        private final ReentrantLock leaseLock = new ReentrantLock();
+        private volatile long exhaustedUntil;
+
+        Slot(String voucherCode, boolean limited) {
+            this.voucherCode = voucherCode;
+            this.limited = limited;
+        }
+
+        boolean take() {
+            if (!limited) {
+                return true;
+            }
+            while (true) {
+                if (tryDecrement()) {
+                    return true;
+                }
+                if (System.currentTimeMillis() < exhaustedUntil) {
+                    return false;
+                }
+                // Hanya satu thread per voucher yang me-lease blok baru; thread lain menunggu hasilnya
+                // (ReentrantLock, bukan synchronized, agar virtual thread tidak pinned selama query)
+                leaseLock.lock();
+                try {
+                    if (available.get() > 0) {
+                        continue;
+                    }
+                    if (System.currentTimeMillis() < exhaustedUntil) {
+                        return false;
+                    }
+                    long granted = lease(voucherCode);
+                    if (granted <= 0) {
+                        exhaustedUntil = System.currentTimeMillis() + EXHAUSTED_RECHECK_MILLIS;
+                        return false;
+                    }
+                    available.addAndGet(granted);
+                } finally {
+                    leaseLock.unlock();
+                }
+            }
+        }
+
+        void giveBack() {
+            if (limited) {
+                available.incrementAndGet();
+            }
+        }
+
+        private boolean tryDecrement() {
+            long current;
+            do {
+                current = available.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!available.compareAndSet(current, current - 1));
+            return true;
+        }
+    }
+}
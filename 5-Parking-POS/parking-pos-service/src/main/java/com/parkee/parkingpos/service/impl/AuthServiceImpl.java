@@ -7,6 +7,7 @@ import com.parkee.parkingpos.service.AuthService;
 import com.parkee.parkingpos.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
@@ -44,7 +45,12 @@ public class AuthServiceImpl implements AuthService {
 
         // Store refresh token in Redis
         String refreshTokenKey = "refresh_token:" + user.getId();
-        redisTemplate.opsForValue().set(refreshTokenKey, refreshToken, 24, TimeUnit.HOURS);
+        try {
+            redisTemplate.opsForValue().set(refreshTokenKey, refreshToken, 24, TimeUnit.HOURS);
+        } catch (DataAccessException e) {
+            // Login tetap jalan; refresh token baru bisa dipakai setelah Redis pulih dan user login ulang
+            log.warn("Refresh token untuk {} tidak tersimpan, Redis tidak tersedia: {}", user.getEmail(), e.getMessage());
+        }
 
         // Build response
         LoginResponseDto response = LoginResponseDto.builder()
@@ -82,7 +88,14 @@ public class AuthServiceImpl implements AuthService {
 
         // Verify refresh token exists in Redis
         String refreshTokenKey = "refresh_token:" + userId;
-        String storedRefreshToken = redisTemplate.opsForValue().get(refreshTokenKey);
+        String storedRefreshToken;
+        try {
+            storedRefreshToken = redisTemplate.opsForValue().get(refreshTokenKey);
+        } catch (DataAccessException e) {
+            // Fail closed: refresh token tidak bisa diverifikasi
+            log.warn("Refresh token tidak bisa diverifikasi, Redis tidak tersedia: {}", e.getMessage());
+            throw new AuthenticationException("Layanan token sedang tidak tersedia, silakan coba lagi");
+        }
 
         if (storedRefreshToken == null || !storedRefreshToken.equals(refreshToken)) {
             throw new AuthenticationException("Refresh token tidak ditemukan atau sudah di-logout");
@@ -127,14 +140,18 @@ public class AuthServiceImpl implements AuthService {
         // Blacklist access token
         String blacklistKey = "blacklist:" + jwtId;
         long ttl = Math.max(jwtUtil.getExpirationTimeInSeconds(accessToken), 0);
-        redisTemplate.opsForValue().set(blacklistKey, "true", ttl, TimeUnit.SECONDS);
-        invalidatedTokens++;
-
-        // Remove refresh token
         String refreshTokenKey = "refresh_token:" + userId;
-        Boolean deleted = redisTemplate.delete(refreshTokenKey);
-        if (Boolean.TRUE.equals(deleted)) {
+        try {
+            redisTemplate.opsForValue().set(blacklistKey, "true", ttl, TimeUnit.SECONDS);
             invalidatedTokens++;
+
+            // Remove refresh token
+            Boolean deleted = redisTemplate.delete(refreshTokenKey);
+            if (Boolean.TRUE.equals(deleted)) {
+                invalidatedTokens++;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Token user {} tidak bisa di-blacklist, Redis tidak tersedia: {}", email, e.getMessage());
         }
 
         // Blacklist refresh token if provided
@@ -169,7 +186,15 @@ public class AuthServiceImpl implements AuthService {
 
         // Check blacklist
         String blacklistKey = "blacklist:" + jwtId;
-        if (Boolean.TRUE.equals(redisTemplate.hasKey(blacklistKey))) {
+        boolean blacklisted;
+        try {
+            blacklisted = Boolean.TRUE.equals(redisTemplate.hasKey(blacklistKey));
+        } catch (DataAccessException e) {
+            // Fail open: signature dan expiry JWT sudah tervalidasi, hanya cek logout yang dilewati
+            log.warn("Blacklist token tidak bisa dicek, Redis tidak tersedia: {}", e.getMessage());
+            blacklisted = false;
+        }
+        if (blacklisted) {
             throw new AuthenticationException("Token telah di-logout");
         }
 
@@ -33,6 +33,9 @@ public class FileUploadUtil {
     @Value("${file-upload.max-file-size:10485760}") // 10MB default
     private long maxFileSize;
 
+    @Value("${file-upload.temp-directory:${java.io.tmpdir}/parking-uploads}")
+    private String tempDirectory;
+
     private static final List<String> DEFAULT_ALLOWED_EXTENSIONS =
             Arrays.asList("jpg", "jpeg", "png", "gif", "webp", "bmp");
 
@@ -81,6 +84,100 @@ public class FileUploadUtil {
         }
     }
 
+    /**
+     * Spool file multipart ke temp directory tanpa memindahkan ke lokasi final
+     * Hanya validasi metadata (ukuran, ekstensi, content type) yang dilakukan di sini
+     *
+     * @param file MultipartFile to spool
+     * @param type "checkin" atau "checkout"
+     * @return path file spool
+     */
+    public Path spoolFile(MultipartFile file, String type) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File tidak boleh kosong");
+        }
+
+        validateFile(file);
+
+        try {
+            Path spoolDir = Paths.get(tempDirectory);
+            createDirectoryIfNotExists(spoolDir);
+
+            String extension = getFileExtension(file.getOriginalFilename());
+            Path spoolPath = spoolDir.resolve(generateUniqueFilename(type, extension)).toAbsolutePath();
+
+            // Multipart container biasanya cukup me-rename file temp miliknya
+            file.transferTo(spoolPath);
+            return spoolPath;
+
+        } catch (IOException e) {
+            log.error("Error spooling file", e);
+            throw new RuntimeException("Gagal upload file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rencanakan relative path final untuk file spool: type/yyyy/MM/dd/filename
+     */
+    public String planRelativePath(Path spoolPath, String type) {
+        String yearMonth = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd"));
+        return String.format("%s/%s/%s", type, yearMonth, spoolPath.getFileName());
+    }
+
+    /**
+     * Pindahkan file spool ke lokasi final
+     */
+    public String storeSpooledFile(Path spoolPath, String relativePath) {
+        try {
+            Path filePath = Paths.get(basePath, relativePath);
+            createDirectoryIfNotExists(filePath.getParent());
+            Files.move(spoolPath, filePath, StandardCopyOption.REPLACE_EXISTING);
+
+            log.info("File uploaded successfully: {}", relativePath);
+            return relativePath;
+
+        } catch (IOException e) {
+            log.error("Error storing spooled file {}", spoolPath, e);
+            throw new RuntimeException("Gagal upload file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cek signature (magic bytes) file untuk memastikan isinya memang gambar
+     */
+    public boolean isImageContent(Path path) {
+        byte[] header = new byte[12];
+        int read;
+        try (var in = Files.newInputStream(path)) {
+            read = in.readNBytes(header, 0, header.length);
+        } catch (IOException e) {
+            log.error("Error reading file header: {}", path, e);
+            return false;
+        }
+
+        if (read >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return true; // JPEG
+        }
+        if (read >= 8 && (header[0] & 0xFF) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G') {
+            return true; // PNG
+        }
+        if (read >= 6 && header[0] == 'G' && header[1] == 'I' && header[2] == 'F' && header[3] == '8') {
+            return true; // GIF
+        }
+        if (read >= 2 && header[0] == 'B' && header[1] == 'M') {
+            return true; // BMP
+        }
+        return read >= 12 && header[0] == 'R' && header[1] == 'I' && header[2] == 'F' && header[3] == 'F'
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P'; // WEBP
+    }
+
+    /**
+     * Get temp/spool directory
+     */
+    public Path getTempDirectory() {
+        return Paths.get(tempDirectory);
+    }
+
     /**
      * Delete file
      */
@@ -0,0 +1,235 @@
+package com.parkee.parkingpos.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hierarchical timing wheel (gaya Linux/Kafka) untuk jutaan timer dengan schedule/cancel O(1)
+ * Level 0 berisi timer yang jatuh tempo dalam {@code wheelSize} tick; setiap level berikutnya
+ * mencakup rentang {@code wheelSize} kali lebih panjang dan di-cascade ke level bawah saat giliran bucket-nya tiba.
+ * Waktu dinyatakan dalam milidetik epoch; resolusi satu tick
+ *
+ * @param <T> payload timer
+ */
+public final class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final List<Bucket<T>[]> levels = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Timer yang jatuh tempo saat dijadwalkan; dikembalikan pada advance berikutnya
+    private final Bucket<T> overdue = new Bucket<>();
+
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis  resolusi timer
+     * @param wheelSize   jumlah slot per level, harus pangkat dua
+     * @param startMillis waktu awal wheel
+     */
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("tickMillis harus positif dan wheelSize pangkat dua");
+        }
+        this.tickMillis = tickMillis;
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        this.mask = wheelSize - 1;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Jadwalkan payload pada {@code deadlineMillis}; deadline yang sudah lewat keluar pada advance berikutnya
+     */
+    public Timer<T> schedule(long deadlineMillis, T payload) {
+        // Dibulatkan ke atas agar timer tidak pernah jatuh tempo sebelum deadline
+        Timer<T> timer = new Timer<>(this, Math.ceilDiv(deadlineMillis, tickMillis), payload);
+        lock.lock();
+        try {
+            place(timer);
+            size++;
+        } finally {
+            lock.unlock();
+        }
+        return timer;
+    }
+
+    /**
+     * Majukan wheel sampai {@code nowMillis} dan kembalikan payload yang jatuh tempo, urut per tick
+     */
+    public List<T> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<T> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            drain(overdue, expired);
+            while (currentTick < targetTick) {
+                currentTick++;
+                cascade();
+                // Timer hasil cascade yang jatuh tempo tepat di tick ini
+                drain(overdue, expired);
+                if (!levels.isEmpty()) {
+                    drain(levels.get(0)[(int) (currentTick & mask)], expired);
+                }
+            }
+            size -= expired.size();
+        } finally {
+            lock.unlock();
+        }
+        return expired;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void place(Timer<T> timer) {
+        long delta = timer.deadlineTick - currentTick;
+        if (delta <= 0) {
+            overdue.add(timer);
+            return;
+        }
+
+        int level = 0;
+        while (level < 63 / bits && (delta >>> (bits * (level + 1))) != 0) {
+            level++;
+        }
+        levelAt(level)[(int) ((timer.deadlineTick >>> (bits * level)) & mask)].add(timer);
+    }
+
+    /**
+     * Turunkan bucket level atas yang gilirannya tiba pada tick ini, dari level tertinggi ke bawah
+     */
+    private void cascade() {
+        int top = 0;
+        while (top + 1 < levels.size() && (currentTick & ((1L << (bits * (top + 1))) - 1)) == 0) {
+            top++;
+        }
+        for (int level = top; level >= 1; level--) {
+            Bucket<T> bucket = levels.get(level)[(int) ((currentTick >>> (bits * level)) & mask)];
+            Timer<T> timer = bucket.head;
+            bucket.head = null;
+            while (timer != null) {
+                Timer<T> next = timer.next;
+                timer.bucket = null;
+                timer.prev = null;
+                timer.next = null;
+                place(timer);
+                timer = next;
+            }
+        }
+    }
+
+    private void drain(Bucket<T> bucket, List<T> expired) {
+        Timer<T> timer = bucket.head;
+        bucket.head = null;
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            timer.bucket = null;
+            timer.prev = null;
+            timer.next = null;
+            timer.fired = true;
+            expired.add(timer.payload);
+            timer = next;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Bucket<T>[] levelAt(int level) {
+        while (levels.size() <= level) {
+            Bucket<T>[] wheel = new Bucket[mask + 1];
+            for (int i = 0; i < wheel.length; i++) {
+                wheel[i] = new Bucket<>();
+            }
+            levels.add(wheel);
+        }
+        return levels.get(level);
+    }
+
+    private boolean cancel(Timer<T> timer) {
+        lock.lock();
+        try {
+            if (timer.bucket == null || timer.fired) {
+                return false;
+            }
+            timer.bucket.remove(timer);
+            size--;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Handle timer; cancel O(1) selama timer belum jatuh tempo
+     */
+    public static final class Timer<T> {
+
+        private final HierarchicalTimingWheel<T> wheel;
+        private final long deadlineTick;
+        private final T payload;
+        private Bucket<T> bucket;
+        private Timer<T> prev;
+        private Timer<T> next;
+        private boolean fired;
+
+        private Timer(HierarchicalTimingWheel<T> wheel, long deadlineTick, T payload) {
+            this.wheel = wheel;
+            this.deadlineTick = deadlineTick;
+            this.payload = payload;
+        }
+
+        /**
+         * @return false jika timer sudah jatuh tempo atau sudah dibatalkan
+         */
+        public boolean cancel() {
+            return wheel.cancel(this);
+        }
+
+        public T payload() {
+            return payload;
+        }
+    }
+
+    /**
+     * Doubly linked list timer dalam satu slot
+     */
+    private static final class Bucket<T> {
+
+        private Timer<T> head;
+
+        void add(Timer<T> timer) {
+            timer.bucket = this;
+            timer.prev = null;
+            timer.next = head;
+            if (head != null) {
+                head.prev = timer;
+            }
+            head = timer;
+        }
+
+        void remove(Timer<T> timer) {
+            if (timer.prev != null) {
+                timer.prev.next = timer.next;
+            } else {
+                head = timer.next;
+            }
+            if (timer.next != null) {
+                timer.next.prev = timer.prev;
+            }
+            timer.bucket = null;
+            timer.prev = null;
+            timer.next = null;
+        }
+    }
+}
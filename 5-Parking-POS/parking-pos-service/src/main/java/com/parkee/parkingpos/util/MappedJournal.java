@@ -0,0 +1,262 @@
+package com.parkee.parkingpos.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journal append-only berbasis memory-mapped file
+ * Format record: [int length][int crc32][long timestamp][payload]; length 0 menandai akhir data di segment
+ * Posisi replay disimpan di file checkpoint; segment yang sudah selesai di-replay dihapus
+ */
+@Slf4j
+public class MappedJournal implements Closeable {
+
+    private static final int HEADER_SIZE = 16;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final int segmentSize;
+
+    private long writeSegment;
+    private MappedByteBuffer writeBuffer;
+
+    private long readSegment;
+    private MappedByteBuffer readBuffer;
+
+    private Position committed;
+    private long pending;
+
+    public MappedJournal(Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Ukuran segment journal terlalu kecil: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+
+        Files.createDirectories(directory);
+        List<Long> segments = listSegments();
+        committed = readCheckpoint(segments.isEmpty() ? 0 : segments.get(0));
+
+        for (long segment : segments) {
+            if (segment < committed.segment()) {
+                Files.deleteIfExists(segmentPath(segment));
+            }
+        }
+
+        writeSegment = segments.isEmpty() ? committed.segment() : Math.max(committed.segment(), segments.get(segments.size() - 1));
+        writeBuffer = map(writeSegment);
+
+        // Hitung record yang belum di-replay sekaligus cari posisi tulis terakhir
+        Position cursor = committed;
+        while (true) {
+            Entry entry = readAt(cursor);
+            if (entry == null) {
+                break;
+            }
+            pending++;
+            cursor = entry.next();
+        }
+        writeBuffer.position(cursor.segment() == writeSegment ? cursor.offset() : endOf(writeBuffer));
+
+        log.info("Journal {} dibuka: segment {}, {} record belum di-replay", directory, writeSegment, pending);
+    }
+
+    /**
+     * Tambah record ke journal dan paksa ke disk sebelum return
+     */
+    public synchronized void append(byte[] payload) throws IOException {
+        int size = HEADER_SIZE + payload.length;
+        if (size > segmentSize) {
+            throw new IllegalArgumentException("Record journal melebihi ukuran segment: " + size);
+        }
+        if (writeBuffer.remaining() < size) {
+            roll();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        int offset = writeBuffer.position();
+        writeBuffer.putInt(offset + 4, (int) crc.getValue());
+        writeBuffer.putLong(offset + 8, System.currentTimeMillis());
+        writeBuffer.put(offset + HEADER_SIZE, payload);
+        // Length ditulis terakhir: record yang terpotong saat crash terbaca sebagai akhir data
+        writeBuffer.putInt(offset, payload.length);
+        writeBuffer.force(offset, size);
+        writeBuffer.position(offset + size);
+        pending++;
+    }
+
+    /**
+     * Baca maksimal {@code max} record mulai dari posisi checkpoint, tanpa memajukan checkpoint
+     */
+    public synchronized List<Entry> read(int max) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        Position cursor = committed;
+        while (entries.size() < max) {
+            Entry entry = readAt(cursor);
+            if (entry == null) {
+                break;
+            }
+            entries.add(entry);
+            cursor = entry.next();
+        }
+        return entries;
+    }
+
+    /**
+     * Majukan checkpoint setelah {@code count} record berhasil di-replay
+     */
+    public synchronized void commit(Position position, int count) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temp, position.segment() + " " + position.offset());
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (long segment = committed.segment(); segment < position.segment(); segment++) {
+            Files.deleteIfExists(segmentPath(segment));
+        }
+        committed = position;
+        pending = Math.max(0, pending - count);
+    }
+
+    /**
+     * Jumlah record yang belum di-replay
+     */
+    public synchronized long pending() {
+        return pending;
+    }
+
+    /**
+     * Timestamp record tertua yang belum di-replay
+     */
+    public synchronized OptionalLong oldestPendingTimestamp() throws IOException {
+        Entry entry = readAt(committed);
+        return entry != null ? OptionalLong.of(entry.timestamp()) : OptionalLong.empty();
+    }
+
+    @Override
+    public synchronized void close() {
+        writeBuffer.force();
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private Entry readAt(Position position) throws IOException {
+        long segment = position.segment();
+        int offset = position.offset();
+
+        while (true) {
+            MappedByteBuffer buffer = bufferFor(segment);
+            int length = offset + HEADER_SIZE <= segmentSize ? buffer.getInt(offset) : 0;
+
+            if (length > 0 && offset + HEADER_SIZE + length <= segmentSize) {
+                byte[] payload = new byte[length];
+                buffer.get(offset + HEADER_SIZE, payload);
+
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                    log.warn("Record journal rusak di segment {} offset {}, dianggap akhir data", segment, offset);
+                    return null;
+                }
+                return new Entry(payload, buffer.getLong(offset + 8),
+                        new Position(segment, offset + HEADER_SIZE + length));
+            }
+
+            // Akhir segment: lanjut ke segment berikutnya jika writer sudah roll
+            if (segment >= writeSegment) {
+                return null;
+            }
+            segment++;
+            offset = 0;
+        }
+    }
+
+    private MappedByteBuffer bufferFor(long segment) throws IOException {
+        if (segment == writeSegment) {
+            return writeBuffer;
+        }
+        if (readBuffer == null || readSegment != segment) {
+            readBuffer = map(segment);
+            readSegment = segment;
+        }
+        return readBuffer;
+    }
+
+    private void roll() throws IOException {
+        writeBuffer.force();
+        writeSegment++;
+        writeBuffer = map(writeSegment);
+        log.info("Journal roll ke segment {}", writeSegment);
+    }
+
+    private MappedByteBuffer map(long segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Mapping tetap valid setelah channel ditutup
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private int endOf(MappedByteBuffer buffer) {
+        int offset = 0;
+        while (offset + HEADER_SIZE <= segmentSize) {
+            int length = buffer.getInt(offset);
+            if (length <= 0) {
+                break;
+            }
+            offset += HEADER_SIZE + length;
+        }
+        return offset;
+    }
+
+    private Position readCheckpoint(long defaultSegment) throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(checkpoint)) {
+            return new Position(defaultSegment, 0);
+        }
+        String[] parts = Files.readString(checkpoint).trim().split(" ");
+        return new Position(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Posisi di journal: nomor segment dan offset byte di dalamnya
+     */
+    public record Position(long segment, int offset) {
+    }
+
+    /**
+     * Record journal beserta posisi record berikutnya
+     */
+    public record Entry(byte[] payload, long timestamp, Position next) {
+    }
+}
@@ -0,0 +1,11 @@
+-- V10__Processed_gate_events.sql
+-- Event ID gate yang sudah diterapkan, di-insert dalam transaksi chunk yang sama dengan tiketnya.
+-- Retry batch dari gate atau replay journal setelah crash melewati event yang id-nya sudah ada.
+-- Baris lama dihapus GateEventSyncService setelah masa retensi.
+
+CREATE TABLE processed_gate_events (
+    event_id VARCHAR(100) PRIMARY KEY,
+    processed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_processed_gate_events_time ON processed_gate_events(processed_at);
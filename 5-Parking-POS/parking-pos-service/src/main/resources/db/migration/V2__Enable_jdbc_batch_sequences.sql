@@ -0,0 +1,7 @@
+-- V2__Enable_jdbc_batch_sequences.sql
+-- Entity ParkingTicket, Payment, dan InvoiceReceipt memakai SEQUENCE dengan allocationSize 50
+-- agar Hibernate bisa melakukan JDBC batch insert (IDENTITY mematikan batching)
+
+ALTER SEQUENCE parking_tickets_id_seq INCREMENT BY 50;
+ALTER SEQUENCE payments_id_seq INCREMENT BY 50;
+ALTER SEQUENCE invoice_receipts_id_seq INCREMENT BY 50;
@@ -0,0 +1,19 @@
+-- V3__Unique_active_plate.sql
+-- Hanya boleh ada satu tiket ACTIVE per plate number
+-- Duplikat lama (hasil race check-in sebelumnya) dibatalkan, tiket terbaru dipertahankan
+
+UPDATE parking_tickets t
+SET status = 'CANCELLED', updated_at = CURRENT_TIMESTAMP
+WHERE t.status = 'ACTIVE'
+  AND EXISTS (
+    SELECT 1
+    FROM parking_tickets newer
+    WHERE newer.plate_number = t.plate_number
+      AND newer.status = 'ACTIVE'
+      AND (newer.check_in_time > t.check_in_time
+        OR (newer.check_in_time = t.check_in_time AND newer.id > t.id))
+);
+
+CREATE UNIQUE INDEX uk_parking_tickets_active_plate
+    ON parking_tickets (plate_number)
+    WHERE status = 'ACTIVE';
@@ -0,0 +1,5 @@
+-- V4__Member_balance_version.sql
+-- Saldo member diubah lewat UPDATE atomik; kolom version sebagai optimistic lock
+-- untuk penulisan yang masih berbasis entity (mis. update profil member)
+
+ALTER TABLE members ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,11 @@
+-- V5__Voucher_usage_lease.sql
+-- Kuota voucher di-lease per blok oleh tiap node (VoucherUsageLedger) agar row voucher populer
+-- tidak dikunci di setiap check-out; usage_count tetap jumlah pemakaian yang sudah commit.
+-- Invariant: usage_count <= usage_leased <= usage_limit. Lease yang tidak dikembalikan
+-- (node mati mendadak) hanya mengurangi kuota yang bisa dipakai, tidak pernah melebihi limit.
+
+UPDATE vouchers SET usage_count = 0 WHERE usage_count IS NULL;
+
+ALTER TABLE vouchers ADD COLUMN usage_leased INTEGER NOT NULL DEFAULT 0;
+
+UPDATE vouchers SET usage_leased = usage_count;
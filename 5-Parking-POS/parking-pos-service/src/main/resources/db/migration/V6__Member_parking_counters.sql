@@ -0,0 +1,39 @@
+-- V6__Member_parking_counters.sql
+-- Ringkasan parkir per member disimpan di baris member dan dinaikkan saat check-out,
+-- sehingga daftar member tidak lagi menghitung ulang riwayat tiket per baris.
+-- Backfill berdasarkan member_id (bukan LIKE plat nomor) untuk tiket yang sudah selesai.
+
+ALTER TABLE members ADD COLUMN total_parkings INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE members ADD COLUMN total_spent DECIMAL(12,2) NOT NULL DEFAULT 0.00;
+
+UPDATE members m
+SET total_parkings = t.total_parkings,
+    total_spent = t.total_spent,
+    last_activity = GREATEST(m.last_activity, t.last_check_out)
+FROM (
+    SELECT member_id,
+           COUNT(*) AS total_parkings,
+           COALESCE(SUM(parking_fee), 0) AS total_spent,
+           MAX(check_out_time) AS last_check_out
+    FROM parking_tickets
+    WHERE member_id IS NOT NULL AND status = 'COMPLETED'
+    GROUP BY member_id
+) t
+WHERE m.id = t.member_id;
+
+-- View lama menghitung ulang lewat JOIN ke parking_tickets; kini dibaca dari kolom ringkasan
+DROP VIEW IF EXISTS active_members_statistics;
+
+CREATE VIEW active_members_statistics AS
+SELECT
+    m.id,
+    m.member_code,
+    m.name,
+    m.vehicle_plate_number,
+    m.total_parkings,
+    m.total_spent,
+    m.balance as current_balance,
+    m.last_activity
+FROM members m
+WHERE m.active = true
+ORDER BY m.total_parkings DESC;
@@ -0,0 +1,12 @@
+-- V7__Member_trigram_search.sql
+-- Pencarian member memakai LOWER(...) LIKE '%x%' yang tidak bisa memakai index B-tree.
+-- Index GIN trigram pada ekspresi yang sama dipakai planner untuk LIKE substring/prefix
+-- dan untuk similarity() pada endpoint typeahead.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_members_name_trgm
+    ON members USING gin (lower(name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_members_plate_trgm
+    ON members USING gin (lower(vehicle_plate_number) gin_trgm_ops);
@@ -0,0 +1,7 @@
+-- V8__Member_code_sequence.sql
+-- Kode member dialokasikan dari sequence per blok (MemberCodeAllocator): satu nextval
+-- memesan BLOCK_SIZE nomor untuk satu node, tanpa probing kode yang sudah dipakai.
+-- Kode baru berformat MBR + minimal 6 digit sehingga tidak bentrok dengan kode lama MBR + 3 digit.
+-- INCREMENT BY harus sama dengan MemberCodeAllocator.BLOCK_SIZE
+
+CREATE SEQUENCE IF NOT EXISTS member_code_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,117 @@
+package com.parkee.parkingpos.benchmark;
+
+import com.parkee.parkingpos.domain.value.Money;
+import com.parkee.parkingpos.service.TariffTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alokasi aritmatika uang di jalur check-out: biaya dasar, diskon voucher persen, diskon member 10%,
+ * total, lalu debit saldo member
+ * Bandingkan kolom gc.alloc.rate.norm (byte per operasi) antara jalur BigDecimal lama dan Money
+ * Jalankan: mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath com.parkee.parkingpos.benchmark.CheckoutAllocationBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckoutAllocationBenchmark {
+
+    private static final int SAMPLES = 1024;
+    private static final BigDecimal RATE_PER_HOUR = new BigDecimal("3000");
+    private static final BigDecimal VOUCHER_PERCENT = new BigDecimal("12.50");
+    private static final long VOUCHER_BASIS_POINTS = 1250;
+
+    private TariffTable tariff;
+    private final int[] checkInMinutes = new int[SAMPLES];
+    private final long[] minutesParked = new long[SAMPLES];
+    private BigDecimal legacyBalance;
+    private Money balance;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        tariff = TariffTable.compile(15, 24, 0,
+                List.of(TariffTable.Band.of(LocalTime.MIDNIGHT, List.of(RATE_PER_HOUR), Money.SCALE)));
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < SAMPLES; i++) {
+            checkInMinutes[i] = random.nextInt(TariffTable.MINUTES_PER_DAY);
+            minutesParked[i] = 16 + random.nextLong(24 * 60);
+        }
+        legacyBalance = new BigDecimal("100000000.00");
+        balance = Money.of(legacyBalance);
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (SAMPLES - 1);
+        return cursor;
+    }
+
+    /**
+     * Jalur lama: Math.ceil + BigDecimal di setiap langkah
+     */
+    @Benchmark
+    public void legacyBigDecimal(Blackhole blackhole) {
+        long minutes = minutesParked[next()];
+        long hours = Math.min((long) Math.ceil(minutes / 60.0), 24);
+
+        BigDecimal baseFee = RATE_PER_HOUR.multiply(BigDecimal.valueOf(hours));
+        BigDecimal discount = baseFee.multiply(VOUCHER_PERCENT).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        BigDecimal totalFee = baseFee.subtract(discount);
+        BigDecimal memberDiscount = baseFee.multiply(BigDecimal.valueOf(0.1));
+        discount = discount.add(memberDiscount);
+        totalFee = totalFee.subtract(memberDiscount).max(BigDecimal.ZERO);
+        legacyBalance = legacyBalance.subtract(totalFee);
+
+        blackhole.consume(discount);
+        blackhole.consume(totalFee);
+    }
+
+    /**
+     * Jalur baru: lookup TariffTable + Money (long)
+     */
+    @Benchmark
+    public void money(Blackhole blackhole) {
+        int i = next();
+        Money baseFee = Money.ofMinor(tariff.fee(checkInMinutes[i], minutesParked[i]));
+        Money discount = baseFee.ratio(VOUCHER_BASIS_POINTS, 10_000);
+        Money totalFee = baseFee.minus(discount);
+        Money memberDiscount = baseFee.ratio(10, 100);
+        discount = discount.plus(memberDiscount);
+        totalFee = totalFee.minus(memberDiscount).max(Money.ZERO);
+        balance = balance.minus(totalFee);
+
+        blackhole.consume(discount.minor());
+        blackhole.consume(totalFee.minor());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CheckoutAllocationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
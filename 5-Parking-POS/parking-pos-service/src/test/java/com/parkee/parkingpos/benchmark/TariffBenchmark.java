@@ -0,0 +1,99 @@
+package com.parkee.parkingpos.benchmark;
+
+import com.parkee.parkingpos.service.TariffTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bandingkan perhitungan biaya lama (Math.ceil + BigDecimal) dengan lookup TariffTable
+ * Jalankan: mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath com.parkee.parkingpos.benchmark.TariffBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TariffBenchmark {
+
+    private static final int SAMPLES = 1024;
+    private static final BigDecimal RATE_PER_HOUR = new BigDecimal("3000");
+    private static final int GRACE_PERIOD_MINUTES = 15;
+    private static final int MAX_PARKING_HOURS = 24;
+
+    private TariffTable flat;
+    private TariffTable banded;
+    private final int[] checkInMinutes = new int[SAMPLES];
+    private final long[] minutesParked = new long[SAMPLES];
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        flat = TariffTable.compile(GRACE_PERIOD_MINUTES, MAX_PARKING_HOURS, 0,
+                List.of(TariffTable.Band.of(LocalTime.MIDNIGHT, List.of(RATE_PER_HOUR), 2)));
+        banded = TariffTable.compile(GRACE_PERIOD_MINUTES, 72, 2_000_000, List.of(
+                TariffTable.Band.of(LocalTime.of(6, 0), List.of(new BigDecimal("2000"), new BigDecimal("1000")), 2),
+                TariffTable.Band.of(LocalTime.of(22, 0), List.of(new BigDecimal("1000")), 2)));
+
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            checkInMinutes[i] = random.nextInt(TariffTable.MINUTES_PER_DAY);
+            minutesParked[i] = random.nextLong(3 * TariffTable.MINUTES_PER_DAY);
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (SAMPLES - 1);
+        return cursor;
+    }
+
+    /**
+     * Jalur lama di ParkingService sebelum tarif di-compile
+     */
+    @Benchmark
+    public BigDecimal legacyBigDecimal() {
+        long minutes = minutesParked[next()];
+        if (minutes <= GRACE_PERIOD_MINUTES) {
+            return BigDecimal.ZERO;
+        }
+        long hours = (long) Math.ceil(minutes / 60.0);
+        if (hours > MAX_PARKING_HOURS) {
+            hours = MAX_PARKING_HOURS;
+        }
+        return RATE_PER_HOUR.multiply(BigDecimal.valueOf(hours));
+    }
+
+    @Benchmark
+    public long tableFlat() {
+        int i = next();
+        return flat.fee(checkInMinutes[i], minutesParked[i]);
+    }
+
+    @Benchmark
+    public long tableBandedWithDailyCap() {
+        int i = next();
+        return banded.fee(checkInMinutes[i], minutesParked[i]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TariffBenchmark.class.getSimpleName()).build()).run();
+    }
+}
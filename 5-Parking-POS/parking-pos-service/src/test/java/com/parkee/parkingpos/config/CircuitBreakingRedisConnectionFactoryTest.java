@@ -0,0 +1,97 @@
+package com.parkee.parkingpos.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CircuitBreakingRedisConnectionFactoryTest {
+
+    private final RedisConnectionFactory delegate = mock(RedisConnectionFactory.class);
+    private final RedisConnection connection = mock(RedisConnection.class);
+
+    @Test
+    void opensAfterThresholdAndFailsFastWithoutTouchingRedis() {
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker(2, Duration.ofMinutes(1));
+        CircuitBreakingRedisConnectionFactory factory = new CircuitBreakingRedisConnectionFactory(delegate, breaker);
+        when(delegate.getConnection()).thenThrow(new RedisConnectionFailureException("down"));
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(factory::getConnection).isInstanceOf(RedisConnectionFailureException.class);
+        }
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+
+        assertThatThrownBy(factory::getConnection).isInstanceOf(RedisConnectionFailureException.class);
+        verify(delegate, times(2)).getConnection();
+        assertThat(breaker.getRejectedCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void halfOpenTrialClosesBreakerOnSuccess() {
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker(1, Duration.ZERO);
+        breaker.onFailure(new RedisConnectionFailureException("down"));
+        CircuitBreakingRedisConnectionFactory factory = new CircuitBreakingRedisConnectionFactory(delegate, breaker);
+        when(delegate.getConnection()).thenReturn(connection);
+        when(connection.ping()).thenReturn("PONG");
+
+        RedisConnection trial = factory.getConnection();
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.HALF_OPEN);
+        // Hanya satu percobaan yang boleh lewat selama HALF_OPEN
+        assertThatThrownBy(factory::getConnection).isInstanceOf(RedisConnectionFailureException.class);
+
+        assertThat(trial.ping()).isEqualTo("PONG");
+        assertThat(breaker.isClosed()).isTrue();
+        verify(delegate, times(1)).getConnection();
+    }
+
+    @Test
+    void commandErrorsThatAreNotConnectivityDoNotTripBreaker() {
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker(1, Duration.ofMinutes(1));
+        CircuitBreakingRedisConnectionFactory factory = new CircuitBreakingRedisConnectionFactory(delegate, breaker);
+        when(delegate.getConnection()).thenReturn(connection);
+        when(connection.ping()).thenThrow(new IllegalStateException("WRONGTYPE"));
+
+        RedisConnection redis = factory.getConnection();
+        assertThatThrownBy(redis::ping).isInstanceOf(IllegalStateException.class);
+        assertThat(breaker.isClosed()).isTrue();
+
+        redis.close();
+        verify(connection).close();
+        verify(delegate, never()).getSentinelConnection();
+    }
+
+    @Test
+    void timeoutsThroughCommandInterfacesOpenBreaker() {
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker(2, Duration.ofMinutes(1));
+        CircuitBreakingRedisConnectionFactory factory = new CircuitBreakingRedisConnectionFactory(delegate, breaker);
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        when(delegate.getConnection()).thenReturn(connection);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(stringCommands.get(any(byte[].class))).thenThrow(new QueryTimeoutException("Redis command timed out"));
+
+        // Jalur @Cacheable: RedisCacheWriter memanggil GET lewat stringCommands(), bukan method RedisConnection
+        RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(factory);
+        byte[] key = "member::1".getBytes();
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> cacheWriter.get("member", key)).isInstanceOf(QueryTimeoutException.class);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> cacheWriter.get("member", key)).isInstanceOf(RedisConnectionFailureException.class);
+        verify(delegate, times(2)).getConnection();
+    }
+}
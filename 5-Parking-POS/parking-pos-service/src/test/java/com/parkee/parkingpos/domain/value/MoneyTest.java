@@ -0,0 +1,38 @@
+package com.parkee.parkingpos.domain.value;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MoneyTest {
+
+    @Test
+    void ratioRoundsHalfUpLikeBigDecimal() {
+        Money fee = Money.of(new BigDecimal("3333.33"));
+
+        BigDecimal expected = new BigDecimal("3333.33").multiply(new BigDecimal("12.5"))
+                .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        assertThat(fee.ratio(1250, 10_000).toBigDecimal()).isEqualByComparingTo(expected);
+        assertThat(Money.ofMinor(5).ratio(1, 10)).isEqualTo(Money.ofMinor(1));
+        assertThat(Money.ofMinor(-5).ratio(1, 10)).isEqualTo(Money.ofMinor(-1));
+    }
+
+    @Test
+    void keepsDecimalScaleOfDatabaseColumns() {
+        assertThat(Money.of(3000).toBigDecimal()).isEqualTo(new BigDecimal("3000.00"));
+        assertThat(Money.of(new BigDecimal("1500.5"))).isEqualTo(Money.ofMinor(150_050));
+        assertThat(new MoneyConverter().convertToDatabaseColumn(Money.of(15000))).isEqualTo(new BigDecimal("15000.00"));
+    }
+
+    @Test
+    void serializesAsPlainJsonNumber() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+
+        assertThat(mapper.writeValueAsString(Money.of(new BigDecimal("12000.50")))).isEqualTo("12000.50");
+        assertThat(mapper.readValue("9600", Money.class)).isEqualTo(Money.of(9600));
+    }
+}
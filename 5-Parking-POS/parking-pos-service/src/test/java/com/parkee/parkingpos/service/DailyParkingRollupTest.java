@@ -0,0 +1,83 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
+import com.parkee.parkingpos.domain.value.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DailyParkingRollupTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2025, 1, 16, 12, 0);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private DailyParkingRollup rollup;
+
+    @BeforeEach
+    void setUp() {
+        rollup = new DailyParkingRollup(jdbcTemplate, mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                mock(ApplicationEventPublisher.class));
+        rollup.init();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mergesEventsPerDateGateAndTypeAndRetriesFailedFlush() {
+        for (int i = 0; i < 1_000; i++) {
+            rollup.recordCheckIn(NOON.plusSeconds(i), "GATE-A", ParkingTicket.VehicleType.CAR);
+            rollup.recordCheckOut(NOON.plusSeconds(i), "GATE-B", ParkingTicket.VehicleType.CAR, Money.of(5_000));
+        }
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[]{1, 1});
+
+        rollup.flush();
+        rollup.flush();
+
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batches.capture());
+        List<Object[]> retried = batches.getAllValues().get(1);
+        assertThat(retried).hasSize(2);
+        Object[] checkOuts = retried.stream().filter(row -> "GATE-B".equals(row[1])).findFirst().orElseThrow();
+        assertThat(checkOuts[3]).isEqualTo(0L);
+        assertThat(checkOuts[4]).isEqualTo(1_000L);
+        assertThat(checkOuts[5]).isEqualTo(new BigDecimal("5000000.00"));
+
+        rollup.flush();
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildDropsPendingDeltasOfRebuiltDay() {
+        // Check-out backdated ke hari yang di-rebuild sudah commit, jadi ikut terhitung oleh rebuild
+        rollup.recordCheckOut(NOON.minusDays(1), "GATE-B", ParkingTicket.VehicleType.CAR, Money.of(5_000));
+        rollup.recordCheckIn(NOON, "GATE-A", ParkingTicket.VehicleType.CAR);
+
+        rollup.rebuild(NOON.minusDays(1).toLocalDate());
+        rollup.flush();
+
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batches.capture());
+        assertThat(batches.getValue()).singleElement().satisfies(row -> assertThat(row[1]).isEqualTo("GATE-A"));
+        verify(jdbcTemplate, times(2)).update(anyString(), any(Object[].class));
+    }
+}
@@ -0,0 +1,82 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.value.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DailyStatisticsSegmentsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 15);
+
+    @Test
+    void storedFieldsRoundTripToSameSegment() {
+        DailyStatisticsSegments.Segment segment = new DailyStatisticsSegments.Segment(DAY, 1_250, Money.of(8_400_000),
+                Money.of(8_350_000), Map.of("CASH", Money.of(5_000_000), "MEMBER_BALANCE", Money.of(3_350_000)),
+                Map.of("CAR", 850L, "MOTORCYCLE", 400L), 4_320_000, 1_200);
+
+        assertThat(DailyStatisticsSegments.Segment.fromFields(DAY, segment.toFields())).isEqualTo(segment);
+    }
+
+    @Test
+    void mergesSegmentsAcrossDays() {
+        DailyStatisticsSegments.Segment first = new DailyStatisticsSegments.Segment(DAY, 10, Money.of(30_000),
+                Money.of(30_000), Map.of("CASH", Money.of(30_000)), Map.of("CAR", 10L), 7_200, 2);
+        DailyStatisticsSegments.Segment second = new DailyStatisticsSegments.Segment(DAY.plusDays(1), 5,
+                Money.of(20_000), Money.of(25_000), Map.of("CASH", Money.of(5_000), "DEBIT", Money.of(20_000)),
+                Map.of("CAR", 2L, "MOTORCYCLE", 3L), 3_600, 4);
+
+        DailyStatisticsSegments.Segment total = DailyStatisticsSegments.Segment.merge(List.of(first, second));
+
+        assertThat(total.checkIns()).isEqualTo(15);
+        assertThat(total.paymentRevenue()).isEqualTo(Money.of(55_000));
+        assertThat(total.paymentMethods()).containsEntry("CASH", Money.of(35_000)).containsEntry("DEBIT", Money.of(20_000));
+        assertThat(total.vehicleTypes()).containsEntry("CAR", 12L).containsEntry("MOTORCYCLE", 3L);
+        // Rata-rata berbobot jumlah tiket, bukan rata-rata dari rata-rata harian
+        assertThat(total.averageParkingHours()).isEqualTo(0.5);
+        assertThat(DailyStatisticsSegments.Segment.merge(List.of()).averageParkingHours()).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void skipsWriteWhenDayChangedWhileComputing() {
+        LocalDate closed = LocalDate.now().minusDays(3);
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        RedisOperations<String, Object> operations = mock(RedisOperations.class);
+        ValueOperations<String, Object> values = mock(ValueOperations.class);
+        DailyParkingRollup rollup = mock(DailyParkingRollup.class);
+        DailyStatisticsSegments segments = new DailyStatisticsSegments(rollup, mock(JdbcTemplate.class), redisTemplate);
+
+        // Saat dibaca: segmen belum ada dan versi hari itu 1
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(List.of(Map.of(), List.of(1)));
+        when(rollup.series(closed, closed)).thenReturn(List.of(
+                new DailyParkingRollup.DailyTotals(closed, 7, 0, Money.of(21_000))));
+        when(redisTemplate.execute(any(SessionCallback.class))).thenAnswer(invocation ->
+                ((SessionCallback<Object>) invocation.getArgument(0)).execute(operations));
+        when(operations.opsForValue()).thenReturn(values);
+        // DaysChanged menaikkan versi selama segmen dihitung dari database
+        when(values.multiGet(anyList())).thenReturn(List.of(2));
+
+        List<DailyStatisticsSegments.Segment> result = segments.closedDays(closed, closed);
+
+        assertThat(result).singleElement().extracting(DailyStatisticsSegments.Segment::checkIns).isEqualTo(7L);
+        verify(operations).watch(List.of(DailyStatisticsSegments.VERSION_KEY + closed));
+        verify(operations).unwatch();
+        verify(operations, never()).multi();
+    }
+}
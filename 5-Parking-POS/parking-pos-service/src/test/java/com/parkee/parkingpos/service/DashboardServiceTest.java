@@ -0,0 +1,105 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.entity.Member;
+import com.parkee.parkingpos.domain.repository.MemberRepository;
+import com.parkee.parkingpos.domain.value.Money;
+import com.parkee.parkingpos.dto.DashboardStatisticsDto;
+import com.parkee.parkingpos.dto.LiveCountersDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DashboardServiceTest {
+
+    private final MemberRepository memberRepository = mock(MemberRepository.class);
+    private final DailyStatisticsSegments dailyStatisticsSegments = mock(DailyStatisticsSegments.class);
+    private final RealtimeCounters realtimeCounters = mock(RealtimeCounters.class);
+
+    private final DashboardService dashboardService = new DashboardService(
+            memberRepository, dailyStatisticsSegments, realtimeCounters);
+
+    @Test
+    void mergesClosedDaySegmentsWithLiveTodayWithoutHydratingTickets() {
+        LocalDate end = LocalDate.now();
+        LocalDate start = end.minusDays(29);
+
+        when(dailyStatisticsSegments.closedDays(start, end)).thenReturn(List.of(
+                segment(start, 7_000L, 90_000, Map.of("CAR", 4_000L, "MOTORCYCLE", 3_000L)),
+                segment(start.plusDays(1), 0L, 150_000, Map.of())));
+        when(dailyStatisticsSegments.today(420L, Money.of(1_260_000)))
+                .thenReturn(segment(end, 420L, 1_260_000, Map.of("CAR", 300L, "MOTORCYCLE", 120L)));
+        when(memberRepository.findByActiveTrueOrderByTotalParkingsDesc(any(Pageable.class)))
+                .thenAnswer(invocation -> members(invocation.<Pageable>getArgument(0).getPageSize()));
+
+        when(realtimeCounters.today()).thenReturn(Optional.of(LiveCountersDto.builder()
+                .vehiclesIn(420L).occupancy(35L).revenue(Money.of(1_260_000)).build()));
+
+        DashboardStatisticsDto stats = dashboardService.getStatistics(start, end);
+
+        assertThat(stats.getTotalVehiclesToday()).isEqualTo(420L);
+        assertThat(stats.getActiveVehicles()).isEqualTo(35L);
+        assertThat(stats.getVehicleTypeDistribution()).containsEntry("CAR", 4_300L).containsEntry("MOTORCYCLE", 3_120L);
+        assertThat(stats.getTotalRevenuePeriod()).isEqualTo(Money.of(1_500_000));
+        assertThat(stats.getDailyStatistics()).hasSize(30);
+        assertThat(stats.getDailyStatistics().get(0).getTotalVehicles()).isEqualTo(7_000L);
+        assertThat(stats.getDailyStatistics().get(1).getTotalRevenue()).isEqualTo(Money.of(150_000));
+        assertThat(stats.getDailyStatistics().get(2).getTotalVehicles()).isZero();
+        assertThat(stats.getDailyStatistics().get(29).getTotalVehicles()).isEqualTo(420L);
+
+        // Entity yang di-hydrate per panggilan hanya top member, dibatasi 5 baris
+        assertThat(stats.getTopMembers()).hasSize(5);
+        verify(memberRepository, never()).findByActiveTrue(any());
+        verify(realtimeCounters, never()).todayFromDatabase();
+    }
+
+    @Test
+    void todayRevenueComesFromSuccessfulPaymentsWithOrWithoutRedis() {
+        LocalDate today = LocalDate.now();
+        // Pendapatan parkir (parking_fee) dan payment SUCCESS sengaja berbeda
+        LiveCountersDto counters = LiveCountersDto.builder()
+                .date(today).vehiclesIn(10L).occupancy(3L).revenue(Money.of(60_000)).build();
+        when(dailyStatisticsSegments.today(10L, Money.of(60_000))).thenReturn(new DailyStatisticsSegments.Segment(
+                today, 10L, Money.of(60_000), Money.of(45_000), Map.of("CASH", Money.of(45_000)), Map.of(), 0, 0));
+
+        when(realtimeCounters.today()).thenReturn(Optional.of(counters));
+        DashboardStatisticsDto withRedis = dashboardService.getStatistics(today, today);
+
+        when(realtimeCounters.today()).thenReturn(Optional.empty());
+        when(realtimeCounters.todayFromDatabase()).thenReturn(counters);
+        DashboardStatisticsDto withoutRedis = dashboardService.getStatistics(today, today);
+
+        assertThat(withRedis.getTotalRevenueToday()).isEqualTo(Money.of(45_000));
+        assertThat(withoutRedis.getTotalRevenueToday()).isEqualTo(Money.of(45_000));
+        assertThat(withoutRedis.getTotalRevenuePeriod()).isEqualTo(withoutRedis.getTotalRevenueToday());
+        assertThat(withoutRedis.getDailyStatistics().get(0).getTotalRevenue()).isEqualTo(Money.of(60_000));
+    }
+
+    private static DailyStatisticsSegments.Segment segment(LocalDate date, long checkIns, long revenue,
+                                                           Map<String, Long> vehicleTypes) {
+        return new DailyStatisticsSegments.Segment(date, checkIns, Money.of(revenue), Money.of(revenue),
+                Map.of("CASH", Money.of(revenue)), vehicleTypes, 0, 0);
+    }
+
+    private static List<Member> members(int size) {
+        return IntStream.range(0, Math.min(size, 100))
+                .mapToObj(i -> Member.builder()
+                        .memberCode("MBR%06d".formatted(i))
+                        .name("Member " + i)
+                        .vehiclePlateNumber("B" + i)
+                        .totalParkings(100 - i)
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,138 @@
+package com.parkee.parkingpos.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parkee.parkingpos.domain.value.Money;
+import com.parkee.parkingpos.dto.DashboardDeltaDto;
+import com.parkee.parkingpos.dto.LiveCountersDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DashboardStreamServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 1, 16);
+
+    @Test
+    void coalescesChangesIntoSingleDelta() {
+        LiveCountersDto previous = counters(100, 80, 500_000, 1, 20);
+        // Tiga check-in, dua check-out dan satu top up di antara dua tick
+        LiveCountersDto current = counters(103, 82, 515_000, 2, 21);
+
+        DashboardDeltaDto delta = DashboardStreamService.diff(7, previous, current).orElseThrow();
+
+        assertThat(delta.getSequence()).isEqualTo(7);
+        assertThat(delta.getVehiclesIn()).isEqualTo(3);
+        assertThat(delta.getVehiclesOut()).isEqualTo(2);
+        assertThat(delta.getRevenue()).isEqualTo(Money.of(15_000));
+        assertThat(delta.getTopUps()).isEqualTo(1);
+        assertThat(delta.getTopUpAmount()).isEqualTo(Money.of(50_000));
+        assertThat(delta.getOccupancy()).isEqualTo(21);
+        assertThat(delta.getOccupancyByVehicleType()).containsEntry("CAR", 21L);
+    }
+
+    @Test
+    void skipsUnchangedCounters() {
+        assertThat(DashboardStreamService.diff(2, counters(5, 4, 1000, 0, 1), counters(5, 4, 1000, 0, 1))).isEmpty();
+    }
+
+    @Test
+    void admitsSubscriberOnlyAfterSnapshotIsSent() {
+        RealtimeCounters realtimeCounters = mock(RealtimeCounters.class);
+        DashboardStreamService service = new DashboardStreamService(realtimeCounters,
+                new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry());
+        when(realtimeCounters.today()).thenReturn(Optional.empty());
+
+        service.subscribe();
+        // Redis belum tersedia: belum ada snapshot, subscriber tetap menunggu dan tidak menerima delta
+        service.publish();
+        assertThat(service.subscriberCount()).isZero();
+
+        when(realtimeCounters.today()).thenReturn(Optional.of(counters(5, 4, 1000, 0, 1)));
+        service.publish();
+        assertThat(service.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    @Timeout(10)
+    void dropsLaggingSubscriberWithoutBlockingOthers() throws InterruptedException {
+        RealtimeCounters realtimeCounters = mock(RealtimeCounters.class);
+        DashboardStreamService service = new DashboardStreamService(realtimeCounters,
+                new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry());
+        // Tick dijalankan manual; interval panjang mencegah thread producer ikut publish
+        ReflectionTestUtils.setField(service, "intervalMillis", 3_600_000L);
+        ReflectionTestUtils.setField(service, "maxPending", 2);
+        service.init();
+        AtomicLong vehiclesIn = new AtomicLong();
+        when(realtimeCounters.today()).thenAnswer(invocation ->
+                Optional.of(counters(vehiclesIn.incrementAndGet(), 0, 0, 0, 1)));
+
+        CountDownLatch stalled = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(stalled);
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        service.subscribe(slow);
+        service.subscribe(fast);
+
+        // Snapshot lalu tiga delta: client yang macet menahan satu event dan hanya dua yang boleh antre
+        for (int i = 0; i < 4; i++) {
+            service.markDirty();
+            service.publish();
+        }
+
+        assertThat(service.subscriberCount()).isEqualTo(1);
+        while (fast.sent.get() < 4) {
+            Thread.sleep(10);
+        }
+        stalled.countDown();
+        service.shutdown();
+    }
+
+    private static LiveCountersDto counters(long in, long out, long revenue, long topUps, long occupancy) {
+        return LiveCountersDto.builder()
+                .date(TODAY)
+                .vehiclesIn(in)
+                .vehiclesOut(out)
+                .revenue(Money.of(revenue))
+                .topUps(topUps)
+                .topUpAmount(Money.of(topUps * 50_000))
+                .occupancy(occupancy)
+                .occupancyByVehicleType(Map.of("CAR", occupancy))
+                .build();
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final CountDownLatch released;
+        private final AtomicInteger sent = new AtomicInteger();
+
+        RecordingEmitter(CountDownLatch released) {
+            this.released = released;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            sent.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.parkee.parkingpos.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeadlineSchedulerTest {
+
+    private DeadlineScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new DeadlineScheduler(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(scheduler, "tickMillis", 10L);
+        ReflectionTestUtils.setField(scheduler, "retryDelayMillis", 20L);
+        scheduler.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void failedTaskIsRearmedUntilItSucceeds() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+
+        scheduler.schedule(LocalDateTime.now(), () -> {
+            // Dua percobaan pertama gagal seperti query database saat database down
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("database down");
+            }
+            done.countDown();
+        });
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(attempts).hasValue(3);
+        assertThat(scheduler.pending()).isZero();
+    }
+
+    @Test
+    void slowTaskDoesNotDelayOtherDeadlines() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch fired = new CountDownLatch(1);
+
+        scheduler.schedule(LocalDateTime.now(), () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        scheduler.schedule(LocalDateTime.now().plusNanos(50_000_000), fired::countDown);
+
+        assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+    }
+}
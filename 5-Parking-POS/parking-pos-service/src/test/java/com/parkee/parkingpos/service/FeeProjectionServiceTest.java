@@ -0,0 +1,82 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.config.ParkingProperties;
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
+import com.parkee.parkingpos.domain.projection.ActiveTicketProjection;
+import com.parkee.parkingpos.domain.repository.ParkingTicketRepository;
+import com.parkee.parkingpos.domain.value.Money;
+import com.parkee.parkingpos.dto.FeeProjectionDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FeeProjectionServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 16, 14, 0);
+
+    private final ParkingTicketRepository parkingTicketRepository = mock(ParkingTicketRepository.class);
+    private FeeProjectionService service;
+
+    @BeforeEach
+    void setUp() {
+        ParkingProperties properties = new ParkingProperties();
+        properties.setRatePerHour(new BigDecimal("3000"));
+        properties.setGracePeriodMinutes(15);
+        properties.setMaxParkingHours(24);
+        TariffEngine tariffEngine = new TariffEngine(properties);
+        tariffEngine.compile();
+        service = new FeeProjectionService(parkingTicketRepository, tariffEngine);
+    }
+
+    @Test
+    void sumsFeesByVehicleTypeAndGate() {
+        when(parkingTicketRepository.findActiveProjections()).thenReturn(List.of(
+                ticket(1, ParkingTicket.VehicleType.CAR, NOW.minusMinutes(90), "GATE_A", false),
+                ticket(2, ParkingTicket.VehicleType.CAR, NOW.minusMinutes(181), "GATE_B", true),
+                ticket(3, ParkingTicket.VehicleType.MOTORCYCLE, NOW.minusMinutes(10), "GATE_A", false)));
+
+        FeeProjectionDto projection = service.project(NOW);
+
+        // 2 jam + 4 jam (member -10%) + grace period
+        assertThat(projection.getActiveTickets()).isEqualTo(3);
+        assertThat(projection.getTotalBaseFee()).isEqualTo(Money.of(18_000));
+        assertThat(projection.getTotalMemberDiscount()).isEqualTo(Money.of(1_200));
+        assertThat(projection.getProjectedRevenue()).isEqualTo(Money.of(16_800));
+        assertThat(projection.getByVehicleType().get("CAR").getTickets()).isEqualTo(2);
+        assertThat(projection.getByVehicleType().get("MOTORCYCLE").getProjectedRevenue()).isEqualTo(Money.ZERO);
+        assertThat(projection.getByGate().get("GATE_A").getProjectedRevenue()).isEqualTo(Money.of(6_000));
+        assertThat(projection.getByGate().get("GATE_B").getProjectedRevenue()).isEqualTo(Money.of(10_800));
+    }
+
+    @Test
+    void parallelTotalsMatchTicketCountForLargeLot() {
+        List<ActiveTicketProjection> tickets = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            tickets.add(ticket(i, ParkingTicket.VehicleType.values()[i % 4], NOW.minusMinutes(16 + i % 600),
+                    "GATE_" + (i % 8), i % 3 == 0));
+        }
+        when(parkingTicketRepository.findActiveProjections()).thenReturn(tickets);
+
+        FeeProjectionDto projection = service.project(NOW);
+
+        assertThat(projection.getActiveTickets()).isEqualTo(50_000);
+        assertThat(projection.getByGate().values().stream().mapToLong(FeeProjectionDto.Breakdown::getTickets).sum())
+                .isEqualTo(50_000);
+        assertThat(projection.getByVehicleType().values().stream()
+                .mapToLong(breakdown -> breakdown.getProjectedRevenue().minor()).sum())
+                .isEqualTo(projection.getProjectedRevenue().minor());
+    }
+
+    private static ActiveTicketProjection ticket(long id, ParkingTicket.VehicleType type, LocalDateTime checkIn,
+                                                 String gate, boolean member) {
+        return new ActiveTicketProjection(id, "B" + id + "XY", type, checkIn, gate, member);
+    }
+}
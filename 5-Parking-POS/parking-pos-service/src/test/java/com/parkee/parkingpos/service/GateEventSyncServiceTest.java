@@ -0,0 +1,253 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.entity.Member;
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
+import com.parkee.parkingpos.domain.entity.PaymentMethod;
+import com.parkee.parkingpos.domain.repository.InvoiceReceiptRepository;
+import com.parkee.parkingpos.domain.repository.MemberRepository;
+import com.parkee.parkingpos.domain.repository.ParkingTicketRepository;
+import com.parkee.parkingpos.domain.repository.PaymentRepository;
+import com.parkee.parkingpos.domain.value.Money;
+import com.parkee.parkingpos.dto.GateEventDto;
+import com.parkee.parkingpos.dto.GateEventSyncResultDto;
+import com.parkee.parkingpos.dto.ParkingCalculationDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GateEventSyncServiceTest {
+
+    private final ParkingTicketRepository parkingTicketRepository = mock(ParkingTicketRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    // Isi tabel processed_gate_events; primary key menolak id yang sudah ada
+    private final Set<String> processedEventIds = new HashSet<>();
+    private GateEventSyncService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = new GateEventSyncService(parkingTicketRepository, mock(MemberRepository.class),
+                mock(DailyParkingRollup.class), mock(ParkingService.class), mock(InvoiceReceiptService.class),
+                mock(ActiveParkingIndex.class), mock(VoucherUsageLedger.class), mock(RedisReplayBuffer.class),
+                mock(DashboardStreamService.class), mock(RedisTemplate.class), mock(PlatformTransactionManager.class),
+                jdbcTemplate);
+        ReflectionTestUtils.setField(service, "chunkSize", 500);
+
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class))).thenAnswer(invocation ->
+                Arrays.stream((Object[]) invocation.getRawArguments()[2])
+                        .map(String.class::cast)
+                        .filter(processedEventIds::add)
+                        .toList());
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            List<Object> released = Arrays.asList((Object[]) invocation.getRawArguments()[1]);
+            return processedEventIds.removeAll(released) ? released.size() : 0;
+        });
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void replayingSameBatchTwiceAppliesEventsOnce() {
+        List<GateEventDto> batch = List.of(checkIn("JRN-1", "B1234XYZ"), checkIn("JRN-2", "B5678ABC"));
+
+        GateEventSyncResultDto first = service.sync(batch);
+        // Crash sebelum journal.commit(): batch yang sama di-replay lagi
+        GateEventSyncResultDto second = service.sync(batch);
+
+        assertThat(first.getApplied()).isEqualTo(2);
+        assertThat(second.getApplied()).isZero();
+        assertThat(second.getDuplicates()).isEqualTo(2);
+        assertThat(second.getSkipped()).isZero();
+        verify(parkingTicketRepository, times(2)).save(any(ParkingTicket.class));
+    }
+
+    @Test
+    void rejectedEventCanBeResentWithSameEventId() {
+        GateEventDto missingType = checkIn("JRN-3", "B9999XYZ");
+        missingType.setVehicleType(null);
+
+        GateEventSyncResultDto rejected = service.sync(List.of(missingType));
+        GateEventSyncResultDto corrected = service.sync(List.of(checkIn("JRN-3", "B9999XYZ")));
+
+        assertThat(rejected.getRejected()).isEqualTo(1);
+        assertThat(corrected.getApplied()).isEqualTo(1);
+        assertThat(corrected.getDuplicates()).isZero();
+        assertThat(processedEventIds).containsExactly("JRN-3");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void insufficientBalanceRejectsOneEventWithoutRollingBackChunk() {
+        InMemoryTransactionManager transactionManager = new InMemoryTransactionManager();
+        MemberRepository memberRepository = mock(MemberRepository.class);
+        PaymentRepository paymentRepository = mock(PaymentRepository.class);
+        TariffEngine tariffEngine = mock(TariffEngine.class);
+        ParkingService target = new ParkingService(parkingTicketRepository, paymentRepository, memberRepository,
+                mock(InvoiceReceiptRepository.class), mock(InvoiceReceiptService.class),
+                mock(PhotoIngestionService.class), mock(ActiveParkingIndex.class), mock(FeeQuoteService.class),
+                mock(PlateReservationService.class), mock(ApplicationEventPublisher.class), tariffEngine,
+                mock(VoucherRuleTable.class), mock(VoucherUsageLedger.class), mock(CacheManager.class));
+        // Proxy transaksi yang sama dengan bean Spring, termasuk method package-private
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource(false)));
+        ParkingService parkingService = (ParkingService) proxyFactory.getProxy();
+
+        service = new GateEventSyncService(parkingTicketRepository, mock(MemberRepository.class),
+                mock(DailyParkingRollup.class), parkingService, mock(InvoiceReceiptService.class),
+                mock(ActiveParkingIndex.class), mock(VoucherUsageLedger.class), mock(RedisReplayBuffer.class),
+                mock(DashboardStreamService.class), mock(RedisTemplate.class), transactionManager, jdbcTemplate);
+        ReflectionTestUtils.setField(service, "chunkSize", 500);
+
+        Member member = Member.builder().id(7L).name("Budi").vehiclePlateNumber("B1111AAA").build();
+        ParkingTicket parked = ParkingTicket.builder()
+                .id(1L)
+                .plateNumber("B1111AAA")
+                .vehicleType(ParkingTicket.VehicleType.CAR)
+                .checkInTime(LocalDateTime.now().minusHours(3))
+                .status(ParkingTicket.Status.ACTIVE)
+                .member(member)
+                .build();
+        when(parkingTicketRepository.findByPlateNumberInAndStatus(anyCollection(), eq(ParkingTicket.Status.ACTIVE)))
+                .thenReturn(List.of(parked));
+        when(tariffEngine.calculate(any(ParkingTicket.class), any(LocalDateTime.class))).thenReturn(
+                ParkingCalculationDto.builder()
+                        .baseFee(Money.of(9_000))
+                        .discount(Money.ZERO)
+                        .totalFee(Money.of(9_000))
+                        .build());
+        when(memberRepository.debitBalance(anyLong(), any(BigDecimal.class), any(LocalDateTime.class))).thenReturn(0);
+
+        GateEventDto checkOut = GateEventDto.builder()
+                .eventId("JRN-OUT")
+                .type(GateEventDto.EventType.CHECK_OUT)
+                .plateNumber("B1111AAA")
+                .gate("GATE_B")
+                .operatorName("Operator")
+                .paymentMethod(PaymentMethod.MEMBER_BALANCE)
+                .eventTime(LocalDateTime.now())
+                .build();
+        GateEventSyncResultDto result = service.sync(List.of(checkOut, checkIn("JRN-IN", "B5678ABC")));
+
+        assertThat(result.getRejections()).singleElement()
+                .satisfies(rejected -> assertThat(rejected.getEventId()).isEqualTo("JRN-OUT"));
+        assertThat(result.getApplied()).isEqualTo(1);
+        assertThat(result.getSkipped()).isZero();
+        assertThat(transactionManager.commits).isEqualTo(1);
+        assertThat(parked.getStatus()).isEqualTo(ParkingTicket.Status.ACTIVE);
+    }
+
+    private static GateEventDto checkIn(String eventId, String plate) {
+        return GateEventDto.builder()
+                .eventId(eventId)
+                .type(GateEventDto.EventType.CHECK_IN)
+                .plateNumber(plate)
+                .vehicleType(ParkingTicket.VehicleType.CAR)
+                .gate("GATE_A")
+                .operatorName("Operator")
+                .eventTime(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Transaction manager tanpa resource dengan semantik propagasi dan rollback-only asli Spring
+     */
+    private static final class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+
+        private final ThreadLocal<Scope> current = new ThreadLocal<>();
+        private int commits;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Transaction(current.get());
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return ((Transaction) transaction).scope != null;
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            Scope scope = new Scope();
+            ((Transaction) transaction).scope = scope;
+            current.set(scope);
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commits++;
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+            ((Transaction) status.getTransaction()).scope.rollbackOnly = true;
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            current.remove();
+        }
+
+        private static final class Scope {
+            private boolean rollbackOnly;
+        }
+
+        private static final class Transaction implements SmartTransactionObject {
+            private Scope scope;
+
+            private Transaction(Scope scope) {
+                this.scope = scope;
+            }
+
+            @Override
+            public boolean isRollbackOnly() {
+                return scope.rollbackOnly;
+            }
+
+            @Override
+            public void flush() {
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.parkee.parkingpos.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parkee.parkingpos.config.ParkingProperties;
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
+import com.parkee.parkingpos.domain.entity.PaymentMethod;
+import com.parkee.parkingpos.domain.projection.ActiveTicketProjection;
+import com.parkee.parkingpos.domain.value.Money;
+import com.parkee.parkingpos.dto.CheckOutRequestDto;
+import com.parkee.parkingpos.dto.InvoiceReceiptDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.math.BigDecimal;
+import java.net.ConnectException;
+import java.nio.file.Path;
+import java.sql.SQLTransientConnectionException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class GateJournalServiceTest {
+
+    @TempDir
+    Path journalDirectory;
+
+    private final ParkingService parkingService = mock(ParkingService.class);
+    private final ActiveParkingIndex activeParkingIndex = mock(ActiveParkingIndex.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GateJournalService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ParkingProperties properties = new ParkingProperties();
+        properties.setRatePerHour(new BigDecimal("3000"));
+        properties.setGracePeriodMinutes(15);
+        properties.setMaxParkingHours(24);
+        TariffEngine tariffEngine = new TariffEngine(properties);
+        tariffEngine.compile();
+
+        service = new GateJournalService(parkingService, mock(GateEventSyncService.class), tariffEngine,
+                activeParkingIndex, jdbcTemplate, new ObjectMapper().findAndRegisterModules(), meterRegistry);
+        ReflectionTestUtils.setField(service, "journalDirectory", journalDirectory.toString());
+        ReflectionTestUtils.setField(service, "segmentSize", 1 << 16);
+        ReflectionTestUtils.setField(service, "replayBatchSize", 100);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void checkOutSucceedsOfflineWithoutTouchingDatabase() {
+        // Database mati: Hikari tidak bisa membuka koneksi (SQLState 08001) dan probe gagal
+        CannotCreateTransactionException down = new CannotCreateTransactionException("Could not open JPA EntityManager",
+                new SQLTransientConnectionException("HikariPool-1 - Connection is not available", "08001",
+                        new ConnectException("Connection refused")));
+        when(parkingService.checkOut(any(), any())).thenThrow(down);
+        when(jdbcTemplate.queryForObject(anyString(), any(Class.class))).thenThrow(down);
+
+        ActiveTicketProjection active = new ActiveTicketProjection(
+                42L, "B1234XYZ", ParkingTicket.VehicleType.CAR, LocalDateTime.now().minusMinutes(90), "GATE_A", false);
+        when(activeParkingIndex.find("B1234XYZ")).thenReturn(Optional.of(active));
+        when(activeParkingIndex.evict("B1234XYZ", 42L)).thenReturn(true);
+
+        InvoiceReceiptDto invoice = service.checkOut(request("b1234xyz"), null);
+
+        assertThat(invoice.getOffline()).isTrue();
+        assertThat(invoice.getTotalAmount()).isEqualTo(Money.of(6_000));
+        assertThat(service.isDatabaseAvailable()).isFalse();
+        assertThat(meterRegistry.get("parking.journal.lag").gauge().value()).isEqualTo(1);
+
+        // Hanya percobaan online pertama yang menyentuh ParkingService (transaksional)
+        verify(parkingService).checkOut(any(), any());
+        verifyNoMoreInteractions(parkingService);
+    }
+
+    @Test
+    void poolExhaustionIsNotTreatedAsOutage() {
+        // Limiter atau pool Hikari penuh: timeout tanpa SQLState koneksi
+        CannotCreateTransactionException busy = new CannotCreateTransactionException("Could not open JPA EntityManager",
+                new SQLTransientConnectionException("Timeout menunggu connection database (5000 ms)"));
+        when(parkingService.checkOut(any(), any())).thenThrow(busy);
+
+        assertThatThrownBy(() -> service.checkOut(request("B1234XYZ"), null)).isSameAs(busy);
+        assertThat(service.isDatabaseAvailable()).isTrue();
+    }
+
+    private static CheckOutRequestDto request(String plate) {
+        CheckOutRequestDto request = new CheckOutRequestDto();
+        request.setPlateNumber(plate);
+        request.setPaymentMethod(PaymentMethod.CASH);
+        request.setGate("GATE_B");
+        request.setOperatorName("Operator");
+        return request;
+    }
+}
@@ -0,0 +1,41 @@
+package com.parkee.parkingpos.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MemberCodeAllocatorTest {
+
+    @Test
+    void nodesShareSequenceWithoutCollisionsAndOneQueryPerBlock() {
+        // Simulasi sequence INCREMENT BY BLOCK_SIZE yang dipakai dua node
+        AtomicLong sequence = new AtomicLong(1 - MemberCodeAllocator.BLOCK_SIZE);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+                .thenAnswer(invocation -> sequence.addAndGet(MemberCodeAllocator.BLOCK_SIZE));
+
+        MemberCodeAllocator nodeA = new MemberCodeAllocator(jdbcTemplate);
+        MemberCodeAllocator nodeB = new MemberCodeAllocator(jdbcTemplate);
+
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 120; i++) {
+            codes.add(nodeA.nextCode());
+            codes.add(nodeB.nextCode());
+        }
+
+        assertThat(codes).hasSize(240).contains("MBR000001", "MBR000051");
+        // 120 kode per node = 3 blok per node
+        verify(jdbcTemplate, times(6)).queryForObject(anyString(), eq(Long.class));
+    }
+}
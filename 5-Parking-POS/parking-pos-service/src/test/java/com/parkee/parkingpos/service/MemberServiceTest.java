@@ -0,0 +1,43 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.projection.MemberSuggestion;
+import com.parkee.parkingpos.domain.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MemberServiceTest {
+
+    private final MemberRepository memberRepository = mock(MemberRepository.class);
+    private final MemberService memberService = new MemberService(
+            memberRepository, mock(MemberCodeAllocator.class), mock(ApplicationEventPublisher.class));
+
+    @Test
+    void suggestSkipsQueriesWithoutFullTrigram() {
+        // Wildcard dibuang lebih dulu: "b%_" tersisa satu karakter
+        assertThat(memberService.suggest("ab", 10)).isEmpty();
+        assertThat(memberService.suggest(" b%_ ", 10)).isEmpty();
+        assertThat(memberService.suggest(null, 10)).isEmpty();
+
+        verify(memberRepository, never()).suggestActiveMembers(anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void suggestPassesSanitizedPatternsAndClampedLimit() {
+        MemberSuggestion suggestion = new MemberSuggestion(1L, "MBR-0001", "Budi", "B 1234 XYZ");
+        when(memberRepository.suggestActiveMembers("%b 12%", "b 12%", "b 12", PageRequest.of(0, 20)))
+                .thenReturn(List.of(suggestion));
+
+        assertThat(memberService.suggest(" B 1%2 ", 500)).containsExactly(suggestion);
+    }
+}
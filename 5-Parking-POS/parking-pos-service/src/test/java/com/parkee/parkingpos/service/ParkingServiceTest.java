@@ -0,0 +1,82 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.config.ParkingProperties;
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
+import com.parkee.parkingpos.domain.entity.Voucher;
+import com.parkee.parkingpos.domain.repository.InvoiceReceiptRepository;
+import com.parkee.parkingpos.domain.repository.MemberRepository;
+import com.parkee.parkingpos.domain.repository.ParkingTicketRepository;
+import com.parkee.parkingpos.domain.repository.PaymentRepository;
+import com.parkee.parkingpos.domain.value.Money;
+import com.parkee.parkingpos.dto.FeeQuoteDto;
+import com.parkee.parkingpos.dto.ParkingCalculationDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ParkingServiceTest {
+
+    private static final String VOUCHER = "HEMAT10";
+
+    private final ParkingTicketRepository parkingTicketRepository = mock(ParkingTicketRepository.class);
+    private final FeeQuoteService feeQuoteService = mock(FeeQuoteService.class);
+    private final VoucherRuleTable voucherRuleTable = mock(VoucherRuleTable.class);
+    private final VoucherUsageLedger voucherUsageLedger = mock(VoucherUsageLedger.class);
+    private ParkingService parkingService;
+
+    @BeforeEach
+    void setUp() {
+        ParkingProperties properties = new ParkingProperties();
+        properties.setRatePerHour(new BigDecimal("3000"));
+        properties.setGracePeriodMinutes(15);
+        properties.setMaxParkingHours(24);
+        TariffEngine tariffEngine = new TariffEngine(properties);
+        tariffEngine.compile();
+
+        parkingService = new ParkingService(parkingTicketRepository, mock(PaymentRepository.class),
+                mock(MemberRepository.class), mock(InvoiceReceiptRepository.class), mock(InvoiceReceiptService.class),
+                mock(PhotoIngestionService.class), mock(ActiveParkingIndex.class), feeQuoteService,
+                mock(PlateReservationService.class), mock(ApplicationEventPublisher.class), tariffEngine,
+                voucherRuleTable, voucherUsageLedger, mock(CacheManager.class));
+
+        LocalDateTime now = LocalDateTime.now();
+        when(voucherRuleTable.find(VOUCHER)).thenReturn(Optional.of(new VoucherRuleTable.Rule(VOUCHER,
+                Voucher.DiscountType.FIXED_AMOUNT, 0, Money.of(1_000), Money.ZERO,
+                now.minusDays(1), now.plusDays(1), true)));
+        when(parkingTicketRepository.findByPlateNumberAndStatus("B1234XYZ", ParkingTicket.Status.ACTIVE))
+                .thenReturn(Optional.of(ParkingTicket.builder()
+                        .id(1L)
+                        .plateNumber("B1234XYZ")
+                        .vehicleType(ParkingTicket.VehicleType.CAR)
+                        .checkInTime(now.minusMinutes(90))
+                        .status(ParkingTicket.Status.ACTIVE)
+                        .build()));
+        when(feeQuoteService.issue(any(), any())).thenReturn(FeeQuoteDto.builder().build());
+    }
+
+    @Test
+    void calculatePreviewsVoucherWithoutReservingQuota() {
+        // Operator menghitung ulang beberapa kali sebelum kendaraan benar-benar keluar
+        ParkingCalculationDto first = parkingService.calculateParkingFee("B1234XYZ", VOUCHER);
+        ParkingCalculationDto second = parkingService.calculateParkingFee("B1234XYZ", VOUCHER);
+
+        assertThat(first.getAppliedVoucher()).isEqualTo(VOUCHER);
+        assertThat(first.getTotalFee()).isEqualTo(Money.of(5_000));
+        assertThat(second.getVoucherReservation()).isNull();
+        verify(voucherUsageLedger, never()).reserve(anyString(), anyBoolean());
+    }
+}
@@ -0,0 +1,119 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.repository.ParkingTicketRepository;
+import com.parkee.parkingpos.util.FileUploadUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PhotoIngestionServiceTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private final FileUploadUtil fileUploadUtil = mock(FileUploadUtil.class);
+    private final ParkingTicketRepository parkingTicketRepository = mock(ParkingTicketRepository.class);
+    private final CountDownLatch writerReleased = new CountDownLatch(1);
+    private final List<String> writerThreads = new CopyOnWriteArrayList<>();
+    private PhotoIngestionService service;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        service = new PhotoIngestionService(fileUploadUtil, parkingTicketRepository);
+        ReflectionTestUtils.setField(service, "writerThreads", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 1);
+        ReflectionTestUtils.setField(service, "spoolRetentionMinutes", 60L);
+        service.init();
+
+        when(fileUploadUtil.getTempDirectory()).thenReturn(spoolDir);
+        when(fileUploadUtil.isImageContent(any())).thenAnswer(invocation -> {
+            writerThreads.add(Thread.currentThread().getName());
+            writerReleased.await();
+            return true;
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writerReleased.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    @Timeout(10)
+    void fullQueueDefersWriteToSweeperInsteadOfCallerThread() throws Exception {
+        PhotoIngestionService.StagedPhoto running = staged("running");
+        PhotoIngestionService.StagedPhoto queued = staged("queued");
+        PhotoIngestionService.StagedPhoto deferred = staged("deferred");
+
+        // Satu sedang ditulis, satu di antrean, yang ketiga ditolak
+        service.ingestAfterCommit(running, 1L, PhotoIngestionService.PhotoSlot.CHECK_IN);
+        service.ingestAfterCommit(queued, 2L, PhotoIngestionService.PhotoSlot.CHECK_IN);
+        service.ingestAfterCommit(deferred, 3L, PhotoIngestionService.PhotoSlot.CHECK_OUT);
+
+        assertThat(service.pendingWrites()).isEqualTo(3);
+        // Spool yang ditunda sudah melewati retensi tetapi tidak boleh dihapus sweeper; antrean masih penuh
+        Files.setLastModifiedTime(deferred.spoolPath(), FileTime.from(Instant.now().minus(2, ChronoUnit.HOURS)));
+        service.sweepOrphanedSpoolFiles();
+        assertThat(deferred.spoolPath()).exists();
+        assertThat(service.pendingWrites()).isEqualTo(3);
+        verify(parkingTicketRepository, never()).attachCheckOutPhotoPath(any(), anyString());
+
+        writerReleased.countDown();
+        awaitPending(1);
+        service.sweepOrphanedSpoolFiles();
+        awaitPending(0);
+
+        verify(parkingTicketRepository).attachCheckInPhotoPath(1L, running.relativePath());
+        verify(parkingTicketRepository).attachCheckInPhotoPath(2L, queued.relativePath());
+        verify(parkingTicketRepository).attachCheckOutPhotoPath(3L, deferred.relativePath());
+        assertThat(writerThreads).hasSize(3).allMatch(name -> name.startsWith("photo-writer-"));
+    }
+
+    @Test
+    @Timeout(10)
+    void invalidPhotoNeverReachesTicket() throws Exception {
+        writerReleased.countDown();
+        when(fileUploadUtil.isImageContent(any())).thenReturn(false);
+        PhotoIngestionService.StagedPhoto photo = staged("invalid");
+
+        service.ingestAfterCommit(photo, 1L, PhotoIngestionService.PhotoSlot.CHECK_IN);
+        awaitPending(0);
+
+        assertThat(photo.spoolPath()).doesNotExist();
+        verify(fileUploadUtil, never()).storeSpooledFile(any(), anyString());
+        verify(parkingTicketRepository, never()).attachCheckInPhotoPath(any(), anyString());
+    }
+
+    private PhotoIngestionService.StagedPhoto staged(String name) throws IOException {
+        Path spoolPath = Files.createFile(spoolDir.resolve(name + ".jpg")).toAbsolutePath();
+        return new PhotoIngestionService.StagedPhoto(spoolPath, "checkin/2025/01/16/" + name + ".jpg", "checkin");
+    }
+
+    private void awaitPending(int count) throws InterruptedException {
+        while (service.pendingWrites() > count) {
+            Thread.sleep(10);
+        }
+    }
+}
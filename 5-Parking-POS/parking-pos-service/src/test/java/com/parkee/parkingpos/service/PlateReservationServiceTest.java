@@ -0,0 +1,155 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
+import com.parkee.parkingpos.domain.repository.ParkingTicketRepository;
+import com.parkee.parkingpos.exception.VehicleAlreadyParkedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Contention test reservasi plate: Redis disimulasikan dengan ConcurrentHashMap
+ */
+class PlateReservationServiceTest {
+
+    private static final String PLATE = "B1234CD";
+    private static final String KEY = PlateReservationService.ACTIVE_PARKING_KEY + PLATE;
+
+    private final ConcurrentHashMap<String, Object> redis = new ConcurrentHashMap<>();
+    private ParkingTicketRepository parkingTicketRepository;
+    private PlateReservationService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+        parkingTicketRepository = mock(ParkingTicketRepository.class);
+
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class)))
+                .thenAnswer(inv -> redis.putIfAbsent(inv.getArgument(0), inv.getArgument(1)) == null);
+        when(valueOperations.get(anyString())).thenAnswer(inv -> redis.get(inv.<String>getArgument(0)));
+
+        doAnswer(inv -> {
+            String key = inv.<List<String>>getArgument(1).get(0);
+            return redis.remove(key, inv.getArgument(2)) ? 1L : 0L;
+        }).when(redisTemplate).execute(any(RedisScript.class), anyList(), any(Object[].class));
+
+        service = new PlateReservationService(redisTemplate, parkingTicketRepository);
+    }
+
+    @Test
+    void onlyOneConcurrentCheckInReservesThePlate() throws Exception {
+        int lanes = 64;
+        ExecutorService executor = Executors.newFixedThreadPool(lanes);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < lanes; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        service.reserve(PLATE);
+                        reserved.incrementAndGet();
+                    } catch (VehicleAlreadyParkedException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(reserved).hasValue(1);
+        assertThat(rejected).hasValue(lanes - 1);
+        assertThat((String) redis.get(KEY)).startsWith(PlateReservationService.PENDING_PREFIX);
+    }
+
+    @Test
+    void commitKeepsReservationForCheckInListener() {
+        PlateReservationService.Reservation[] reservation = new PlateReservationService.Reservation[1];
+        List<TransactionSynchronization> synchronizations = inTransaction(() -> reservation[0] = service.reserve(PLATE));
+
+        complete(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(redis.get(KEY)).isEqualTo(reservation[0].token());
+        assertThatThrownBy(() -> service.reserve(PLATE)).isInstanceOf(VehicleAlreadyParkedException.class);
+    }
+
+    @Test
+    void activeTicketIdBlocksReservation() {
+        redis.put(KEY, 42L);
+        when(parkingTicketRepository.existsByIdAndStatus(42L, ParkingTicket.Status.ACTIVE)).thenReturn(true);
+
+        assertThatThrownBy(() -> service.reserve(PLATE)).isInstanceOf(VehicleAlreadyParkedException.class);
+    }
+
+    @Test
+    void rollbackReleasesReservation() {
+        List<TransactionSynchronization> synchronizations = inTransaction(() -> service.reserve(PLATE));
+
+        complete(synchronizations, TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(redis).doesNotContainKey(KEY);
+        assertThat(service.reserve(PLATE).isHeld()).isTrue();
+    }
+
+    @Test
+    void staleTicketIdIsReplaced() {
+        redis.put(KEY, 7L);
+        when(parkingTicketRepository.existsByIdAndStatus(eq(7L), any())).thenReturn(false);
+
+        assertThat(service.reserve(PLATE).isHeld()).isTrue();
+        assertThat((String) redis.get(KEY)).startsWith(PlateReservationService.PENDING_PREFIX);
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private List<TransactionSynchronization> inTransaction(Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void complete(List<TransactionSynchronization> synchronizations, int status) {
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
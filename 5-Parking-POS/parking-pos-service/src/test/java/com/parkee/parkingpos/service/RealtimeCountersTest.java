@@ -0,0 +1,45 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.entity.ParkingTicket;
+import com.parkee.parkingpos.domain.value.Money;
+import com.parkee.parkingpos.dto.LiveCountersDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RealtimeCountersTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 16, 14, 0);
+
+    @Test
+    void incrementsRoundTripIntoLiveCounters() {
+        Map<String, Map<String, Long>> redis = new HashMap<>();
+        apply(redis, RealtimeCounters.checkIn(NOW, "GATE-A", ParkingTicket.VehicleType.CAR));
+        apply(redis, RealtimeCounters.checkIn(NOW, "GATE-A", ParkingTicket.VehicleType.MOTORCYCLE));
+        apply(redis, RealtimeCounters.checkOut(NOW, "GATE-B", ParkingTicket.VehicleType.CAR, Money.of(5_000)));
+
+        LiveCountersDto live = RealtimeCounters.toDto(NOW.toLocalDate(),
+                redis.get(RealtimeCounters.statsKey(LocalDate.of(2025, 1, 16))),
+                redis.get(RealtimeCounters.OCCUPANCY_KEY));
+
+        assertThat(live.getVehiclesIn()).isEqualTo(2);
+        assertThat(live.getVehiclesOut()).isEqualTo(1);
+        assertThat(live.getOccupancy()).isEqualTo(1);
+        assertThat(live.getRevenue()).isEqualTo(Money.of(5_000));
+        assertThat(live.getOccupancyByVehicleType()).containsEntry("CAR", 0L).containsEntry("MOTORCYCLE", 1L);
+        assertThat(live.getByGate().get("GATE-A").getVehiclesIn()).isEqualTo(2);
+        assertThat(live.getByGate().get("GATE-B").getRevenue()).isEqualTo(Money.of(5_000));
+        assertThat(live.getByVehicleType().get("CAR").getVehiclesOut()).isEqualTo(1);
+    }
+
+    private static void apply(Map<String, Map<String, Long>> redis, List<RealtimeCounters.Increment> increments) {
+        increments.forEach(increment -> redis.computeIfAbsent(increment.key(), key -> new HashMap<>())
+                .merge(increment.field(), increment.delta(), Long::sum));
+    }
+}
@@ -0,0 +1,62 @@
+package com.parkee.parkingpos.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TariffTableTest {
+
+    @Test
+    void flatTariffMatchesLegacyHourlyCalculation() {
+        TariffTable table = TariffTable.compile(15, 24, 0, List.of(band(0, 0, 3000)));
+
+        for (long minutes = 0; minutes <= 30 * 60; minutes++) {
+            long expected = minutes <= 15 ? 0 : Math.min((long) Math.ceil(minutes / 60.0), 24) * 3000;
+            assertThat(table.fee(600, minutes)).as("menit %d", minutes).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void hoursArePricedByBandAndProgressiveStep() {
+        TariffTable table = TariffTable.compile(0, 48, 0, List.of(
+                band(6, 0, 2000, 1000),
+                band(22, 0, 500)));
+
+        // Check-in 20:30: jam 1 & 2 di band siang (2000, 1000), jam 3 mulai 22:30 di band malam
+        int checkIn = 20 * 60 + 30;
+        assertThat(table.fee(checkIn, 60)).isEqualTo(2000);
+        assertThat(table.fee(checkIn, 120)).isEqualTo(3000);
+        assertThat(table.fee(checkIn, 180)).isEqualTo(3500);
+
+        // Check-in 01:00 sebelum band pertama: berlaku band malam (wrap tengah malam)
+        assertThat(table.fee(60, 60)).isEqualTo(500);
+    }
+
+    @Test
+    void dailyCapAppliesPerTwentyFourHours() {
+        TariffTable table = TariffTable.compile(0, 72, 10_000, List.of(band(0, 0, 3000)));
+
+        assertThat(table.fee(0, 3 * 60)).isEqualTo(9000);
+        assertThat(table.fee(0, 5 * 60)).isEqualTo(10_000);
+        assertThat(table.fee(0, 24 * 60)).isEqualTo(10_000);
+        assertThat(table.fee(0, 25 * 60)).isEqualTo(13_000);
+        assertThat(table.fee(0, 100 * 60)).isEqualTo(30_000);
+    }
+
+    @Test
+    void rejectsDuplicateBandStart() {
+        assertThatThrownBy(() -> TariffTable.compile(0, 24, 0, List.of(band(6, 0, 1000), band(6, 0, 2000))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static TariffTable.Band band(int hour, int minute, long... rates) {
+        return TariffTable.Band.of(LocalTime.of(hour, minute),
+                Arrays.stream(rates).mapToObj(BigDecimal::valueOf).toList(), 0);
+    }
+}
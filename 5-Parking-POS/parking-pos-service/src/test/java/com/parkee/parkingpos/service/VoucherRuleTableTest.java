@@ -0,0 +1,123 @@
+package com.parkee.parkingpos.service;
+
+import com.parkee.parkingpos.domain.entity.Voucher;
+import com.parkee.parkingpos.domain.repository.VoucherRepository;
+import com.parkee.parkingpos.domain.value.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VoucherRuleTableTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 16, 14, 0);
+
+    @Test
+    void snapshotOpensAndClosesAtValidityBoundaries() {
+        VoucherRuleTable.Rule running = rule("RUNNING", NOW.minusDays(1), NOW.plusHours(2));
+        VoucherRuleTable.Rule upcoming = rule("UPCOMING", NOW.plusHours(1), NOW.plusDays(1));
+
+        VoucherRuleTable.Snapshot snapshot = VoucherRuleTable.Snapshot.of(List.of(running, upcoming), NOW);
+
+        assertThat(snapshot.valid()).containsOnlyKeys("RUNNING");
+        assertThat(snapshot.boundaries(NOW)).containsExactly(
+                entry(NOW.plusHours(1), false), entry(NOW.plusHours(2), true), entry(NOW.plusDays(1), true));
+
+        VoucherRuleTable.Snapshot opened = VoucherRuleTable.Snapshot.of(snapshot.rules(), NOW.plusMinutes(61));
+        assertThat(opened.valid()).containsOnlyKeys("RUNNING", "UPCOMING");
+        assertThat(opened.boundaries(NOW.plusMinutes(61)).firstKey()).isEqualTo(NOW.plusHours(2));
+
+        VoucherRuleTable.Snapshot closed = VoucherRuleTable.Snapshot.of(opened.rules(), NOW.plusHours(3));
+        assertThat(closed.valid()).containsOnlyKeys("UPCOMING");
+        assertThat(closed.rules()).containsExactly(upcoming);
+    }
+
+    @Test
+    void appliesDiscountRulesFromEntity() {
+        Voucher percentage = voucher("HEMAT", Voucher.DiscountType.PERCENTAGE, "12.50", "5000");
+        Voucher fixed = voucher("POTONG", Voucher.DiscountType.FIXED_AMOUNT, "10000", null);
+
+        VoucherRuleTable.Rule percentageRule = VoucherRuleTable.Rule.of(percentage);
+        VoucherRuleTable.Rule fixedRule = VoucherRuleTable.Rule.of(fixed);
+
+        assertThat(percentageRule.accepts(Money.of(3000))).isFalse();
+        assertThat(percentageRule.discount(Money.of(6000))).isEqualTo(Money.of(750));
+        assertThat(fixedRule.accepts(Money.ZERO)).isTrue();
+        assertThat(fixedRule.discount(Money.of(6000))).isEqualTo(Money.of(6000));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void slowerEarlierReloadDoesNotOverwriteNewerSnapshot() throws Exception {
+        VoucherRepository voucherRepository = mock(VoucherRepository.class);
+        DeadlineScheduler deadlineScheduler = new DeadlineScheduler(new SimpleMeterRegistry());
+        deadlineScheduler.init();
+        VoucherRuleTable table = new VoucherRuleTable(voucherRepository, mock(RedisTemplate.class),
+                mock(RedisMessageListenerContainer.class), deadlineScheduler, mock(CacheManager.class));
+
+        Voucher created = voucher("BARU", Voucher.DiscountType.FIXED_AMOUNT, "1000", null);
+        created.setValidFrom(LocalDateTime.now().minusHours(1));
+        created.setValidUntil(LocalDateTime.now().plusHours(1));
+        CountDownLatch firstReading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger reads = new AtomicInteger();
+        // Reload pertama membaca sebelum voucher dibuat dan lambat selesai; reload kedua melihat voucher baru
+        when(voucherRepository.findByActiveTrueAndValidUntilAfter(any())).thenAnswer(invocation -> {
+            if (reads.getAndIncrement() == 0) {
+                firstReading.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return List.of();
+            }
+            return List.of(created);
+        });
+
+        try {
+            Thread first = new Thread(table::reload);
+            first.start();
+            firstReading.await(5, TimeUnit.SECONDS);
+            Thread second = new Thread(table::reload);
+            second.start();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (second.getState() != Thread.State.WAITING && second.isAlive() && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            first.join(5000);
+            second.join(5000);
+
+            assertThat(table.find("BARU")).isPresent();
+        } finally {
+            deadlineScheduler.shutdown();
+        }
+    }
+
+    private static VoucherRuleTable.Rule rule(String code, LocalDateTime from, LocalDateTime until) {
+        return new VoucherRuleTable.Rule(code, Voucher.DiscountType.FIXED_AMOUNT, 0, Money.of(1000), Money.ZERO,
+                from, until, false);
+    }
+
+    private static Voucher voucher(String code, Voucher.DiscountType type, String value, String minimum) {
+        return Voucher.builder()
+                .code(code)
+                .discountType(type)
+                .discountValue(new BigDecimal(value))
+                .minimumAmount(minimum != null ? new BigDecimal(minimum) : null)
+                .validFrom(NOW.minusDays(1))
+                .validUntil(NOW.plusDays(1))
+                .build();
+    }
+}
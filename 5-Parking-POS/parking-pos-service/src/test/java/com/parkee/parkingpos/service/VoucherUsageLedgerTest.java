@@ -0,0 +1,112 @@
+package com.parkee.parkingpos.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VoucherUsageLedgerTest {
+
+    private static final String CODE = "PROMO50";
+    private static final int USAGE_LIMIT = 100;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicInteger leaseCalls = new AtomicInteger();
+    private final List<Object[]> flushed = Collections.synchronizedList(new ArrayList<>());
+    private VoucherUsageLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        // Simulasi UPDATE ... RETURNING di database: lease tidak pernah melebihi usage_limit
+        when(jdbcTemplate.queryForList(startsWith("UPDATE vouchers v SET usage_leased"), eq(Long.class), any(), any()))
+                .thenAnswer(invocation -> {
+                    leaseCalls.incrementAndGet();
+                    int block = invocation.getArgument(2);
+                    synchronized (leased) {
+                        int granted = Math.min(block, USAGE_LIMIT - leased.get());
+                        leased.addAndGet(granted);
+                        return granted > 0 ? List.of((long) granted) : List.of();
+                    }
+                });
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE vouchers SET usage_count"), anyList()))
+                .thenAnswer(invocation -> {
+                    List<Object[]> rows = invocation.getArgument(1);
+                    flushed.addAll(rows);
+                    return new int[rows.size()];
+                });
+
+        DataSourceProperties dataSourceProperties = new DataSourceProperties();
+        dataSourceProperties.setUrl("jdbc:postgresql://localhost:5432/parking_pos_db");
+        ledger = new VoucherUsageLedger(jdbcTemplate, dataSourceProperties, new SimpleMeterRegistry());
+        ledger.init();
+        // Pool lease tidak pernah membuka connection di test; lease diarahkan ke JdbcTemplate tiruan
+        ReflectionTestUtils.setField(ledger, "leaseJdbcTemplate", jdbcTemplate);
+    }
+
+    @Test
+    void enforcesUsageLimitExactlyUnderContention() throws Exception {
+        int attempts = 1_000;
+        AtomicInteger redeemed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < attempts; i++) {
+                executor.submit(() -> {
+                    start.await();
+                    Optional<String> reservation = ledger.reserve(CODE, true);
+                    if (reservation.isPresent() && ledger.commit(reservation.get())) {
+                        redeemed.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        ledger.flush();
+
+        assertThat(redeemed.get()).isEqualTo(USAGE_LIMIT);
+        assertThat(leased.get()).isEqualTo(USAGE_LIMIT);
+        // Row voucher hanya disentuh per blok lease, bukan per pemakaian
+        assertThat(leaseCalls.get()).isLessThanOrEqualTo(USAGE_LIMIT / 20 + 1);
+        assertThat(flushed).hasSize(1);
+        assertThat(flushed.get(0)).containsExactly((long) USAGE_LIMIT, CODE);
+    }
+
+    @Test
+    void releasedReservationReturnsQuotaWithoutCountingUsage() {
+        String first = ledger.reserve(CODE, true).orElseThrow();
+
+        assertThat(ledger.release(first)).isTrue();
+        assertThat(ledger.commit(first)).isFalse();
+        assertThat(ledger.unflushedCount()).isZero();
+
+        for (int i = 0; i < USAGE_LIMIT; i++) {
+            assertThat(ledger.reserve(CODE, true)).isPresent();
+        }
+        assertThat(ledger.reserve(CODE, true)).isEmpty();
+    }
+}
@@ -0,0 +1,30 @@
+package com.parkee.parkingpos.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void neverReportsFalseNegativesAndKeepsFalsePositivesNearTarget() {
+        int inserted = 100_000;
+        BloomFilter filter = BloomFilter.create(inserted, 0.001);
+        for (int i = 0; i < inserted; i++) {
+            filter.put("PROMO" + i);
+        }
+
+        for (int i = 0; i < inserted; i++) {
+            assertThat(filter.mightContain("PROMO" + i)).isTrue();
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < inserted; i++) {
+            if (filter.mightContain("OTHER" + i)) {
+                falsePositives++;
+            }
+        }
+        // Target 0.1%, toleransi 3x
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
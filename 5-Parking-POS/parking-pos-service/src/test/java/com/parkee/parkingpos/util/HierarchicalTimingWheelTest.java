@@ -0,0 +1,52 @@
+package com.parkee.parkingpos.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void firesEveryTimerAtItsTickAcrossLevels() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1000, 64, START);
+        Random random = new Random(42);
+        List<HierarchicalTimingWheel.Timer<Long>> timers = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            // Hingga ~3 hari ke depan agar melewati level 0, 1 dan 2
+            long deadline = START + 1 + random.nextLong(3L * 24 * 3600 * 1000);
+            timers.add(wheel.schedule(deadline, deadline));
+        }
+        for (int i = 0; i < timers.size(); i += 2) {
+            assertThat(timers.get(i).cancel()).isTrue();
+        }
+        assertThat(wheel.size()).isEqualTo(2_500);
+
+        int fired = 0;
+        for (long now = START; now <= START + 3L * 24 * 3600 * 1000 + 1000; now += 7_000) {
+            for (long deadline : wheel.advance(now)) {
+                assertThat(deadline).isLessThanOrEqualTo(now);
+                assertThat(now - deadline).isLessThan(8_000);
+                fired++;
+            }
+        }
+
+        assertThat(fired).isEqualTo(2_500);
+        assertThat(wheel.size()).isZero();
+        assertThat(timers.get(1).cancel()).isFalse();
+    }
+
+    @Test
+    void pastDeadlineFiresOnNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 64, START);
+        wheel.schedule(START - 5_000, "late");
+
+        assertThat(wheel.advance(START)).containsExactly("late");
+        assertThat(wheel.advance(START + 1000)).isEmpty();
+    }
+}
@@ -0,0 +1,66 @@
+package com.parkee.parkingpos.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void entriesSurviveReopenUntilCommitted() throws Exception {
+        try (MappedJournal journal = new MappedJournal(directory, 4096)) {
+            for (int i = 0; i < 5; i++) {
+                journal.append(("event-" + i).getBytes(StandardCharsets.UTF_8));
+            }
+            List<MappedJournal.Entry> firstTwo = journal.read(2);
+            journal.commit(firstTwo.get(1).next(), 2);
+        }
+
+        try (MappedJournal reopened = new MappedJournal(directory, 4096)) {
+            assertThat(reopened.pending()).isEqualTo(3);
+            assertThat(payloads(reopened.read(10))).containsExactly("event-2", "event-3", "event-4");
+
+            reopened.append("event-5".getBytes(StandardCharsets.UTF_8));
+            assertThat(payloads(reopened.read(10))).containsExactly("event-2", "event-3", "event-4", "event-5");
+        }
+    }
+
+    @Test
+    void rollsSegmentsAndDeletesReplayedOnes() throws Exception {
+        byte[] payload = new byte[100];
+        try (MappedJournal journal = new MappedJournal(directory, 256)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(payload);
+            }
+            assertThat(segmentCount()).isEqualTo(5);
+
+            List<MappedJournal.Entry> entries = journal.read(100);
+            assertThat(entries).hasSize(10);
+
+            journal.commit(entries.get(9).next(), 10);
+            assertThat(journal.pending()).isZero();
+            assertThat(segmentCount()).isEqualTo(1);
+            assertThat(journal.oldestPendingTimestamp()).isEmpty();
+        }
+    }
+
+    private List<String> payloads(List<MappedJournal.Entry> entries) {
+        return entries.stream().map(entry -> new String(entry.payload(), StandardCharsets.UTF_8)).toList();
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".journal")).count();
+        }
+    }
+}